@@ -0,0 +1,102 @@
+package com.codesoom.assignment.benchmarks;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.domain.ProductView;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Map-backed repository so the benchmarks measure the service, Jackson and
+ * MVC layers instead of the database.
+ */
+class MapProductRepository implements ProductRepository {
+    private final NavigableMap<Long, Product> products =
+            new ConcurrentSkipListMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    static MapProductRepository withProducts(int count) {
+        MapProductRepository repository = new MapProductRepository();
+        for (int i = 0; i < count; i += 1) {
+            repository.save(Product.builder()
+                    .name("쥐돌이 " + i)
+                    .maker("냥이월드")
+                    .price(5000 + i)
+                    .imageUrl("http://localhost:8080/rat/" + i)
+                    .build());
+        }
+        return repository;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return new ArrayList<>(products.values());
+    }
+
+    @Override
+    public List<Product> findByIdGreaterThanOrderByIdAsc(Long id,
+                                                         Pageable pageable) {
+        return products.tailMap(id, false).values().stream()
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ProductView> findViewsByIdGreaterThan(Long id,
+                                                      Set<String> fields,
+                                                      int limit) {
+        return products.tailMap(id, false).values().stream()
+                .limit(limit)
+                .map(product -> ProductView.builder()
+                        .id(product.getId())
+                        .name(fields.contains("name")
+                                ? product.getName() : null)
+                        .maker(fields.contains("maker")
+                                ? product.getMaker() : null)
+                        .price(fields.contains("price")
+                                ? product.getPrice() : null)
+                        .imageUrl(fields.contains("imageUrl")
+                                ? product.getImageUrl() : null)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(products.get(id));
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<Long> ids) {
+        List<Product> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public Product save(Product product) {
+        Product saved = product.getId() != null ? product : Product.builder()
+                .id(sequence.incrementAndGet())
+                .name(product.getName())
+                .maker(product.getMaker())
+                .price(product.getPrice())
+                .imageUrl(product.getImageUrl())
+                .build();
+        products.put(saved.getId(), saved);
+        return saved;
+    }
+
+    @Override
+    public void delete(Product product) {
+        products.remove(product.getId());
+    }
+}
@@ -0,0 +1,76 @@
+package com.codesoom.assignment.benchmarks;
+
+import com.codesoom.assignment.application.CatalogVersion;
+import com.codesoom.assignment.application.ProductCache;
+import com.codesoom.assignment.application.ProductListSnapshots;
+import com.codesoom.assignment.application.ProductService;
+import com.codesoom.assignment.controllers.ProductController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductControllerBenchmark {
+    @Param({"100", "10000"})
+    private int catalogSize;
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        ProductService productService = new ProductService(
+                MapProductRepository.withProducts(catalogSize),
+                new ProductCache(10_000, Duration.ofMinutes(10)),
+                event -> {
+                });
+
+        CatalogVersion catalogVersion = new CatalogVersion();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new ProductController(productService, catalogVersion,
+                        new ProductListSnapshots(productService,
+                                catalogVersion, objectMapper, "lazy", 64,
+                                Duration.ZERO, Duration.ofSeconds(5), 1000),
+                        objectMapper, Optional.empty(), false))
+                .build();
+    }
+
+    @Benchmark
+    public MvcResult list() throws Exception {
+        return mockMvc.perform(get("/products")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult listWithFields() throws Exception {
+        return mockMvc.perform(get("/products")
+                .param("fields", "id,name,price")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult detail() throws Exception {
+        return mockMvc.perform(get("/products/1")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult update() throws Exception {
+        return mockMvc.perform(
+                patch("/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        ).andReturn();
+    }
+}
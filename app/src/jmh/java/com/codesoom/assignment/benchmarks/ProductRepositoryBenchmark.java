@@ -0,0 +1,91 @@
+package com.codesoom.assignment.benchmarks;
+
+import com.codesoom.assignment.App;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.infra.MemoryProductRepository;
+import com.codesoom.assignment.infra.ProductLog;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JPA repository on an in-memory H2 database with the
+ * in-memory engine on the reads the API makes most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductRepositoryBenchmark {
+    @Param({"jpa", "memory"})
+    private String engine;
+
+    @Param({"10000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private MemoryProductRepository memoryRepository;
+
+    private Path directory;
+
+    private ProductRepository productRepository;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (engine.equals("jpa")) {
+            context = new SpringApplicationBuilder(App.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:mem:benchmark",
+                            "--spring.jpa.hibernate.ddl-auto=create-drop",
+                            "--products.second-level-cache.enabled=false");
+            productRepository = context.getBean(ProductRepository.class);
+        } else {
+            directory = Files.createTempDirectory("products");
+            memoryRepository = new MemoryProductRepository(
+                    new ProductLog(directory, 64 << 20, false),
+                    Long.MAX_VALUE);
+            productRepository = memoryRepository;
+        }
+
+        for (int i = 0; i < catalogSize; i += 1) {
+            productRepository.save(Product.builder()
+                    .name("쥐돌이 " + i)
+                    .maker("냥이월드")
+                    .price(5000 + i % 1000)
+                    .build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (memoryRepository != null) {
+            memoryRepository.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById(catalogSize / 2L);
+    }
+
+    @Benchmark
+    public List<Product> findPage() {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(
+                catalogSize / 2L, PageRequest.of(0, 100));
+    }
+}
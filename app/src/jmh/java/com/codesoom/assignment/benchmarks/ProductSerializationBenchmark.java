@@ -0,0 +1,59 @@
+package com.codesoom.assignment.benchmarks;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.infra.ProductJsonComponent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSerializationBenchmark {
+    @Param({"100", "10000", "1000000"})
+    private int catalogSize;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper handWrittenMapper;
+
+    private Product product;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        handWrittenMapper = new ObjectMapper().registerModule(
+                new SimpleModule().addSerializer(Product.class,
+                        new ProductJsonComponent.ProductSerializer()));
+
+        products = MapProductRepository.withProducts(catalogSize).findAll();
+        product = products.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeProductHandWritten() throws JsonProcessingException {
+        return handWrittenMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProductsHandWritten()
+            throws JsonProcessingException {
+        return handWrittenMapper.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,63 @@
+package com.codesoom.assignment.benchmarks;
+
+import com.codesoom.assignment.application.ProductCache;
+import com.codesoom.assignment.application.ProductService;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductData;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+    @Param({"100", "10000", "1000000"})
+    private int catalogSize;
+
+    private ProductService productService;
+
+    private ProductData productData;
+
+    /**
+     * Runs before every iteration, so the products {@code createProduct}
+     * adds and the versions {@code updateProduct} bumps do not carry over
+     * and each iteration measures a catalog of {@code catalogSize}.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        productService = new ProductService(
+                MapProductRepository.withProducts(catalogSize),
+                new ProductCache(10_000, Duration.ofMinutes(10)),
+                event -> {
+                });
+
+        productData = ProductData.builder()
+                .name("쥐순이")
+                .maker("냥이월드")
+                .price(10000)
+                .build();
+    }
+
+    @Benchmark
+    public List<Product> getProducts() {
+        return productService.getProducts(null, 100);
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        return productService.getProduct(catalogSize / 2L);
+    }
+
+    @Benchmark
+    public Product createProduct() {
+        return productService.createProduct(productData);
+    }
+
+    @Benchmark
+    public Product updateProduct() {
+        return productService.updateProduct(1L, productData);
+    }
+}
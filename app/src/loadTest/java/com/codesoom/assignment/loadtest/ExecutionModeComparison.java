@@ -0,0 +1,131 @@
+package com.codesoom.assignment.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application once with Tomcat's worker pool and once with the
+ * {@code virtual-threads} profile, drives the same workload against each
+ * and writes both results side by side.
+ *
+ * <p>The build runs on Java 15, which has no virtual threads, so the
+ * servers are started in separate JVMs from {@code compare.java}, a Java
+ * 21 or later {@code java} executable, with the compiled classes on the
+ * class path.
+ */
+public class ExecutionModeComparison {
+    private static final Map<String, List<String>> MODES =
+            new LinkedHashMap<>();
+
+    static {
+        MODES.put("platform-threads", List.of());
+        MODES.put("virtual-threads",
+                List.of("--spring.profiles.active=virtual-threads"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = System.getProperty("compare.java");
+        if (java == null) {
+            throw new IllegalArgumentException(
+                    "Set -Dcompare.java to a Java 21 or later java executable");
+        }
+
+        int clients = Integer.getInteger("loadtest.clients", 1000);
+        int products = Integer.getInteger("loadtest.products", 10000);
+        Duration warmUp = Duration.ofSeconds(
+                Long.getLong("loadtest.warm-up-seconds", 10));
+        Duration duration = Duration.ofSeconds(
+                Long.getLong("loadtest.duration-seconds", 30));
+        String mix = System.getProperty("loadtest.mix", Workload.DEFAULT_MIX);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("java", java);
+        report.put("clients", clients);
+        report.put("products", products);
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("mix", mix);
+
+        for (Map.Entry<String, List<String>> mode : MODES.entrySet()) {
+            LoadTest.Result result = run(java, mode.getValue(), clients,
+                    products, warmUp, duration, mix);
+            System.out.println(mode.getKey() + ": " + result);
+            report.put(mode.getKey(), summaryOf(result));
+        }
+
+        Path reportFile = Path.of(System.getProperty("compare.report",
+                "build/reports/execution-modes/comparison.json"));
+        Files.createDirectories(reportFile.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportFile.toFile(), report);
+        System.out.println("Report: " + reportFile.toAbsolutePath());
+    }
+
+    private static LoadTest.Result run(String java, List<String> modeArgs,
+                                       int clients, int products,
+                                       Duration warmUp, Duration duration,
+                                       String mix) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>(List.of(
+                java,
+                // Hibernate's Byte Buddy predates Java 21 class files.
+                "-Dnet.bytebuddy.experimental=true",
+                "-cp", System.getProperty("compare.classpath"),
+                "com.codesoom.assignment.App",
+                "--server.port=" + port,
+                "--spring.datasource.url="
+                        + "jdbc:h2:mem:compare;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop"));
+        command.addAll(modeArgs);
+
+        URI baseUrl = URI.create("http://localhost:" + port);
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command).inheritIO().start();
+
+        try {
+            StartupTimer.waitFor(HttpClient.newHttpClient(),
+                    baseUrl.resolve("/actuator/health/readiness"),
+                    process, startedAt, Duration.ofMinutes(2));
+
+            LoadTest loadTest = new LoadTest(baseUrl, clients,
+                    LoadTest.rateProperty());
+            Workload workload = new Workload(baseUrl, mix,
+                    loadTest.seed(products));
+
+            loadTest.run(warmUp, workload);
+            return loadTest.run(duration, workload);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static Map<String, Object> summaryOf(LoadTest.Result result) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", result.requests());
+        summary.put("errors", result.errors());
+        summary.put("throughput", result.throughput());
+        summary.put("p50Millis", result.percentileMillis(50));
+        summary.put("p95Millis", result.percentileMillis(95));
+        summary.put("p99Millis", result.percentileMillis(99));
+        summary.put("maxMillis", result.percentileMillis(100));
+        return summary;
+    }
+}
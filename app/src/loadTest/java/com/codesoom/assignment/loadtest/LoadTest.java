@@ -0,0 +1,316 @@
+package com.codesoom.assignment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Sends requests to the product API at a fixed rate of
+ * {@code loadtest.rate} per second, spread over a fixed number of
+ * clients, and reports throughput and latency percentiles per operation.
+ *
+ * <p>Each client sends on a schedule rather than right after its previous
+ * response, and latency is measured from when a request was due. A stalled
+ * server thus shows up as the wait of every request it held back, not as
+ * one slow sample, and failed requests are recorded like the rest.
+ *
+ * <p>Without {@code loadtest.base-url} the application is started in this
+ * JVM against a fresh H2 database and seeded with
+ * {@code loadtest.products} products. The run fails when a
+ * {@link SloGate} is not met, and leaves JSON and HTML reports in
+ * {@code loadtest.report-dir}.
+ *
+ * <p>Run it once against the default thread-per-request server and once
+ * against a server started with the {@code virtual-threads} profile to
+ * compare the two execution modes.
+ */
+public class LoadTest {
+    public static final int DEFAULT_RATE = 2000;
+
+    private final HttpClient client;
+
+    private final URI baseUrl;
+
+    private final int clients;
+
+    private final long intervalNanos;
+
+    public LoadTest(URI baseUrl, int clients, int rate) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.clients = clients;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(clients) / rate;
+    }
+
+    public static int rateProperty() {
+        return Integer.getInteger("loadtest.rate", DEFAULT_RATE);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url");
+        LocalServer server = baseUrl != null ? null : LocalServer.start(
+                databaseDirectory(System.getProperty(
+                        "loadtest.database", "mem")),
+                serverArgs(System.getProperty("loadtest.server-args", "")));
+
+        try {
+            LoadTest loadTest = new LoadTest(
+                    server != null ? server.getBaseUrl()
+                            : URI.create(baseUrl),
+                    Integer.getInteger("loadtest.clients", 1000),
+                    rateProperty());
+
+            Duration warmUp = Duration.ofSeconds(
+                    Long.getLong("loadtest.warm-up-seconds", 10));
+            Duration duration = Duration.ofSeconds(
+                    Long.getLong("loadtest.duration-seconds", 30));
+
+            List<Long> ids = server != null
+                    ? loadTest.seed(Integer.getInteger(
+                            "loadtest.products", 10000))
+                    : loadTest.loadIds();
+
+            Workload workload = new Workload(loadTest.baseUrl,
+                    System.getProperty("loadtest.mix", Workload.DEFAULT_MIX),
+                    ids);
+
+            loadTest.run(warmUp, workload);
+            Result result = loadTest.run(duration, workload);
+
+            System.out.println(result);
+
+            SloGate gate = SloGate.fromSystemProperties();
+            List<String> violations = gate.check(result);
+
+            Path reportDirectory = Path.of(System.getProperty(
+                    "loadtest.report-dir", "build/reports/loadtest"));
+            new LoadTestReport(result, workload, gate, violations)
+                    .writeTo(reportDirectory);
+            System.out.println("Report: "
+                    + reportDirectory.resolve("index.html").toAbsolutePath());
+
+            if (!violations.isEmpty()) {
+                violations.forEach(System.err::println);
+                throw new IllegalStateException("SLO not met");
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static Path databaseDirectory(String database) {
+        return database.equals("mem") ? null : Path.of(database);
+    }
+
+    private static List<String> serverArgs(String args) {
+        return Arrays.stream(args.split("\\s+"))
+                .filter(arg -> !arg.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public List<Long> seed(int count) throws IOException, InterruptedException {
+        return LocalServer.seed(client, baseUrl, count);
+    }
+
+    public List<Long> loadIds() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(baseUrl.resolve("/products?limit=1000"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        List<Long> found = new ArrayList<>();
+        for (JsonNode product : new ObjectMapper().readTree(response.body())) {
+            found.add(product.get("id").asLong());
+        }
+        return found;
+    }
+
+    public Result run(Duration duration, Workload workload)
+            throws InterruptedException {
+        Map<String, Stats> stats = new ConcurrentHashMap<>();
+        CountDownLatch finished = new CountDownLatch(clients);
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + duration.toNanos();
+
+        for (int i = 0; i < clients; i += 1) {
+            send(workload, startedAt + intervalNanos * i / clients, deadline,
+                    stats, finished);
+        }
+
+        finished.await();
+
+        return new Result(clients, System.nanoTime() - startedAt,
+                new TreeMap<>(stats));
+    }
+
+    /**
+     * Sends one client's request due at {@code dueAt}, waiting until then
+     * if it is early, and schedules the next one an interval later.
+     */
+    private void send(Workload workload, long dueAt, long deadline,
+                      Map<String, Stats> stats, CountDownLatch finished) {
+        if (dueAt >= deadline) {
+            finished.countDown();
+            return;
+        }
+
+        long delay = dueAt - System.nanoTime();
+        if (delay > 0) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+                    .execute(() -> sendNow(workload, dueAt, deadline, stats,
+                            finished));
+            return;
+        }
+        sendNow(workload, dueAt, deadline, stats, finished);
+    }
+
+    private void sendNow(Workload workload, long dueAt, long deadline,
+                         Map<String, Stats> stats, CountDownLatch finished) {
+        Workload.Call call = workload.next();
+        Stats operation = stats.computeIfAbsent(call.getOperation(),
+                key -> new Stats());
+
+        client.sendAsync(call.getRequest(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    operation.record(System.nanoTime() - dueAt);
+                    if (error != null || response.statusCode() >= 400) {
+                        operation.errors.incrementAndGet();
+                    } else {
+                        call.succeeded(response);
+                    }
+                    send(workload, dueAt + intervalNanos, deadline, stats,
+                            finished);
+                });
+    }
+
+    static class Stats {
+        private final Histogram histogram = new ConcurrentHistogram(
+                TimeUnit.MINUTES.toNanos(1), 3);
+
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long latencyNanos) {
+            histogram.recordValue(Math.min(latencyNanos,
+                    histogram.getHighestTrackableValue()));
+        }
+
+        Histogram histogram() {
+            return histogram;
+        }
+
+        long errors() {
+            return errors.get();
+        }
+    }
+
+    public static class Result {
+        private final int clients;
+
+        private final long elapsedNanos;
+
+        private final Map<String, Stats> operations;
+
+        private final Histogram histogram;
+
+        private final long errors;
+
+        Result(int clients, long elapsedNanos, Map<String, Stats> operations) {
+            this.clients = clients;
+            this.elapsedNanos = elapsedNanos;
+            this.operations = operations;
+            this.histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 3);
+            operations.values().forEach(stats ->
+                    histogram.add(stats.histogram()));
+            this.errors = operations.values().stream()
+                    .mapToLong(Stats::errors).sum();
+        }
+
+        public int clients() {
+            return clients;
+        }
+
+        public double elapsedSeconds() {
+            return elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        public Map<String, Stats> operations() {
+            return operations;
+        }
+
+        public Histogram histogram() {
+            return histogram;
+        }
+
+        /**
+         * Every request that completed, failed ones included.
+         */
+        public long requests() {
+            return histogram.getTotalCount();
+        }
+
+        /**
+         * Successful requests per second.
+         */
+        public double throughput() {
+            return (requests() - errors) / elapsedSeconds();
+        }
+
+        public double percentileMillis(double percentile) {
+            return millisAt(histogram, percentile);
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public double errorRate() {
+            return requests() == 0 ? 0 : errors / (double) requests();
+        }
+
+        static double millisAt(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile)
+                    / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder(String.format(
+                    "clients=%d requests=%d errors=%d throughput=%.1f/s "
+                            + "p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                    clients, requests(), errors, throughput(),
+                    percentileMillis(50), percentileMillis(95),
+                    percentileMillis(99), percentileMillis(100)));
+            operations.forEach((name, stats) -> result.append(String.format(
+                    "%n  %-6s requests=%d errors=%d p50=%.2fms p99=%.2fms",
+                    name, stats.histogram().getTotalCount(), stats.errors(),
+                    millisAt(stats.histogram(), 50),
+                    millisAt(stats.histogram(), 99))));
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.codesoom.assignment.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a run as {@code report.json}, for comparing runs in CI, and as
+ * {@code index.html}, for reading.
+ */
+public class LoadTestReport {
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9, 100};
+
+    private final LoadTest.Result result;
+
+    private final Workload workload;
+
+    private final SloGate gate;
+
+    private final List<String> violations;
+
+    public LoadTestReport(LoadTest.Result result, Workload workload,
+                          SloGate gate, List<String> violations) {
+        this.result = result;
+        this.workload = workload;
+        this.gate = gate;
+        this.violations = violations;
+    }
+
+    public void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(),
+                        toMap());
+
+        Files.writeString(directory.resolve("index.html"), toHtml(),
+                StandardCharsets.UTF_8);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> slo = new LinkedHashMap<>();
+        slo.put("p99Ms", gate.p99Millis());
+        slo.put("minThroughput", gate.minThroughput());
+        slo.put("maxErrorRate", gate.maxErrorRate());
+        slo.put("passed", violations.isEmpty());
+        slo.put("violations", violations);
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        result.operations().forEach((name, stats) -> {
+            Map<String, Object> operation = summary(stats.histogram(),
+                    stats.errors());
+            operation.put("weight", workload.getWeights().get(name));
+            operations.put(name, operation);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("clients", result.clients());
+        report.put("elapsedSeconds", result.elapsedSeconds());
+        report.put("throughput", result.throughput());
+        report.put("errorRate", result.errorRate());
+        report.put("overall", summary(result.histogram(), result.errors()));
+        report.put("operations", operations);
+        report.put("slo", slo);
+        return report;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram,
+                                               long errors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + format(percentile),
+                    LoadTest.Result.millisAt(histogram, percentile));
+        }
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    private String toHtml() {
+        StringBuilder rows = new StringBuilder();
+        rows.append(row("all", result.histogram(), result.errors()));
+        result.operations().forEach((name, stats) ->
+                rows.append(row(name, stats.histogram(), stats.errors())));
+
+        StringBuilder header = new StringBuilder(
+                "<th>operation</th><th>requests</th><th>errors</th>");
+        for (double percentile : PERCENTILES) {
+            header.append("<th>p").append(format(percentile))
+                    .append(" (ms)</th>");
+        }
+
+        StringBuilder verdict = new StringBuilder(violations.isEmpty()
+                ? "<p class=\"pass\">SLO met</p>"
+                : "<p class=\"fail\">SLO not met</p><ul>");
+        violations.forEach(violation ->
+                verdict.append("<li>").append(violation).append("</li>"));
+        if (!violations.isEmpty()) {
+            verdict.append("</ul>");
+        }
+
+        return "<!DOCTYPE html>\n"
+                + "<html><head><meta charset=\"utf-8\">"
+                + "<title>Load test report</title><style>"
+                + "body{font-family:sans-serif}"
+                + "td,th{padding:4px 12px;text-align:right}"
+                + ".pass{color:green}.fail{color:red}"
+                + "</style></head><body>"
+                + "<h1>Load test report</h1>"
+                + String.format("<p>%d clients, %.1f s, %.1f requests/s, "
+                                + "error rate %.4f</p>",
+                        result.clients(), result.elapsedSeconds(),
+                        result.throughput(), result.errorRate())
+                + verdict
+                + "<table><tr>" + header + "</tr>" + rows + "</table>"
+                + "</body></html>\n";
+    }
+
+    private static String row(String name, Histogram histogram,
+                              long errors) {
+        StringBuilder row = new StringBuilder("<tr><th>").append(name)
+                .append("</th><td>").append(histogram.getTotalCount())
+                .append("</td><td>").append(errors).append("</td>");
+        for (double percentile : PERCENTILES) {
+            row.append(String.format("<td>%.2f</td>",
+                    LoadTest.Result.millisAt(histogram, percentile)));
+        }
+        return row.append("</tr>").toString();
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile);
+    }
+}
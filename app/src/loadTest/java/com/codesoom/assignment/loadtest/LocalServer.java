@@ -0,0 +1,101 @@
+package com.codesoom.assignment.loadtest;
+
+import com.codesoom.assignment.App;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Runs the application in this JVM on a random port against a fresh H2
+ * database, in memory or in a file, so a load test needs nothing but
+ * Gradle.
+ */
+public class LocalServer implements AutoCloseable {
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private final ConfigurableApplicationContext context;
+
+    private final URI baseUrl;
+
+    private LocalServer(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.baseUrl = URI.create("http://localhost:"
+                + context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    /**
+     * Starts the server. A {@code null} directory keeps the database in
+     * memory.
+     */
+    public static LocalServer start(Path databaseDirectory,
+                                    List<String> extraArgs) {
+        String url = databaseDirectory == null
+                ? "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1"
+                : "jdbc:h2:file:" + databaseDirectory.resolve("products")
+                .toAbsolutePath();
+
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=create-drop"));
+        args.addAll(extraArgs);
+
+        return new LocalServer(SpringApplication.run(App.class,
+                args.toArray(new String[0])));
+    }
+
+    public URI getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Creates products through the batch API and returns their ids.
+     */
+    public static List<Long> seed(HttpClient client, URI baseUrl, int count)
+            throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Long> ids = new ArrayList<>(count);
+
+        for (int from = 0; from < count; from += SEED_BATCH_SIZE) {
+            StringJoiner items = new StringJoiner(",", "[", "]");
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, count);
+                 i += 1) {
+                items.add(Workload.productJson());
+            }
+
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(baseUrl.resolve("/products/batch"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    items.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(
+                        "Seeding failed with " + response.statusCode());
+            }
+
+            for (JsonNode result : objectMapper.readTree(response.body())) {
+                ids.add(result.get("id").asLong());
+            }
+        }
+
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,94 @@
+package com.codesoom.assignment.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service level objectives a load test run must meet:
+ * {@code loadtest.slo.p99-ms} for the p99 latency over all requests,
+ * {@code loadtest.slo.min-throughput} in requests per second and
+ * {@code loadtest.slo.max-error-rate}. A single operation can get its own
+ * latency budget with {@code loadtest.slo.<operation>.p99-ms}. A
+ * threshold of zero or less is not checked. The minimum throughput
+ * defaults to 90% of {@code loadtest.rate}, so a server that cannot keep
+ * up with the offered load fails the run.
+ */
+public class SloGate {
+    private static final String PREFIX = "loadtest.slo.";
+
+    private final double p99Millis;
+
+    private final double minThroughput;
+
+    private final double maxErrorRate;
+
+    public SloGate(double p99Millis, double minThroughput,
+                   double maxErrorRate) {
+        this.p99Millis = p99Millis;
+        this.minThroughput = minThroughput;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    public static SloGate fromSystemProperties() {
+        return new SloGate(
+                doubleProperty(PREFIX + "p99-ms", 250),
+                doubleProperty(PREFIX + "min-throughput",
+                        0.9 * LoadTest.rateProperty()),
+                doubleProperty(PREFIX + "max-error-rate", 0.01));
+    }
+
+    public double p99Millis() {
+        return p99Millis;
+    }
+
+    public double p99Millis(String operation) {
+        return doubleProperty(PREFIX + operation + ".p99-ms", p99Millis);
+    }
+
+    public double minThroughput() {
+        return minThroughput;
+    }
+
+    public double maxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public List<String> check(LoadTest.Result result) {
+        List<String> violations = new ArrayList<>();
+
+        if (p99Millis > 0 && result.percentileMillis(99) > p99Millis) {
+            violations.add(String.format("p99 %.2fms exceeds %.2fms",
+                    result.percentileMillis(99), p99Millis));
+        }
+
+        for (Map.Entry<String, LoadTest.Stats> entry
+                : result.operations().entrySet()) {
+            double budget = p99Millis(entry.getKey());
+            double p99 = LoadTest.Result.millisAt(
+                    entry.getValue().histogram(), 99);
+            if (budget > 0 && budget != p99Millis && p99 > budget) {
+                violations.add(String.format("%s p99 %.2fms exceeds %.2fms",
+                        entry.getKey(), p99, budget));
+            }
+        }
+
+        if (minThroughput > 0 && result.throughput() < minThroughput) {
+            violations.add(String.format(
+                    "throughput %.1f/s is below %.1f/s",
+                    result.throughput(), minThroughput));
+        }
+
+        if (maxErrorRate >= 0 && result.errorRate() > maxErrorRate) {
+            violations.add(String.format("error rate %.4f exceeds %.4f",
+                    result.errorRate(), maxErrorRate));
+        }
+
+        return violations;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
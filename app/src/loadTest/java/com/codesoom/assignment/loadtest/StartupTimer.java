@@ -0,0 +1,165 @@
+package com.codesoom.assignment.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Starts the application in a new JVM and measures how long it takes
+ * until the readiness probe is up and until the first
+ * {@code GET /products} is answered.
+ *
+ * <p>The server is stopped with a normal shutdown, so a run with
+ * {@code -XX:ArchiveClassesAtExit} leaves an AppCDS archive of every
+ * class loaded during startup and warm-up behind.
+ *
+ * <p>With {@code startup.schema-args}, the server is first started and
+ * stopped once more with those arguments added, untimed, to create the
+ * schema. The timed run then only validates it, as a pod would.
+ */
+public class StartupTimer {
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    public static void main(String[] args) throws Exception {
+        Duration timeout = Duration.ofSeconds(
+                Long.getLong("startup.timeout-seconds", 120));
+        long maxMillis = Long.getLong("startup.max-millis", 0);
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        URI baseUrl = URI.create("http://localhost:" + port);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        List<String> args = split(System.getProperty("startup.args", ""));
+        List<String> schemaArgs =
+                split(System.getProperty("startup.schema-args", ""));
+        if (!schemaArgs.isEmpty()) {
+            List<String> prepareArgs = new ArrayList<>(args);
+            prepareArgs.addAll(schemaArgs);
+
+            Process process = start(List.of(), port, prepareArgs);
+            try {
+                waitFor(client, baseUrl.resolve("/actuator/health/readiness"),
+                        process, System.nanoTime(), timeout);
+            } finally {
+                stop(process);
+            }
+        }
+
+        long startedAt = System.nanoTime();
+        Process process = start(
+                split(System.getProperty("startup.jvm-args", "")),
+                port, args);
+
+        try {
+            long readyMillis = waitFor(client,
+                    baseUrl.resolve("/actuator/health/readiness"),
+                    process, startedAt, timeout);
+            long firstRequestMillis = waitFor(client,
+                    baseUrl.resolve("/products"),
+                    process, startedAt, timeout);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("jvmArgs", System.getProperty("startup.jvm-args", ""));
+            report.put("args", System.getProperty("startup.args", ""));
+            report.put("readyMillis", readyMillis);
+            report.put("firstRequestMillis", firstRequestMillis);
+
+            Path reportFile = Path.of(System.getProperty(
+                    "startup.report", "build/reports/startup/startup.json"));
+            Files.createDirectories(reportFile.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(reportFile.toFile(), report);
+
+            System.out.printf("ready=%dms first-request=%dms%n",
+                    readyMillis, firstRequestMillis);
+
+            if (maxMillis > 0 && firstRequestMillis > maxMillis) {
+                throw new IllegalStateException(String.format(
+                        "Time to first request %dms exceeds %dms",
+                        firstRequestMillis, maxMillis));
+            }
+        } finally {
+            stop(process);
+        }
+    }
+
+    private static Process start(List<String> jvmArgs, int port,
+                                 List<String> args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java")
+                .toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("startup.classpath"));
+        command.add("com.codesoom.assignment.App");
+        command.add("--server.port=" + port);
+        command.addAll(args);
+
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Polls the URL until it answers with a success status and returns
+     * the milliseconds since the server was started.
+     */
+    static long waitFor(HttpClient client, URI url, Process process,
+                        long startedAt, Duration timeout)
+            throws IOException, InterruptedException {
+        long deadline = startedAt + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server exited with "
+                        + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(
+                        HttpRequest.newBuilder(url).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() < 400) {
+                    return TimeUnit.NANOSECONDS.toMillis(
+                            System.nanoTime() - startedAt);
+                }
+            } catch (ConnectException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new IllegalStateException(url + " not up within " + timeout);
+    }
+
+    private static List<String> split(String args) {
+        return Arrays.stream(args.split("\\s+"))
+                .filter(arg -> !arg.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
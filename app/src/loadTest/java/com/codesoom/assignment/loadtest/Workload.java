@@ -0,0 +1,187 @@
+package com.codesoom.assignment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * A weighted mix of product API calls, such as
+ * {@code list:10,detail:70,create:10,patch:8,delete:2}.
+ *
+ * <p>Reads and patches pick one of the known products at random. Deletes
+ * only remove products created during the run, so the seeded catalog
+ * stays the same size; when there is none yet a detail read is sent
+ * instead.
+ */
+public class Workload {
+    public static final String DEFAULT_MIX =
+            "list:10,detail:70,create:10,patch:8,delete:2";
+
+    private static final Set<String> OPERATIONS =
+            Set.of("list", "detail", "create", "patch", "delete");
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final URI baseUrl;
+
+    private final Map<String, Integer> weights;
+
+    private final int totalWeight;
+
+    private final List<Long> ids;
+
+    private final ConcurrentLinkedDeque<Long> created =
+            new ConcurrentLinkedDeque<>();
+
+    public Workload(URI baseUrl, String mix, List<Long> ids) {
+        if (ids.isEmpty()) {
+            throw new IllegalStateException(
+                    "No products to read; seed some before the load test");
+        }
+
+        this.baseUrl = baseUrl;
+        this.weights = parse(mix);
+        this.totalWeight = weights.values().stream()
+                .mapToInt(Integer::intValue).sum();
+        this.ids = List.copyOf(ids);
+    }
+
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    public Call next() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return callOf(entry.getKey());
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private Call callOf(String operation) {
+        switch (operation) {
+            case "list":
+                return new Call(operation, request("/products").build());
+            case "create":
+                return new Call(operation, request("/products")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                productJson()))
+                        .build(), this::onCreated);
+            case "patch":
+                return new Call(operation, request("/products/" + randomId())
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                productJson()))
+                        .build());
+            case "delete":
+                Long id = created.pollFirst();
+                if (id == null) {
+                    return detail();
+                }
+                return new Call(operation, request("/products/" + id)
+                        .DELETE()
+                        .build());
+            default:
+                return detail();
+        }
+    }
+
+    private Call detail() {
+        return new Call("detail",
+                request("/products/" + randomId()).build());
+    }
+
+    private void onCreated(HttpResponse<String> response) {
+        try {
+            JsonNode product = OBJECT_MAPPER.readTree(response.body());
+            created.addLast(product.get("id").asLong());
+        } catch (IOException e) {
+            // Only deletes lose a candidate; the call itself succeeded.
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(TIMEOUT);
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    static String productJson() {
+        int n = ThreadLocalRandom.current().nextInt(1_000_000);
+        return String.format(
+                "{\"name\":\"toy-%d\",\"maker\":\"maker-%d\",\"price\":%d}",
+                n, n % 100, 1000 + n % 50_000);
+    }
+
+    private static Map<String, Integer> parse(String mix) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            String operation = pair[0].trim();
+            if (!OPERATIONS.contains(operation)) {
+                throw new IllegalArgumentException(
+                        "Unknown operation: " + operation);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                result.put(operation, weight);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Empty workload mix: " + mix);
+        }
+        return result;
+    }
+
+    public static class Call {
+        private final String operation;
+
+        private final HttpRequest request;
+
+        private final Consumer<HttpResponse<String>> onSuccess;
+
+        Call(String operation, HttpRequest request) {
+            this(operation, request, response -> {
+            });
+        }
+
+        Call(String operation, HttpRequest request,
+             Consumer<HttpResponse<String>> onSuccess) {
+            this.operation = operation;
+            this.request = request;
+            this.onSuccess = onSuccess;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public HttpRequest getRequest() {
+            return request;
+        }
+
+        public void succeeded(HttpResponse<String> response) {
+            onSuccess.accept(response);
+        }
+    }
+}
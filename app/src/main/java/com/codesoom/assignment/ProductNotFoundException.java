@@ -1,7 +1,23 @@
 package com.codesoom.assignment;
 
+/**
+ * Thrown for every miss on a product id, which makes it a hot path. It
+ * keeps no stack trace and builds its message only when asked.
+ */
 public class ProductNotFoundException extends RuntimeException {
+    private final Long id;
+
     public ProductNotFoundException(Long id) {
-        super("Product not found: " + id);
+        super(null, null, false, false);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Product not found: " + id;
     }
 }
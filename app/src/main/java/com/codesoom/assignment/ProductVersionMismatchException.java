@@ -0,0 +1,7 @@
+package com.codesoom.assignment;
+
+public class ProductVersionMismatchException extends RuntimeException {
+    public ProductVersionMismatchException(Long id, Long version) {
+        super("Product " + id + " is not at version " + version);
+    }
+}
@@ -0,0 +1,7 @@
+package com.codesoom.assignment;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
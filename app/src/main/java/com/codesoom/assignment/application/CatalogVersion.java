@@ -0,0 +1,54 @@
+package com.codesoom.assignment.application;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide change counter. It lets the list endpoint answer
+ * conditional requests without touching the database.
+ *
+ * <p>The counter is prefixed with a per-process epoch, so tags from
+ * another node or an earlier run of this one never match by accident.
+ *
+ * <p>It also remembers when it last moved, so caches of whole pages can
+ * tell whether a read may still come from a replica that lags the change.
+ */
+@Component
+public class CatalogVersion {
+    private final String epoch =
+            Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private volatile long changedAt = NEVER;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductEvent(ProductEvent event) {
+        increment();
+    }
+
+    public void increment() {
+        changedAt = System.nanoTime();
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Tells whether the catalog has changed within the given window.
+     */
+    public boolean changedWithin(Duration window) {
+        long at = changedAt;
+        return at != NEVER && System.nanoTime() - at < window.toNanos();
+    }
+
+    public String current() {
+        return epoch + "-" + counter.get();
+    }
+}
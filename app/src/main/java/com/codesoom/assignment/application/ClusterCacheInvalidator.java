@@ -0,0 +1,213 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductLookupResult;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps this node's product caches in step with writes made on other
+ * nodes, turned on with {@code products.invalidation.enabled}.
+ *
+ * <p>Every committed change here is published on the
+ * {@link InvalidationBus}. Every notice received evicts the product from
+ * {@link ProductCache} and the second-level cache and moves
+ * {@link CatalogVersion} on so list pages are rebuilt, all on the bus's
+ * thread. The search and price indexes are refreshed afterwards on a
+ * thread of their own, with one lookup per batch of notices.
+ *
+ * <p>A notice is applied only when it supersedes the last one seen for
+ * the same product, so a duplicated or late datagram does not cost
+ * another reload. When the bus reports lost notices, every cache is
+ * dropped and both indexes are rebuilt from the database.
+ */
+@Component
+@ConditionalOnProperty(name = "products.invalidation.enabled",
+        havingValue = "true")
+public class ClusterCacheInvalidator implements InvalidationBus.Subscriber {
+    private static final Logger log =
+            LoggerFactory.getLogger(ClusterCacheInvalidator.class);
+
+    private final InvalidationBus bus;
+
+    private final ProductService productService;
+
+    private final ProductCache productCache;
+
+    private final CatalogVersion catalogVersion;
+
+    private final ProductSearchIndex searchIndex;
+
+    private final ProductPriceIndex priceIndex;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Cache<Long, ProductInvalidation> lastSeen;
+
+    private final ExecutorService refresher;
+
+    @Autowired
+    public ClusterCacheInvalidator(
+            InvalidationBus bus,
+            ProductService productService,
+            ProductCache productCache,
+            CatalogVersion catalogVersion,
+            ProductSearchIndex searchIndex,
+            ProductPriceIndex priceIndex,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${products.invalidation.remembered:100000}")
+                    long remembered
+    ) {
+        this(bus, productService, productCache, catalogVersion, searchIndex,
+                priceIndex, entityManagerFactory, remembered,
+                Executors.newSingleThreadExecutor(task -> {
+                    Thread thread = new Thread(task, "product-index-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    ClusterCacheInvalidator(InvalidationBus bus,
+                            ProductService productService,
+                            ProductCache productCache,
+                            CatalogVersion catalogVersion,
+                            ProductSearchIndex searchIndex,
+                            ProductPriceIndex priceIndex,
+                            EntityManagerFactory entityManagerFactory,
+                            long remembered,
+                            ExecutorService refresher) {
+        this.bus = bus;
+        this.productService = productService;
+        this.productCache = productCache;
+        this.catalogVersion = catalogVersion;
+        this.searchIndex = searchIndex;
+        this.priceIndex = priceIndex;
+        this.entityManagerFactory = entityManagerFactory;
+        this.lastSeen = CacheBuilder.newBuilder()
+                .maximumSize(remembered)
+                .build();
+        this.refresher = refresher;
+
+        bus.subscribe(this);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductEvent(ProductEvent event) {
+        Product product = event.getProduct();
+        Long version = product.getVersion();
+
+        bus.publish(new ProductInvalidation(product.getId(),
+                version == null ? 0 : version,
+                event.getType() == ProductEvent.Type.DELETED));
+    }
+
+    @Override
+    public void invalidate(List<ProductInvalidation> invalidations) {
+        List<ProductInvalidation> applied = new ArrayList<>();
+
+        for (ProductInvalidation invalidation : invalidations) {
+            if (!supersedesLastSeen(invalidation)) {
+                continue;
+            }
+
+            productCache.invalidate(invalidation.getId());
+            entityManagerFactory.getCache()
+                    .evict(Product.class, invalidation.getId());
+            applied.add(invalidation);
+        }
+
+        if (applied.isEmpty()) {
+            return;
+        }
+
+        // Cached list queries hold ids; one may name a product that is
+        // gone or miss one that was created elsewhere.
+        evictQueries();
+        catalogVersion.increment();
+
+        refresher.execute(() -> refreshIndexes(applied));
+    }
+
+    @Override
+    public void resync() {
+        productCache.invalidateAll();
+        entityManagerFactory.getCache().evictAll();
+        evictQueries();
+        catalogVersion.increment();
+
+        refresher.execute(() -> {
+            try {
+                searchIndex.rebuild();
+                priceIndex.rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild product indexes", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void evictQueries() {
+        entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class)
+                .evictDefaultQueryRegion();
+    }
+
+    private synchronized boolean supersedesLastSeen(
+            ProductInvalidation invalidation) {
+        ProductInvalidation last = lastSeen.getIfPresent(invalidation.getId());
+        if (last != null && !invalidation.supersedes(last)) {
+            return false;
+        }
+        lastSeen.put(invalidation.getId(), invalidation);
+        return true;
+    }
+
+    /**
+     * Reloads the changed products in one lookup, and drops the deleted
+     * and missing ones.
+     */
+    private void refreshIndexes(List<ProductInvalidation> invalidations) {
+        List<Long> removed = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (ProductInvalidation invalidation : invalidations) {
+            (invalidation.isDeleted() ? removed : changed)
+                    .add(invalidation.getId());
+        }
+
+        try {
+            ProductLookupResult result = productService.getProducts(changed);
+            for (Product product : result.getProducts()) {
+                searchIndex.put(product);
+                priceIndex.put(product);
+            }
+            removed.addAll(result.getMissing());
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload products {}; rebuilding indexes",
+                    changed, e);
+            resync();
+            return;
+        }
+
+        for (Long id : removed) {
+            searchIndex.remove(id);
+            priceIndex.remove(id);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.codesoom.assignment.application;
+
+import java.util.List;
+
+/**
+ * Carries product invalidations between the nodes of a cluster.
+ *
+ * <p>Implementations may batch, delay, lose and reorder notices, but never
+ * deliver a node's own notices back to it, and call
+ * {@link Subscriber#resync()} once they find notices were lost.
+ */
+public interface InvalidationBus {
+    void publish(ProductInvalidation invalidation);
+
+    void subscribe(Subscriber subscriber);
+
+    interface Subscriber {
+        void invalidate(List<ProductInvalidation> invalidations);
+
+        /**
+         * Notices from another node were lost, so anything held may be
+         * stale.
+         */
+        void resync();
+    }
+}
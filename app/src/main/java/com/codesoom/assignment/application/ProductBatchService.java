@@ -0,0 +1,216 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.dto.BatchItemResult;
+import com.codesoom.assignment.dto.ProductData;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a list of product changes in a single transaction. Items are
+ * checked one by one, so a missing or invalid item is reported in its
+ * result without rolling back the rest of the batch.
+ */
+@Service
+@Transactional
+public class ProductBatchService {
+    private static final String MISSING_ITEM = "item: must not be null";
+
+    private final ProductRepository productRepository;
+
+    private final ProductCache productCache;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductBatchService(ProductRepository productRepository,
+                               ProductCache productCache,
+                               Validator validator,
+                               ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Timed("product.service")
+    public List<BatchItemResult> createProducts(List<ProductData> items) {
+        List<BatchItemResult> results = new ArrayList<>();
+
+        for (int index = 0; index < items.size(); index += 1) {
+            ProductData productData = items.get(index);
+            if (productData == null) {
+                results.add(failure(index, null,
+                        HttpStatus.BAD_REQUEST, MISSING_ITEM));
+                continue;
+            }
+
+            String violation = validate(productData);
+            if (violation != null) {
+                results.add(failure(index, productData.getId(),
+                        HttpStatus.BAD_REQUEST, violation));
+                continue;
+            }
+
+            Product product = productRepository.save(Product.builder()
+                    .name(productData.getName())
+                    .maker(productData.getMaker())
+                    .price(productData.getPrice())
+                    .imageUrl(productData.getImageUrl())
+                    .build());
+
+            eventPublisher.publishEvent(
+                    new ProductEvent(ProductEvent.Type.CREATED, product));
+
+            results.add(success(index, product, HttpStatus.CREATED));
+        }
+
+        return results;
+    }
+
+    @Timed("product.service")
+    public List<BatchItemResult> updateProducts(List<ProductData> items) {
+        Map<Long, Product> products = findProducts(items.stream()
+                .filter(Objects::nonNull)
+                .map(ProductData::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+
+        List<BatchItemResult> results = new ArrayList<>();
+
+        for (int index = 0; index < items.size(); index += 1) {
+            ProductData productData = items.get(index);
+            if (productData == null) {
+                results.add(failure(index, null,
+                        HttpStatus.BAD_REQUEST, MISSING_ITEM));
+                continue;
+            }
+
+            Long id = productData.getId();
+
+            String violation = id == null
+                    ? "id: must not be null"
+                    : validate(productData);
+            if (violation != null) {
+                results.add(failure(index, id,
+                        HttpStatus.BAD_REQUEST, violation));
+                continue;
+            }
+
+            Product product = products.get(id);
+            if (product == null) {
+                results.add(notFound(index, id));
+                continue;
+            }
+
+            product.change(
+                    productData.getName(),
+                    productData.getMaker(),
+                    productData.getPrice(),
+                    productData.getImageUrl()
+            );
+
+            Product updated = productRepository.save(product);
+
+            productCache.invalidate(id);
+
+            eventPublisher.publishEvent(
+                    new ProductEvent(ProductEvent.Type.UPDATED, updated));
+
+            results.add(success(index, updated, HttpStatus.OK));
+        }
+
+        return results;
+    }
+
+    @Timed("product.service")
+    public List<BatchItemResult> deleteProducts(List<Long> ids) {
+        Map<Long, Product> products = findProducts(ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+
+        List<BatchItemResult> results = new ArrayList<>();
+
+        for (int index = 0; index < ids.size(); index += 1) {
+            Long id = ids.get(index);
+            if (id == null) {
+                results.add(failure(index, null,
+                        HttpStatus.BAD_REQUEST, "id: must not be null"));
+                continue;
+            }
+
+            Product product = products.remove(id);
+            if (product == null) {
+                results.add(notFound(index, id));
+                continue;
+            }
+
+            productRepository.delete(product);
+
+            productCache.invalidate(id);
+
+            eventPublisher.publishEvent(
+                    new ProductEvent(ProductEvent.Type.DELETED, product));
+
+            results.add(success(index, product, HttpStatus.NO_CONTENT));
+        }
+
+        return results;
+    }
+
+    private Map<Long, Product> findProducts(List<Long> ids) {
+        return productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId,
+                        Function.identity()));
+    }
+
+    private String validate(ProductData productData) {
+        Set<ConstraintViolation<ProductData>> violations =
+                validator.validate(productData);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": "
+                        + violation.getMessage())
+                .sorted()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private BatchItemResult success(int index, Product product,
+                                    HttpStatus status) {
+        return BatchItemResult.builder()
+                .index(index)
+                .id(product.getId())
+                .status(status.value())
+                .product(product)
+                .build();
+    }
+
+    private BatchItemResult notFound(int index, Long id) {
+        return failure(index, id, HttpStatus.NOT_FOUND, "Product not found");
+    }
+
+    private BatchItemResult failure(int index, Long id,
+                                    HttpStatus status, String message) {
+        return BatchItemResult.builder()
+                .index(index)
+                .id(id)
+                .status(status.value())
+                .message(message)
+                .build();
+    }
+}
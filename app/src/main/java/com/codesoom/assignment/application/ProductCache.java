@@ -0,0 +1,196 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.infra.SingleFlight;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache in front of {@code ProductRepository#findById}.
+ * Cached products are shared between requests and must not be modified.
+ *
+ * <p>When reads may come from a lagging replica, a product is not cached
+ * again until {@code hold-after-write} has passed since it was last
+ * written, so a stale replica row cannot outlive the replica lag.
+ *
+ * <p>Concurrent misses for one product share a single load through
+ * {@link SingleFlight}, so a popular product that drops out of the cache
+ * costs one query rather than one per waiting request.
+ *
+ * <p>A product read from the database is cached only if it was not
+ * invalidated while it was being read, judged by a generation counter that
+ * every invalidation moves on. Counters are shared by ids that fall in the
+ * same stripe, so a write may also keep a neighbour's load out of the
+ * cache, but never lets a stale one in.
+ */
+@Component
+public class ProductCache {
+    static final Duration DEFAULT_LOAD_TIMEOUT = Duration.ofSeconds(5);
+
+    static final int DEFAULT_MAX_LOAD_WAITERS = 1000;
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<Long, Product> cache;
+
+    private final Cache<Long, Boolean> recentlyWritten;
+
+    private final SingleFlight<Long, Product> loads;
+
+    private final AtomicLongArray generations =
+            new AtomicLongArray(GENERATION_STRIPES);
+
+    public ProductCache(long maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, Duration.ZERO);
+    }
+
+    public ProductCache(long maximumSize, Duration timeToLive,
+                        Duration holdAfterWrite) {
+        this(maximumSize, timeToLive, holdAfterWrite,
+                DEFAULT_LOAD_TIMEOUT, DEFAULT_MAX_LOAD_WAITERS);
+    }
+
+    @Autowired
+    public ProductCache(
+            @Value("${products.cache.maximum-size:10000}") long maximumSize,
+            @Value("${products.cache.time-to-live:10m}") Duration timeToLive,
+            @Value("${products.cache.hold-after-write:"
+                    + "${products.datasource.max-replica-lag:0s}}")
+                    Duration holdAfterWrite,
+            @Value("${products.single-flight.timeout:5s}")
+                    Duration loadTimeout,
+            @Value("${products.single-flight.max-waiters:1000}")
+                    int maxLoadWaiters
+    ) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.recentlyWritten = holdAfterWrite.isZero() ? null
+                : CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(holdAfterWrite)
+                .<Long, Boolean>build();
+        this.loads = new SingleFlight<>(loadTimeout, maxLoadWaiters);
+    }
+
+    public Optional<Product> get(Long id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    /**
+     * Returns the cached product, or loads and caches it, running the
+     * loader once however many callers miss at the same time.
+     */
+    public Product get(Long id, Function<Long, Product> loader) {
+        Product cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        return loads.execute(id, () -> {
+            long generation = generationOf(id);
+            Product product = loader.apply(id);
+            put(product, generation);
+            return product;
+        });
+    }
+
+    /**
+     * The generation to pass to {@link #put(Product, long)} for a product
+     * about to be read from the database.
+     */
+    public long generationOf(Long id) {
+        return generations.get(stripeOf(id));
+    }
+
+    /**
+     * Caches a product read after {@link #generationOf(Long)} returned
+     * {@code generation}, unless it has been invalidated since.
+     */
+    public void put(Product product, long generation) {
+        put(product);
+
+        // An invalidation that moved the generation before this check may
+        // have evicted before the put; one after it evicts after the put.
+        if (generationOf(product.getId()) != generation) {
+            cache.invalidate(product.getId());
+        }
+    }
+
+    public void put(Product product) {
+        if (recentlyWritten != null
+                && recentlyWritten.getIfPresent(product.getId()) != null) {
+            return;
+        }
+        cache.put(product.getId(), product);
+    }
+
+    /**
+     * Evicts the product now and, when called inside a transaction, once
+     * more after it completes. Together with the generation check in
+     * {@link #put(Product, long)}, a concurrent read of the old row cannot
+     * leave a stale entry behind.
+     */
+    public void invalidate(Long id) {
+        evict(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            evict(id);
+                        }
+                    });
+        }
+    }
+
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe += 1) {
+            generations.incrementAndGet(stripe);
+        }
+        cache.invalidateAll();
+        loads.forgetAll();
+    }
+
+    private void evict(Long id) {
+        // The generation moves first, so a load that checks it later
+        // cannot have put its product after this eviction.
+        generations.incrementAndGet(stripeOf(id));
+        cache.invalidate(id);
+        loads.forget(id);
+
+        if (recentlyWritten != null) {
+            recentlyWritten.put(id, Boolean.TRUE);
+        }
+    }
+
+    private static int stripeOf(Long id) {
+        return Math.floorMod(id.hashCode(), GENERATION_STRIPES);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public SingleFlight<Long, Product> loads() {
+        return loads;
+    }
+}
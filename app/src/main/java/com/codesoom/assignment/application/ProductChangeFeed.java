@@ -0,0 +1,115 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductChange;
+import com.codesoom.assignment.dto.ProductChanges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Committed product changes, numbered in order, kept in a ring buffer of
+ * the latest {@code products.changes.capacity} entries so consumers can
+ * catch up from the last sequence they saw instead of re-reading the
+ * catalog.
+ *
+ * <p>Sequence numbers start after a per-process epoch, the start time in
+ * milliseconds times 1000, so every number of a restarted feed is above
+ * those of the previous process. A {@code since} from before a restart
+ * falls below the kept range and gets a reset. The numbers stay within
+ * the integers JavaScript clients can hold exactly.
+ */
+@Component
+public class ProductChangeFeed {
+    private final ProductChange[] buffer;
+
+    private final Set<Runnable> subscribers = new CopyOnWriteArraySet<>();
+
+    private final long epoch;
+
+    private long lastSeq;
+
+    @Autowired
+    public ProductChangeFeed(
+            @Value("${products.changes.capacity:10000}") int capacity) {
+        this(capacity, System.currentTimeMillis() * 1000);
+    }
+
+    ProductChangeFeed(int capacity, long epoch) {
+        this.buffer = new ProductChange[capacity];
+        this.epoch = epoch;
+        this.lastSeq = epoch;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductEvent(ProductEvent event) {
+        Product product = event.getProduct();
+
+        synchronized (this) {
+            lastSeq += 1;
+            buffer[(int) (lastSeq % buffer.length)] = ProductChange.builder()
+                    .seq(lastSeq)
+                    .type(event.getType().name())
+                    .id(product.getId())
+                    .product(copyOf(product))
+                    .build();
+        }
+
+        subscribers.forEach(Runnable::run);
+    }
+
+    /**
+     * Returns up to {@code limit} changes after {@code since}, where
+     * {@code 0} asks for every change kept.
+     */
+    public synchronized ProductChanges read(long since, int limit) {
+        if (since == 0) {
+            since = epoch;
+        }
+
+        long oldest = Math.max(epoch + 1, lastSeq - buffer.length + 1);
+        boolean reset = since > lastSeq || since < oldest - 1;
+        long from = reset ? oldest : since + 1;
+
+        List<ProductChange> changes = new ArrayList<>();
+        for (long seq = from; seq <= lastSeq && changes.size() < limit;
+             seq += 1) {
+            changes.add(buffer[(int) (seq % buffer.length)]);
+        }
+
+        long next = changes.isEmpty()
+                ? (reset ? lastSeq : since)
+                : changes.get(changes.size() - 1).getSeq();
+        return new ProductChanges(changes, next, reset);
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Calls the subscriber, on the writer's thread, after every change.
+     * It should only hand the work off. Returns what unsubscribes it.
+     */
+    public Runnable subscribe(Runnable subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    private static Product copyOf(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .maker(product.getMaker())
+                .price(product.getPrice())
+                .imageUrl(product.getImageUrl())
+                .version(product.getVersion())
+                .build();
+    }
+}
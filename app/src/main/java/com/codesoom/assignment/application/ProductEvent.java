@@ -0,0 +1,32 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+
+/**
+ * Published by the application services after a product has been
+ * created, changed or deleted.
+ */
+public class ProductEvent {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+
+    private final Product product;
+
+    public ProductEvent(Type type, Product product) {
+        this.type = type;
+        this.product = product;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+}
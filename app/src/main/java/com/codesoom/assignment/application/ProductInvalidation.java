@@ -0,0 +1,43 @@
+package com.codesoom.assignment.application;
+
+/**
+ * Notice that a product was changed or deleted on one node, sent to the
+ * others so they drop what they hold of it.
+ */
+public class ProductInvalidation {
+    private final Long id;
+
+    private final long version;
+
+    private final boolean deleted;
+
+    public ProductInvalidation(Long id, long version, boolean deleted) {
+        this.id = id;
+        this.version = version;
+        this.deleted = deleted;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Whether this notice describes a later state of the product than
+     * {@code other}. A delete keeps the version of the row it removed, so
+     * it wins over an update with the same version.
+     */
+    public boolean supersedes(ProductInvalidation other) {
+        if (version != other.version) {
+            return version > other.version;
+        }
+        return deleted && !other.deleted;
+    }
+}
@@ -0,0 +1,274 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.infra.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * List pages kept as ready-to-send JSON, plain and gzipped, so a repeated
+ * {@code GET /products} costs neither a query nor serialization.
+ *
+ * <p>Each snapshot belongs to the {@link CatalogVersion} it was built at
+ * and is rebuilt once the catalog has moved on: on the next read of that
+ * page, or, with {@code products.list-snapshots.rebuild=eager}, in the
+ * background right after each write.
+ *
+ * <p>When reads may come from a lagging replica, a page built within
+ * {@code hold-after-write} of a catalog change is served but not kept, and
+ * an eager rebuild waits for that window to pass, so a stale replica page
+ * is never held under the new version.
+ */
+@Component
+public class ProductListSnapshots {
+    private final ProductService productService;
+
+    private final CatalogVersion catalogVersion;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean eager;
+
+    private final Duration holdAfterWrite;
+
+    private final Cache<Page, Snapshot> snapshots;
+
+    private final SingleFlight<Map.Entry<String, Page>, Snapshot> builds;
+
+    private final ScheduledExecutorService rebuilder;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    public ProductListSnapshots(
+            ProductService productService,
+            CatalogVersion catalogVersion,
+            ObjectMapper objectMapper,
+            @Value("${products.list-snapshots.rebuild:lazy}") String rebuild,
+            @Value("${products.list-snapshots.maximum-pages:64}")
+                    long maximumPages,
+            @Value("${products.list-snapshots.hold-after-write:"
+                    + "${products.datasource.max-replica-lag:0s}}")
+                    Duration holdAfterWrite,
+            @Value("${products.single-flight.timeout:5s}")
+                    Duration buildTimeout,
+            @Value("${products.single-flight.max-waiters:1000}")
+                    int maxBuildWaiters
+    ) {
+        this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.eager = rebuild.equals("eager");
+        this.holdAfterWrite = holdAfterWrite;
+        this.snapshots = CacheBuilder.newBuilder()
+                .maximumSize(maximumPages)
+                .build();
+        this.builds = new SingleFlight<>(buildTimeout, maxBuildWaiters);
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "product-list-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the page after {@code after} as of {@code version}, building
+     * it when there is no snapshot of that version yet. Concurrent readers
+     * of a missing page share a single build of it at their version.
+     */
+    public Snapshot get(String version, Long after, int limit) {
+        Page page = new Page(after, limit);
+
+        Snapshot snapshot = snapshots.getIfPresent(page);
+        if (snapshot != null && snapshot.version.equals(version)) {
+            return snapshot;
+        }
+
+        return builds.execute(Map.entry(version, page), () -> {
+            boolean provisional = held();
+            Snapshot built = build(version, page, provisional);
+            if (!provisional) {
+                snapshots.put(page, built);
+            }
+            return built;
+        });
+    }
+
+    /**
+     * Runs after {@link CatalogVersion} has counted the change, so an eager
+     * rebuild is labelled with the new version.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductEvent(ProductEvent event) {
+        if (eager && rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    public void invalidateAll() {
+        snapshots.invalidateAll();
+    }
+
+    public long size() {
+        return snapshots.size();
+    }
+
+    public SingleFlight<?, Snapshot> builds() {
+        return builds;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Rebuilds every page held, coalescing all writes that arrive before
+     * it starts into this one pass.
+     */
+    void rebuild() {
+        if (held()) {
+            rebuilder.schedule(this::rebuild,
+                    holdAfterWrite.toNanos(), TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        rebuildScheduled.set(false);
+
+        String version = catalogVersion.current();
+        for (Page page : new ArrayList<>(snapshots.asMap().keySet())) {
+            snapshots.put(page, build(version, page, false));
+        }
+    }
+
+    private boolean held() {
+        return !holdAfterWrite.isZero()
+                && catalogVersion.changedWithin(holdAfterWrite);
+    }
+
+    private Snapshot build(String version, Page page, boolean provisional) {
+        List<Product> products =
+                productService.getProducts(page.after, page.limit);
+
+        Long next = products.size() == page.limit
+                ? products.get(products.size() - 1).getId()
+                : null;
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            return new Snapshot(version, json, gzip(json), next,
+                    provisional);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static class Snapshot {
+        private final String version;
+
+        private final byte[] json;
+
+        private final byte[] gzip;
+
+        private final Long next;
+
+        private final boolean provisional;
+
+        Snapshot(String version, byte[] json, byte[] gzip, Long next,
+                 boolean provisional) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+            this.next = next;
+            this.provisional = provisional;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        /**
+         * The cursor of the next page, or {@code null} on the last one.
+         */
+        public Long getNext() {
+            return next;
+        }
+
+        /**
+         * Whether the page was built so soon after a write that it may come
+         * from a lagging replica. Such a page must not be stored by clients
+         * either, or they could keep revalidating a stale copy.
+         */
+        public boolean isProvisional() {
+            return provisional;
+        }
+    }
+
+    private static class Page {
+        private final Long after;
+
+        private final int limit;
+
+        Page(Long after, int limit) {
+            this.after = after;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Page)) {
+                return false;
+            }
+            Page page = (Page) o;
+            return limit == page.limit && Objects.equals(after, page.after);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(after, limit);
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.PricePoint;
+import com.codesoom.assignment.dto.PriceStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar index of product prices for range and aggregate queries.
+ *
+ * <p>Products are kept as parallel primitive arrays sorted by price, with
+ * makers dictionary-encoded as {@code int} codes, so a price band is a
+ * binary search away and its count, bounds and sum come from the arrays
+ * and a prefix sum without touching an entity. Queries that filter by
+ * maker scan the band, in parallel on the common fork-join pool once it
+ * holds {@code parallel-threshold} products or more.
+ *
+ * <p>Writes are collected as they come, and the next query merges them
+ * into the arrays: only the changed entries are sorted, the rest is one
+ * linear pass, and neither happens under the monitor, so writers are not
+ * held up. Products without a price are left out of the arrays.
+ *
+ * <p>{@link #rebuild()} scans into fresh entries and swaps them in at
+ * the end, so queries keep seeing the old ones meanwhile. Writes made
+ * during the scan are carried over at the swap; a delete leaves a
+ * tombstone, so a page the scan read before the delete cannot put the
+ * product back.
+ */
+@Component
+public class ProductPriceIndex {
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ProductService productService;
+
+    private final int parallelThreshold;
+
+    private TreeMap<Long, Entry> entries = new TreeMap<>();
+
+    private final Map<String, Integer> makerCodes = new HashMap<>();
+
+    private final List<String> makerNames = new ArrayList<>();
+
+    private final Object rebuildLock = new Object();
+
+    private final Object columnsLock = new Object();
+
+    /**
+     * Entries written since the arrays were built, {@code null} for a
+     * removed one.
+     */
+    private Map<Long, Entry> changes = new HashMap<>();
+
+    /**
+     * Set when the entries were swapped by a rebuild, so the next arrays
+     * are sorted from scratch.
+     */
+    private boolean reset = true;
+
+    private Set<Long> written;
+
+    private Set<Long> tombstones;
+
+    private volatile long modifications;
+
+    private volatile Columns columns;
+
+    public ProductPriceIndex(
+            ProductService productService,
+            @Value("${products.price-index.parallel-threshold:100000}")
+                    int parallelThreshold
+    ) {
+        this.productService = productService;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                written = new HashSet<>();
+                tombstones = new HashSet<>();
+            }
+
+            TreeMap<Long, Entry> fresh = new TreeMap<>();
+            try {
+                productService.forEachProduct(REBUILD_CHUNK_SIZE,
+                        product -> fresh.put(product.getId(),
+                                entryOf(product)));
+
+                synchronized (this) {
+                    tombstones.forEach(fresh::remove);
+                    for (Long id : written) {
+                        Entry entry = entries.get(id);
+                        Entry scanned = fresh.get(id);
+                        if (entry != null && (scanned == null
+                                || !scanned.isNewerThan(entry.version))) {
+                            fresh.put(id, entry);
+                        }
+                    }
+                    entries = fresh;
+                    changes = new HashMap<>();
+                    reset = true;
+                    modifications += 1;
+                }
+            } finally {
+                synchronized (this) {
+                    written = null;
+                    tombstones = null;
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductEvent(ProductEvent event) {
+        if (event.getType() == ProductEvent.Type.DELETED) {
+            remove(event.getProduct().getId());
+            return;
+        }
+        put(event.getProduct());
+    }
+
+    public synchronized void put(Product product) {
+        Entry existing = entries.get(product.getId());
+        if (existing != null && existing.isNewerThan(product.getVersion())) {
+            return;
+        }
+
+        if (written != null) {
+            written.add(product.getId());
+        }
+        Entry entry = entryOf(product);
+        entries.put(product.getId(), entry);
+        changes.put(product.getId(), entry);
+        modifications += 1;
+    }
+
+    public synchronized void remove(Long id) {
+        if (tombstones != null) {
+            tombstones.add(id);
+        }
+        if (entries.remove(id) != null) {
+            changes.put(id, null);
+            modifications += 1;
+        }
+    }
+
+    public int size() {
+        return columns().ids.length;
+    }
+
+    /**
+     * Aggregates prices between {@code minPrice} and {@code maxPrice},
+     * both inclusive and optional, of one maker or of all products.
+     */
+    public PriceStats stats(Integer minPrice, Integer maxPrice, String maker) {
+        Columns columns = columns();
+        int from = columns.lowerBound(minPrice);
+        int to = columns.upperBound(maxPrice);
+
+        if (maker == null) {
+            if (from >= to) {
+                return new PriceStats(0, null, null, null);
+            }
+            long sum = columns.priceSums[to] - columns.priceSums[from];
+            return new PriceStats(to - from, columns.prices[from],
+                    columns.prices[to - 1], sum / (double) (to - from));
+        }
+
+        int code = columns.codeOf(maker);
+        IntStream band = IntStream.range(from, Math.max(from, to));
+        if (to - from >= parallelThreshold) {
+            band = band.parallel();
+        }
+        IntSummaryStatistics statistics = band
+                .filter(index -> columns.makers[index] == code)
+                .map(index -> columns.prices[index])
+                .summaryStatistics();
+
+        if (statistics.getCount() == 0) {
+            return new PriceStats(0, null, null, null);
+        }
+        return new PriceStats(statistics.getCount(), statistics.getMin(),
+                statistics.getMax(), statistics.getAverage());
+    }
+
+    /**
+     * The {@code limit} cheapest products in the price band, per maker, or
+     * of one maker only when {@code maker} is given.
+     */
+    public Map<String, List<PricePoint>> cheapest(String maker, int limit,
+                                                  Integer minPrice,
+                                                  Integer maxPrice) {
+        Columns columns = columns();
+        int from = columns.lowerBound(minPrice);
+        int to = columns.upperBound(maxPrice);
+
+        int only = maker == null ? -1 : columns.codeOf(maker);
+        int[] counts = new int[columns.makerNames.length];
+        Map<String, List<PricePoint>> result = new TreeMap<>();
+        if (maker != null && only < 0) {
+            return result;
+        }
+
+        for (int index = from; index < to; index += 1) {
+            int code = columns.makers[index];
+            if ((maker != null && code != only) || counts[code] >= limit) {
+                continue;
+            }
+            counts[code] += 1;
+            result.computeIfAbsent(columns.makerNames[code],
+                    key -> new ArrayList<>())
+                    .add(new PricePoint(columns.ids[index],
+                            columns.prices[index]));
+            if (maker != null && counts[code] == limit) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private synchronized Entry entryOf(Product product) {
+        return new Entry(product.getPrice(),
+                codeOf(product.getMaker() == null ? "" : product.getMaker()),
+                product.getVersion());
+    }
+
+    private int codeOf(String maker) {
+        return makerCodes.computeIfAbsent(maker, key -> {
+            makerNames.add(key);
+            return makerNames.size() - 1;
+        });
+    }
+
+    /**
+     * Returns arrays that reflect every write made before the call. One
+     * query rebuilds stale arrays while the others wait for them, and
+     * writers only wait for the entries to be copied.
+     */
+    private Columns columns() {
+        long wanted = modifications;
+        Columns current = columns;
+        if (current != null && current.modifications >= wanted) {
+            return current;
+        }
+        synchronized (columnsLock) {
+            current = columns;
+            if (current == null || current.modifications < wanted) {
+                current = build();
+                columns = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Sorts the whole catalog after a rebuild, and otherwise merges the
+     * changes into the current arrays.
+     */
+    private Columns build() {
+        Columns current = columns;
+        Map<Long, Entry> changed;
+        long[] ids = null;
+        Entry[] values = null;
+        String[] names;
+        Map<String, Integer> codes;
+        long built;
+
+        synchronized (this) {
+            if (current == null || reset) {
+                ids = new long[entries.size()];
+                values = new Entry[entries.size()];
+                int position = 0;
+                for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+                    ids[position] = entry.getKey();
+                    values[position] = entry.getValue();
+                    position += 1;
+                }
+                reset = false;
+            }
+            changed = changes;
+            changes = new HashMap<>();
+
+            names = makerNames.toArray(new String[0]);
+            codes = new HashMap<>(makerCodes);
+            built = modifications;
+        }
+
+        if (ids != null) {
+            return sorted(ids, values, names, codes, built);
+        }
+        return merged(current, changed, names, codes, built);
+    }
+
+    /**
+     * Sorts by price, then by id, packing the price and the position in id
+     * order into one primitive key so the sort does not box.
+     */
+    private static Columns sorted(long[] ids, Entry[] values, String[] names,
+                                  Map<String, Integer> codes, long built) {
+        long[] keys = new long[ids.length];
+        int size = 0;
+        for (int position = 0; position < ids.length; position += 1) {
+            if (values[position].price != null) {
+                keys[size] = ((long) values[position].price << 32)
+                        | position;
+                size += 1;
+            }
+        }
+
+        Arrays.sort(keys, 0, size);
+
+        Builder builder = new Builder(size);
+        for (int index = 0; index < size; index += 1) {
+            int source = (int) keys[index];
+            builder.add(ids[source], values[source].price,
+                    values[source].maker);
+        }
+        return builder.build(names, codes, built);
+    }
+
+    /**
+     * Drops the changed ids from the current arrays and merges in their
+     * new entries, which are the only ones sorted.
+     */
+    private static Columns merged(Columns current, Map<Long, Entry> changed,
+                                  String[] names, Map<String, Integer> codes,
+                                  long built) {
+        long[] changedIds = changed.keySet().stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        List<Map.Entry<Long, Entry>> added = changed.entrySet().stream()
+                .filter(change -> change.getValue() != null
+                        && change.getValue().price != null)
+                .sorted(Comparator.comparing((Map.Entry<Long, Entry> change) ->
+                        change.getValue().price)
+                        .thenComparing(Map.Entry::getKey))
+                .collect(Collectors.toList());
+
+        Builder builder = new Builder(current.ids.length + added.size());
+        int index = 0;
+        int next = 0;
+        while (index < current.ids.length || next < added.size()) {
+            if (index < current.ids.length && Arrays.binarySearch(
+                    changedIds, current.ids[index]) >= 0) {
+                index += 1;
+                continue;
+            }
+            if (next == added.size() || (index < current.ids.length
+                    && isBefore(current.prices[index], current.ids[index],
+                    added.get(next)))) {
+                builder.add(current.ids[index], current.prices[index],
+                        current.makers[index]);
+                index += 1;
+                continue;
+            }
+            Map.Entry<Long, Entry> entry = added.get(next);
+            builder.add(entry.getKey(), entry.getValue().price,
+                    entry.getValue().maker);
+            next += 1;
+        }
+        return builder.build(names, codes, built);
+    }
+
+    private static boolean isBefore(int price, long id,
+                                    Map.Entry<Long, Entry> other) {
+        int otherPrice = other.getValue().price;
+        return price < otherPrice
+                || (price == otherPrice && id < other.getKey());
+    }
+
+    private static class Entry {
+        private final Integer price;
+
+        private final int maker;
+
+        private final Long version;
+
+        Entry(Integer price, int maker, Long version) {
+            this.price = price;
+            this.maker = maker;
+            this.version = version;
+        }
+
+        boolean isNewerThan(Long other) {
+            return version != null && other != null && version > other;
+        }
+    }
+
+    /**
+     * Fills the arrays in price order and adds up the prefix sums.
+     */
+    private static class Builder {
+        private final long[] ids;
+
+        private final int[] prices;
+
+        private final int[] makers;
+
+        private int size;
+
+        Builder(int capacity) {
+            ids = new long[capacity];
+            prices = new int[capacity];
+            makers = new int[capacity];
+        }
+
+        void add(long id, int price, int maker) {
+            ids[size] = id;
+            prices[size] = price;
+            makers[size] = maker;
+            size += 1;
+        }
+
+        Columns build(String[] names, Map<String, Integer> codes,
+                      long built) {
+            long[] priceSums = new long[size + 1];
+            for (int index = 0; index < size; index += 1) {
+                priceSums[index + 1] = priceSums[index] + prices[index];
+            }
+            return new Columns(Arrays.copyOf(ids, size),
+                    Arrays.copyOf(prices, size), Arrays.copyOf(makers, size),
+                    priceSums, names, codes, built);
+        }
+    }
+
+    private static class Columns {
+        private final long[] ids;
+
+        private final int[] prices;
+
+        private final int[] makers;
+
+        private final long[] priceSums;
+
+        private final String[] makerNames;
+
+        private final Map<String, Integer> makerCodes;
+
+        private final long modifications;
+
+        Columns(long[] ids, int[] prices, int[] makers, long[] priceSums,
+                String[] makerNames, Map<String, Integer> makerCodes,
+                long modifications) {
+            this.ids = ids;
+            this.prices = prices;
+            this.makers = makers;
+            this.priceSums = priceSums;
+            this.makerNames = makerNames;
+            this.makerCodes = makerCodes;
+            this.modifications = modifications;
+        }
+
+        int codeOf(String maker) {
+            return makerCodes.getOrDefault(maker, -1);
+        }
+
+        /**
+         * The first index with a price of at least {@code price}.
+         */
+        int lowerBound(Integer price) {
+            if (price == null) {
+                return 0;
+            }
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] < price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * The first index with a price above {@code price}.
+         */
+        int upperBound(Integer price) {
+            if (price == null) {
+                return prices.length;
+            }
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] <= price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductSearchQuery;
+import com.codesoom.assignment.dto.ProductSearchResult;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process search index over product names and makers.
+ *
+ * <p>Text is indexed as character unigrams and bigrams, so a query matches
+ * anywhere inside a word, which suits Korean names without a tokenizer.
+ * Candidates come from intersecting posting lists and are confirmed with
+ * a substring check. Makers are indexed for exact filtering and facet
+ * counts.
+ *
+ * <p>A query needs text or a maker to start from, and price bounds only
+ * narrow its matches, so no query walks the whole catalog; one with
+ * neither matches nothing. Only the requested page of the matches is
+ * kept in order, so a broad query does not sort every match.
+ *
+ * <p>{@link #rebuild()} scans into a fresh index and swaps it in at the
+ * end, so searches keep seeing the old one meanwhile. Writes made during
+ * the scan go to the old index and are carried over at the swap; a
+ * delete leaves a tombstone, so a page the scan read before the delete
+ * cannot put the product back.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final int MAX_LIMIT = 100;
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ProductService productService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object rebuildLock = new Object();
+
+    private Index index = new Index();
+
+    private Set<Long> written;
+
+    private Set<Long> tombstones;
+
+    public ProductSearchIndex(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                written = new HashSet<>();
+                tombstones = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index fresh = new Index();
+            try {
+                productService.forEachProduct(REBUILD_CHUNK_SIZE,
+                        product -> fresh.put(copyOf(product)));
+
+                lock.writeLock().lock();
+                try {
+                    tombstones.forEach(fresh::remove);
+                    written.stream()
+                            .map(index.documents::get)
+                            .filter(Objects::nonNull)
+                            .forEach(fresh::put);
+                    index = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    written = null;
+                    tombstones = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductEvent(ProductEvent event) {
+        if (event.getType() == ProductEvent.Type.DELETED) {
+            remove(event.getProduct().getId());
+            return;
+        }
+        put(event.getProduct());
+    }
+
+    public void put(Product product) {
+        Product document = copyOf(product);
+
+        lock.writeLock().lock();
+        try {
+            if (written != null) {
+                written.add(document.getId());
+            }
+            index.put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (tombstones != null) {
+                tombstones.add(id);
+            }
+            index.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductSearchResult search(ProductSearchQuery query) {
+        lock.readLock().lock();
+        try {
+            List<Product> matches = index.candidates(query)
+                    .map(index.documents::get)
+                    .filter(product -> matches(product, query))
+                    .collect(Collectors.toList());
+
+            Map<String, Long> facets = matches.stream()
+                    .collect(Collectors.groupingBy(ProductSearchIndex::makerOf,
+                            TreeMap::new, Collectors.counting()));
+
+            int limit = Math.min(Math.max(query.getLimit(), 1), MAX_LIMIT);
+
+            List<Product> products =
+                    first(matches, comparatorOf(query.getSort()), limit);
+
+            return new ProductSearchResult(matches.size(), products, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matches(Product product, ProductSearchQuery query) {
+        int price = priceOf(product);
+        if (query.getMinPrice() != null && price < query.getMinPrice()) {
+            return false;
+        }
+        if (query.getMaxPrice() != null && price > query.getMaxPrice()) {
+            return false;
+        }
+
+        String text = textOf(product);
+        return tokensOf(query.getQ()).stream().allMatch(text::contains);
+    }
+
+    /**
+     * The first {@code limit} products in the given order, kept in a heap
+     * of that size instead of sorting every product.
+     */
+    private static List<Product> first(List<Product> products,
+                                       Comparator<Product> order,
+                                       int limit) {
+        PriorityQueue<Product> heap =
+                new PriorityQueue<>(limit + 1, order.reversed());
+        for (Product product : products) {
+            heap.add(product);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<Product> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    private static Comparator<Product> comparatorOf(String sort) {
+        Comparator<Product> byId = Comparator.comparing(Product::getId);
+
+        switch (sort == null ? "id" : sort) {
+            case "price":
+                return Comparator.comparingInt(ProductSearchIndex::priceOf)
+                        .thenComparing(byId);
+            case "-price":
+                return Comparator.comparingInt(ProductSearchIndex::priceOf)
+                        .reversed().thenComparing(byId);
+            case "name":
+                return Comparator.comparing(ProductSearchIndex::nameOf)
+                        .thenComparing(byId);
+            case "-name":
+                return Comparator.comparing(ProductSearchIndex::nameOf)
+                        .reversed().thenComparing(byId);
+            case "-id":
+                return byId.reversed();
+            default:
+                return byId;
+        }
+    }
+
+    private static List<String> tokensOf(String q) {
+        if (q == null || q.isBlank()) {
+            return List.of();
+        }
+        return Stream.of(normalize(q).split("\\s+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every unigram and bigram of an indexed text.
+     */
+    private static Set<String> gramsOf(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < text.length(); i += 1) {
+            result.add(text.substring(i, i + 1));
+            if (i + 2 <= text.length()) {
+                result.add(text.substring(i, i + 2));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The bigrams of a query token, or the token itself when it is a
+     * single character.
+     */
+    private static Set<String> queryGramsOf(String token) {
+        if (token.length() == 1) {
+            return Set.of(token);
+        }
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 2 <= token.length(); i += 1) {
+            result.add(token.substring(i, i + 2));
+        }
+        return result;
+    }
+
+    private static int priceOf(Product product) {
+        return product.getPrice() == null ? 0 : product.getPrice();
+    }
+
+    private static String nameOf(Product product) {
+        return product.getName() == null ? "" : product.getName();
+    }
+
+    private static String makerOf(Product product) {
+        return product.getMaker() == null ? "" : product.getMaker();
+    }
+
+    private static String textOf(Product product) {
+        return normalize(product.getName()) + " "
+                + normalize(product.getMaker());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isNewer(Product existing, Product document) {
+        return existing.getVersion() != null && document.getVersion() != null
+                && existing.getVersion() > document.getVersion();
+    }
+
+    private static Product copyOf(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .maker(product.getMaker())
+                .price(product.getPrice())
+                .imageUrl(product.getImageUrl())
+                .version(product.getVersion())
+                .build();
+    }
+
+    /**
+     * The documents and their postings; guarded by the index lock once it
+     * is in use, and touched by the rebuilding thread alone before that.
+     */
+    private static class Index {
+        private final Map<Long, Product> documents = new HashMap<>();
+
+        private final Map<String, Set<Long>> grams = new HashMap<>();
+
+        private final Map<String, Set<Long>> makers = new HashMap<>();
+
+        void put(Product document) {
+            Product existing = documents.get(document.getId());
+            if (existing != null) {
+                if (isNewer(existing, document)) {
+                    return;
+                }
+                unindex(existing);
+            }
+
+            documents.put(document.getId(), document);
+            index(document);
+        }
+
+        void remove(Long id) {
+            Product existing = documents.remove(id);
+            if (existing != null) {
+                unindex(existing);
+            }
+        }
+
+        /**
+         * Picks the narrowest posting lists for the query instead of
+         * scanning every document.
+         */
+        Stream<Long> candidates(ProductSearchQuery query) {
+            List<Collection<Long>> postings = new ArrayList<>();
+
+            for (String token : tokensOf(query.getQ())) {
+                queryGramsOf(token).forEach(gram -> postings.add(
+                        grams.getOrDefault(gram, Set.of())));
+            }
+
+            if (query.getMaker() != null) {
+                postings.add(makers.getOrDefault(
+                        normalize(query.getMaker()), Set.of()));
+            }
+
+            if (postings.isEmpty()) {
+                return Stream.empty();
+            }
+
+            postings.sort(Comparator.comparingInt(Collection::size));
+
+            Set<Long> ids = new HashSet<>(postings.get(0));
+            postings.subList(1, postings.size()).forEach(ids::retainAll);
+            return ids.stream();
+        }
+
+        private void index(Product product) {
+            Long id = product.getId();
+
+            gramsOf(textOf(product)).forEach(gram -> grams.computeIfAbsent(
+                    gram, key -> new HashSet<>()).add(id));
+            makers.computeIfAbsent(normalize(product.getMaker()),
+                    key -> new HashSet<>()).add(id);
+        }
+
+        private void unindex(Product product) {
+            Long id = product.getId();
+
+            gramsOf(textOf(product)).forEach(gram ->
+                    removePosting(grams, gram, id));
+            removePosting(makers, normalize(product.getMaker()), id);
+        }
+
+        private static <K> void removePosting(Map<K, Set<Long>> postings,
+                                              K key, Long id) {
+            Set<Long> ids = postings.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+}
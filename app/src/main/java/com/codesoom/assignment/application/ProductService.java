@@ -1,31 +1,146 @@
 package com.codesoom.assignment.application;
 
 import com.codesoom.assignment.ProductNotFoundException;
+import com.codesoom.assignment.ProductVersionMismatchException;
 import com.codesoom.assignment.domain.Product;
 import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.domain.ProductView;
 import com.codesoom.assignment.dto.ProductData;
+import com.codesoom.assignment.dto.ProductLookupResult;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
 public class ProductService {
+    static final int LOOKUP_CHUNK_SIZE = 500;
+
     private final ProductRepository productRepository;
 
-    public ProductService(ProductRepository productRepository) {
+    private final ProductCache productCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductService(ProductRepository productRepository,
+                          ProductCache productCache,
+                          ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(readOnly = true)
+    @Timed("product.service")
+    public List<Product> getProducts(Long after, int limit) {
+        Long cursor = after == null ? 0L : after;
+        return productRepository.findByIdGreaterThanOrderByIdAsc(
+                cursor, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    @Timed("product.service")
+    public List<ProductView> getProductViews(Long after, int limit,
+                                             Set<String> fields) {
+        Long cursor = after == null ? 0L : after;
+        return productRepository.findViewsByIdGreaterThan(
+                cursor, fields, limit);
     }
 
-    public List<Product> getProducts() {
-        return productRepository.findAll();
+    /**
+     * Walks the whole catalog in id order, one keyset page at a time.
+     * Runs outside of a transaction so every page is loaded by its own
+     * persistence context and can be collected once it has been consumed.
+     * It is still marked read-only, so the pages may be read from a
+     * replica.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED, readOnly = true)
+    @Timed("product.service")
+    public void forEachProduct(int chunkSize, Consumer<Product> consumer) {
+        Long cursor = null;
+        List<Product> products;
+        do {
+            products = getProducts(cursor, chunkSize);
+            products.forEach(consumer);
+            if (!products.isEmpty()) {
+                cursor = products.get(products.size() - 1).getId();
+            }
+        } while (products.size() == chunkSize);
     }
 
+    /**
+     * Runs without a transaction of its own, so requests waiting on
+     * another's load of the same product do not each hold a connection.
+     * The repository opens a read-only one for the query itself.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Timed("product.service")
     public Product getProduct(Long id) {
-        return findProduct(id);
+        return productCache.get(id, this::findProduct);
     }
 
+    /**
+     * Finds many products at once. Cached products are taken from the
+     * cache and the rest are read with one {@code IN} query per chunk of
+     * {@value #LOOKUP_CHUNK_SIZE} ids. Products come back in the order of
+     * their first request, and ids with no product are listed as missing.
+     */
+    @Transactional(readOnly = true)
+    @Timed("product.service")
+    public ProductLookupResult getProducts(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+
+        for (Long id : requested) {
+            productCache.get(id).ifPresentOrElse(
+                    product -> found.put(id, product),
+                    () -> uncached.add(id));
+        }
+
+        for (int from = 0; from < uncached.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = uncached.subList(from,
+                    Math.min(from + LOOKUP_CHUNK_SIZE, uncached.size()));
+            Map<Long, Long> generations = new HashMap<>();
+            chunk.forEach(id -> generations.put(id,
+                    productCache.generationOf(id)));
+
+            productRepository.findAllById(chunk).forEach(product -> {
+                productCache.put(product,
+                        generations.get(product.getId()));
+                found.put(product.getId(), product);
+            });
+        }
+
+        List<Product> products = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product == null) {
+                missing.add(id);
+            } else {
+                products.add(product);
+            }
+        }
+
+        return new ProductLookupResult(products, missing);
+    }
+
+    @Timed("product.service")
     public Product createProduct(ProductData productData) {
         Product product = Product.builder()
                 .name(productData.getName())
@@ -33,12 +148,34 @@ public class ProductService {
                 .price(productData.getPrice())
                 .imageUrl(productData.getImageUrl())
                 .build();
-        return productRepository.save(product);
+
+        Product created = productRepository.save(product);
+
+        eventPublisher.publishEvent(
+                new ProductEvent(ProductEvent.Type.CREATED, created));
+
+        return created;
     }
 
+    @Timed("product.service")
     public Product updateProduct(Long id, ProductData productData) {
+        return updateProduct(id, productData, null);
+    }
+
+    /**
+     * Changes the product only if it is still at {@code expectedVersion};
+     * a {@code null} version skips the check.
+     */
+    @Timed("product.service")
+    public Product updateProduct(Long id, ProductData productData,
+                                 Long expectedVersion) {
         Product product = findProduct(id);
 
+        if (expectedVersion != null
+                && !Objects.equals(product.getVersion(), expectedVersion)) {
+            throw new ProductVersionMismatchException(id, expectedVersion);
+        }
+
         product.change(
                 productData.getName(),
                 productData.getMaker(),
@@ -46,14 +183,29 @@ public class ProductService {
                 productData.getImageUrl()
         );
 
-        return product;
+        // JPA would write a managed entity anyway, but other engines keep
+        // their own copy and need the change handed back.
+        Product updated = productRepository.save(product);
+
+        productCache.invalidate(id);
+
+        eventPublisher.publishEvent(
+                new ProductEvent(ProductEvent.Type.UPDATED, updated));
+
+        return updated;
     }
 
+    @Timed("product.service")
     public Product deleteProduct(Long id) {
         Product product = findProduct(id);
 
         productRepository.delete(product);
 
+        productCache.invalidate(id);
+
+        eventPublisher.publishEvent(
+                new ProductEvent(ProductEvent.Type.DELETED, product));
+
         return product;
     }
 
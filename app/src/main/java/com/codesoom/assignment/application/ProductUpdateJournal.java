@@ -0,0 +1,138 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.dto.ProductData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Append-only JSON lines file of updates accepted by
+ * {@link ProductWriteBehind} but not yet written to the database.
+ *
+ * <p>Every append is forced to disk before it returns. After a flush the
+ * file is rewritten with only the updates still pending, through a
+ * temporary file and an atomic move, so a crash leaves either the old or
+ * the new journal.
+ */
+@Component
+@ConditionalOnProperty(name = "products.write-behind.enabled",
+        havingValue = "true")
+public class ProductUpdateJournal {
+    private final Path path;
+
+    private final ObjectWriter writer;
+
+    private final ObjectReader reader;
+
+    private FileChannel channel;
+
+    public ProductUpdateJournal(
+            @Value("${products.write-behind.journal:"
+                    + "${user.home}/data/product-updates.journal}") Path path,
+            ObjectMapper objectMapper
+    ) throws IOException {
+        this.path = path.toAbsolutePath();
+        this.writer = objectMapper.writerFor(ProductData.class);
+        this.reader = objectMapper.readerFor(ProductData.class);
+
+        Files.createDirectories(this.path.getParent());
+        this.channel = open();
+    }
+
+    /**
+     * Reads the pending updates in the order they were accepted. A line
+     * that cannot be parsed, such as one torn by a crash mid-append, is
+     * skipped.
+     */
+    public synchronized List<ProductData> read() {
+        List<ProductData> updates = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(path,
+                    StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    updates.add(reader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    // A partial last line; the update was never acknowledged.
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return updates;
+    }
+
+    public synchronized void append(ProductData productData) {
+        try {
+            write(channel, productData);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void rewrite(Collection<ProductData> pending) {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ProductData productData : pending) {
+                write(out, productData);
+            }
+            out.force(false);
+
+            channel.close();
+            try {
+                Files.move(temporary, path,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                channel = open();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void write(FileChannel out, ProductData productData)
+            throws IOException {
+        byte[] json = writer.writeValueAsBytes(productData);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1)
+                .put(json)
+                .put((byte) '\n')
+                .flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
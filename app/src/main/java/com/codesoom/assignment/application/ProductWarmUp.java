@@ -0,0 +1,159 @@
+package com.codesoom.assignment.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Sends the {@code ProductController} requests to this server a number
+ * of times before it reports ready, so the first real requests find the
+ * caches and list snapshots filled and the hot paths already compiled.
+ *
+ * <p>Application runners complete before Spring Boot publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC}, so the readiness probe stays
+ * down until the warm-up is over.
+ *
+ * <p>Warm-up requests carry a token made up for this process in
+ * {@value #TOKEN_HEADER}. The admission filters let them through by it,
+ * so the warm-up neither spends nor is refused a client's rate limit.
+ */
+@Component
+@ConditionalOnProperty(name = "products.warm-up.enabled", havingValue = "true")
+public class ProductWarmUp implements ApplicationRunner {
+    private static final Logger log =
+            LoggerFactory.getLogger(ProductWarmUp.class);
+
+    public static final String TOKEN_HEADER = "X-Warm-Up-Token";
+
+    private static final int SAMPLE_SIZE = 20;
+
+    private final String token = UUID.randomUUID().toString();
+
+    private final Environment environment;
+
+    private final ObjectMapper objectMapper;
+
+    private final int iterations;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public ProductWarmUp(
+            Environment environment,
+            ObjectMapper objectMapper,
+            @Value("${products.warm-up.iterations:200}") int iterations
+    ) {
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Tells whether the request was sent by this warm-up.
+     */
+    public boolean isWarmUp(HttpServletRequest request) {
+        return token.equals(request.getHeader(TOKEN_HEADER));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        Integer port = environment.getProperty("local.server.port",
+                Integer.class);
+        if (port == null) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        int failures = warmUp(URI.create("http://localhost:" + port));
+
+        log.info("Warmed up with {} iterations in {} ms ({} failed requests)",
+                iterations, Duration.ofNanos(System.nanoTime() - startedAt)
+                        .toMillis(), failures);
+    }
+
+    int warmUp(URI baseUrl) throws InterruptedException {
+        List<String> paths = new ArrayList<>(List.of(
+                "/products",
+                "/products?fields=id,name,price"));
+
+        List<Long> ids = sampleIds(baseUrl);
+        if (!ids.isEmpty()) {
+            StringJoiner joined = new StringJoiner(",");
+            ids.forEach(id -> {
+                paths.add("/products/" + id);
+                joined.add(id.toString());
+            });
+            paths.add("/products?ids=" + joined);
+        }
+
+        int failures = 0;
+        for (int iteration = 0; iteration < iterations; iteration += 1) {
+            for (String path : paths) {
+                if (!send(baseUrl, path, iteration % 2 == 0)) {
+                    failures += 1;
+                }
+            }
+        }
+        return failures;
+    }
+
+    private List<Long> sampleIds(URI baseUrl) throws InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        try {
+            HttpResponse<String> response = client.send(
+                    request(baseUrl, "/products?fields=id&limit="
+                            + SAMPLE_SIZE).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                return ids;
+            }
+            for (JsonNode product : objectMapper.readTree(response.body())) {
+                ids.add(product.get("id").asLong());
+            }
+        } catch (IOException e) {
+            log.warn("Could not read products to warm up with", e);
+        }
+        return ids;
+    }
+
+    private boolean send(URI baseUrl, String path, boolean gzip)
+            throws InterruptedException {
+        HttpRequest.Builder request = request(baseUrl, path);
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        try {
+            return client.send(request.build(),
+                    HttpResponse.BodyHandlers.discarding())
+                    .statusCode() < 400;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private HttpRequest.Builder request(URI baseUrl, String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header(TOKEN_HEADER, token)
+                .timeout(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,244 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.BatchItemResult;
+import com.codesoom.assignment.dto.ProductData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind mode for product updates, turned on with
+ * {@code products.write-behind.enabled}.
+ *
+ * <p>An accepted update is journaled and kept per product id, so a burst
+ * of updates to one product costs a single write. A background flush
+ * applies what is pending through {@link ProductBatchService} on a fixed
+ * interval, or as soon as a batch worth of ids is waiting. Reads through
+ * {@link #findPending(Long)} see buffered changes straight away, and
+ * updates left in the journal by a crash are replayed on startup.
+ *
+ * <p>Only product detail and lookup read through {@link #findPending(Long)}.
+ * List pages, the stream, the price and search indexes and the stats show
+ * the stored rows, so they lag a buffered update until it is flushed, at
+ * most one flush interval later.
+ */
+@Component
+@ConditionalOnProperty(name = "products.write-behind.enabled",
+        havingValue = "true")
+public class ProductWriteBehind {
+    private static final Logger log =
+            LoggerFactory.getLogger(ProductWriteBehind.class);
+
+    private final ProductService productService;
+
+    private final ProductBatchService productBatchService;
+
+    private final ProductUpdateJournal journal;
+
+    private final int batchSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Object flushLock = new Object();
+
+    private final Map<Long, ProductData> pending = new LinkedHashMap<>();
+
+    private final Map<Long, ProductData> flushing = new HashMap<>();
+
+    public ProductWriteBehind(
+            ProductService productService,
+            ProductBatchService productBatchService,
+            ProductUpdateJournal journal,
+            @Value("${products.write-behind.batch-size:500}") int batchSize,
+            @Value("${products.write-behind.flush-interval:200ms}")
+                    Duration flushInterval
+    ) {
+        this.productService = productService;
+        this.productBatchService = productBatchService;
+        this.journal = journal;
+        this.batchSize = batchSize;
+
+        journal.read().forEach(this::enqueue);
+        // Drops a line torn by a crash, so the next append starts on a
+        // line of its own.
+        journal.rewrite(pending.values());
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "product-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Accepts an update without touching the database. Returns the
+     * product as it will be once the update is flushed.
+     */
+    public Product updateProduct(Long id, ProductData productData) {
+        Product product = productService.getProduct(id);
+
+        ProductData update = ProductData.builder()
+                .id(id)
+                .name(productData.getName())
+                .maker(productData.getMaker())
+                .price(productData.getPrice())
+                .imageUrl(productData.getImageUrl())
+                .build();
+
+        boolean full;
+        synchronized (this) {
+            journal.append(update);
+            full = enqueue(update) >= batchSize;
+        }
+
+        if (full) {
+            scheduler.execute(this::flushQuietly);
+        }
+
+        return viewOf(product, update);
+    }
+
+    /**
+     * Returns the product with its buffered update applied, or nothing
+     * when no update of it is waiting to be written.
+     */
+    public Optional<Product> findPending(Long id) {
+        ProductData update;
+        synchronized (this) {
+            update = pending.getOrDefault(id, flushing.get(id));
+        }
+
+        if (update == null) {
+            return Optional.empty();
+        }
+        return Optional.of(viewOf(productService.getProduct(id), update));
+    }
+
+    /**
+     * Drops the buffered updates of a product that is about to be deleted,
+     * including one being flushed, and takes them out of the journal, so
+     * neither a later batch nor a restart writes them over the deletion.
+     */
+    public synchronized void discard(Long id) {
+        boolean wasPending = pending.remove(id) != null;
+        boolean wasFlushing = flushing.remove(id) != null;
+        if (wasPending || wasFlushing) {
+            List<ProductData> buffered = new ArrayList<>(flushing.values());
+            buffered.addAll(pending.values());
+            journal.rewrite(buffered);
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending update, one transaction per batch. Updates
+     * that fail to flush stay pending unless a newer one replaced them.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<ProductData> updates;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                updates = new ArrayList<>(pending.values());
+                flushing.putAll(pending);
+                pending.clear();
+            }
+
+            try {
+                for (int from = 0; from < updates.size(); from += batchSize) {
+                    List<ProductData> batch = unlessDiscarded(updates
+                            .subList(from, Math.min(from + batchSize,
+                                    updates.size())));
+                    if (batch.isEmpty()) {
+                        continue;
+                    }
+                    productBatchService.updateProducts(batch).stream()
+                            .filter(result -> result.getMessage() != null)
+                            .forEach(this::logDropped);
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    Map<Long, ProductData> newer = new LinkedHashMap<>(pending);
+                    pending.clear();
+                    pending.putAll(flushing);
+                    pending.putAll(newer);
+                    flushing.clear();
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                flushing.clear();
+                journal.rewrite(pending.values());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private int enqueue(ProductData update) {
+        pending.remove(update.getId());
+        pending.put(update.getId(), update);
+        return pending.size();
+    }
+
+    private synchronized List<ProductData> unlessDiscarded(
+            List<ProductData> updates) {
+        return updates.stream()
+                .filter(update -> flushing.containsKey(update.getId()))
+                .collect(Collectors.toList());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush product updates; will retry", e);
+        }
+    }
+
+    private void logDropped(BatchItemResult result) {
+        log.warn("Dropped buffered update of product {}: {}",
+                result.getId(), result.getMessage());
+    }
+
+    private static Product viewOf(Product product, ProductData update) {
+        return Product.builder()
+                .id(product.getId())
+                .name(update.getName())
+                .maker(update.getMaker())
+                .price(update.getPrice())
+                .imageUrl(update.getImageUrl())
+                .version(product.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.application.ProductWarmUp;
+import com.codesoom.assignment.controllers.ConcurrencyLimitFilter;
+import com.codesoom.assignment.controllers.RateLimitFilter;
+import com.codesoom.assignment.infra.AdaptiveConcurrencyLimiter;
+import com.codesoom.assignment.infra.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Sheds load in front of the product endpoints: per-client rate limits
+ * first, then a server-wide adaptive concurrency limit. Each can be
+ * turned on separately. Requests of the server's own warm-up pass both.
+ */
+@Configuration
+public class AdmissionControlConfig {
+    private static final String[] URL_PATTERNS = {"/products", "/products/*"};
+
+    @Bean
+    @ConditionalOnProperty(name = "products.rate-limit.enabled",
+            havingValue = "true")
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Value("${products.rate-limit.read.rate:100}") double readRate,
+            @Value("${products.rate-limit.read.burst:200}") int readBurst,
+            @Value("${products.rate-limit.write.rate:10}") double writeRate,
+            @Value("${products.rate-limit.write.burst:20}") int writeBurst,
+            @Value("${products.rate-limit.key-header:X-API-Key}")
+                    String keyHeader,
+            @Value("${products.rate-limit.api-keys:}") Set<String> apiKeys,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            Optional<ProductWarmUp> warmUp
+    ) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(
+                        new TokenBucketRateLimiter(readRate, readBurst),
+                        new TokenBucketRateLimiter(writeRate, writeBurst),
+                        keyHeader, apiKeys, objectMapper, meterRegistry,
+                        exemptOf(warmUp)));
+        registration.addUrlPatterns(URL_PATTERNS);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "products.concurrency-limit.enabled",
+            havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${products.concurrency-limit.initial:20}") int initial,
+            @Value("${products.concurrency-limit.min:5}") int min,
+            @Value("${products.concurrency-limit.max:1000}") int max,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            Optional<ProductWarmUp> warmUp
+    ) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(
+                        new AdaptiveConcurrencyLimiter(initial, min, max),
+                        objectMapper, meterRegistry, exemptOf(warmUp)));
+        registration.addUrlPatterns(URL_PATTERNS);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    static Predicate<HttpServletRequest> exemptOf(
+            Optional<ProductWarmUp> warmUp) {
+        return warmUp.<Predicate<HttpServletRequest>>map(
+                productWarmUp -> productWarmUp::isWarmUp)
+                .orElse(request -> false);
+    }
+}
@@ -0,0 +1,48 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.infra.UdpInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sends product invalidations to the other nodes of a cluster over UDP
+ * when {@code products.invalidation.enabled} is set. Peers are given as
+ * {@code host:port}, every node including this one.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.invalidation.enabled",
+        havingValue = "true")
+public class ClusterInvalidationConfig {
+    @Bean(destroyMethod = "close")
+    public UdpInvalidationBus invalidationBus(
+            @Value("${products.invalidation.bind:0.0.0.0:7700}") String bind,
+            @Value("${products.invalidation.peers:}") List<String> peers,
+            @Value("${products.invalidation.flush-interval:10ms}")
+                    Duration flushInterval,
+            @Value("${products.invalidation.heartbeat-interval:5s}")
+                    Duration heartbeatInterval,
+            @Value("${products.invalidation.max-queued:10000}") int maxQueued
+    ) throws IOException {
+        return new UdpInvalidationBus(addressOf(bind),
+                peers.stream()
+                        .map(String::trim)
+                        .filter(peer -> !peer.isEmpty())
+                        .map(ClusterInvalidationConfig::addressOf)
+                        .collect(Collectors.toList()),
+                flushInterval, heartbeatInterval, maxQueued);
+    }
+
+    private static InetSocketAddress addressOf(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        return new InetSocketAddress(hostAndPort.substring(0, colon),
+                Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.infra.MemoryProductRepository;
+import com.codesoom.assignment.infra.ProductLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Serves products from {@link MemoryProductRepository} instead of JPA when
+ * {@code products.repository.engine} is {@code memory}. The JPA repository
+ * stays in the context but is no longer injected.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.repository.engine",
+        havingValue = "memory")
+public class MemoryRepositoryConfig {
+    @Bean(destroyMethod = "close")
+    @Primary
+    public ProductRepository memoryProductRepository(
+            @Value("${products.repository.memory.directory:"
+                    + "${user.home}/data/products}") Path directory,
+            @Value("${products.repository.memory.sync-writes:false}")
+                    boolean syncWrites,
+            @Value("${products.repository.memory.region-size:64MB}")
+                    DataSize regionSize,
+            @Value("${products.repository.memory.snapshot-threshold:256MB}")
+                    DataSize snapshotThreshold
+    ) throws IOException {
+        return new MemoryProductRepository(
+                new ProductLog(directory, (int) regionSize.toBytes(),
+                        syncWrites),
+                snapshotThreshold.toBytes());
+    }
+}
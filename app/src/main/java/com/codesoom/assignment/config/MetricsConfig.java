@@ -0,0 +1,82 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.application.ProductCache;
+import com.codesoom.assignment.application.ProductListSnapshots;
+import com.codesoom.assignment.infra.RepositoryMetricsPostProcessor;
+import com.codesoom.assignment.infra.SingleFlight;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+@Configuration
+public class MetricsConfig {
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryMetricsPostProcessor(meterRegistry);
+    }
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder productCacheMetrics(ProductCache productCache) {
+        return registry -> {
+            FunctionCounter.builder("product.cache.requests", productCache,
+                    cache -> cache.stats().hitCount())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("product.cache.requests", productCache,
+                    cache -> cache.stats().missCount())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("product.cache.evictions", productCache,
+                    cache -> cache.stats().evictionCount())
+                    .register(registry);
+            Gauge.builder("product.cache.size", productCache,
+                    ProductCache::size)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder singleFlightMetrics(ProductCache productCache,
+                                           ProductListSnapshots listSnapshots) {
+        return registry -> {
+            bindSingleFlight(registry, "product", productCache.loads());
+            bindSingleFlight(registry, "list", listSnapshots.builds());
+        };
+    }
+
+    private static void bindSingleFlight(MeterRegistry registry, String name,
+                                         SingleFlight<?, ?> singleFlight) {
+        bindSingleFlightResult(registry, name, singleFlight, "leader",
+                SingleFlight::leaders);
+        bindSingleFlightResult(registry, name, singleFlight, "coalesced",
+                SingleFlight::coalesced);
+        bindSingleFlightResult(registry, name, singleFlight, "timeout",
+                SingleFlight::timeouts);
+        bindSingleFlightResult(registry, name, singleFlight, "rejected",
+                SingleFlight::rejected);
+    }
+
+    private static void bindSingleFlightResult(
+            MeterRegistry registry, String name,
+            SingleFlight<?, ?> singleFlight, String result,
+            ToDoubleFunction<SingleFlight<?, ?>> count) {
+        FunctionCounter.builder("product.single-flight.calls", singleFlight,
+                count)
+                .tag("flight", name)
+                .tag("result", result)
+                .register(registry);
+    }
+}
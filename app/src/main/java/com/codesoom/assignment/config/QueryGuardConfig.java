@@ -0,0 +1,88 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.controllers.QueryCountFilter;
+import com.codesoom.assignment.infra.QueryGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Runs every statement through a datasource-proxy wrapper around the
+ * {@code dataSource} bean, so each request's statements are counted and
+ * slow ones logged. Only that bean is wrapped. The replica pools behind it
+ * are not, so no statement is counted twice.
+ *
+ * <p>{@code products.query-guard.mode} is {@code warn} or {@code fail}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.query-guard.enabled",
+        havingValue = "true", matchIfMissing = true)
+public class QueryGuardConfig {
+    private static final String DATA_SOURCE = "dataSource";
+
+    @Bean
+    public QueryGuard queryGuard(
+            @Value("${products.query-guard.slow-threshold:100ms}")
+                    Duration slowThreshold
+    ) {
+        return new QueryGuard(slowThreshold);
+    }
+
+    @Bean
+    public static BeanPostProcessor queryGuardDataSourcePostProcessor(
+            ObjectProvider<QueryGuard> queryGuard) {
+        return new DataSourcePostProcessor(queryGuard);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(
+            QueryGuard queryGuard,
+            @Value("${products.query-guard.max-statements:10}")
+                    int maxStatements,
+            @Value("${products.query-guard.mode:warn}") String mode,
+            @Value("${products.query-guard.bulk-paths:"
+                    + "/products/stream,/products/lookup,/products/batch}")
+                    Set<String> bulkPaths,
+            MeterRegistry meterRegistry
+    ) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(
+                        queryGuard, maxStatements, mode.equals("fail"),
+                        bulkPaths, meterRegistry));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+
+    static class DataSourcePostProcessor implements BeanPostProcessor {
+        private final ObjectProvider<QueryGuard> queryGuard;
+
+        DataSourcePostProcessor(ObjectProvider<QueryGuard> queryGuard) {
+            this.queryGuard = queryGuard;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean,
+                                                     String beanName) {
+            if (!(bean instanceof DataSource)
+                    || !beanName.equals(DATA_SOURCE)) {
+                return bean;
+            }
+            return ProxyDataSourceBuilder.create((DataSource) bean)
+                    .name(beanName)
+                    .listener(queryGuard.getObject())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.infra.ReadReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Routes read-only transactions to the replicas listed in
+ * {@code products.datasource.replica-urls}, leaving writes on the
+ * {@code spring.datasource} primary. Replicas share the primary's
+ * credentials unless their own are given.
+ */
+@Configuration
+@ConditionalOnProperty("products.datasource.replica-urls")
+public class ReadReplicaConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${products.datasource.replica-urls}") List<String> urls,
+            @Value("${products.datasource.replica-username:}") String username,
+            @Value("${products.datasource.replica-password:}") String password,
+            @Value("${products.datasource.replica-lag-query:}") String lagQuery,
+            @Value("${products.datasource.max-replica-lag:5s}") Duration maxLag,
+            @Value("${products.datasource.replica-check-interval:5s}")
+                    Duration checkInterval
+    ) {
+        List<DataSource> replicas = urls.stream()
+                .map(url -> DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(properties.determineDriverClassName())
+                        .url(url)
+                        .username(username.isEmpty()
+                                ? properties.determineUsername() : username)
+                        .password(password.isEmpty()
+                                ? properties.determinePassword() : password)
+                        .build())
+                .collect(Collectors.toList());
+
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicas,
+                lagQuery, maxLag, checkInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
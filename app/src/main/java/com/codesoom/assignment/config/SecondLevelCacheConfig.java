@@ -0,0 +1,100 @@
+package com.codesoom.assignment.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for products and the list query, held in
+ * Ehcache through JCache.
+ *
+ * <p>The regions are built here rather than in an XML file so their size
+ * and time to live come from {@code products.second-level-cache.*}. The
+ * update timestamps region never expires, as Hibernate requires, so a
+ * cached query result is always checked against the latest write to the
+ * product table. Hit and miss counts appear under
+ * {@code hibernate.second.level.cache.*} and
+ * {@code hibernate.query.cache.*} in the metrics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.second-level-cache.enabled",
+        havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+    static final String PRODUCT_REGION = "product";
+
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    static final String UPDATE_TIMESTAMPS_REGION =
+            "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${products.second-level-cache.maximum-size:10000}")
+                    long maximumSize,
+            @Value("${products.second-level-cache.time-to-live:10m}")
+                    Duration timeToLive,
+            @Value("${products.second-level-cache.query-maximum-size:1000}")
+                    long queryMaximumSize,
+            @Value("${products.second-level-cache.query-time-to-live:1m}")
+                    Duration queryTimeToLive
+    ) {
+        // One cache manager per application context, so contexts started
+        // side by side in tests do not share regions.
+        CacheManager cacheManager = Caching
+                .getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:products:" + UUID.randomUUID()),
+                        getClass().getClassLoader());
+
+        cacheManager.createCache(PRODUCT_REGION,
+                region(maximumSize, timeToLive));
+        cacheManager.createCache(QUERY_RESULTS_REGION,
+                region(queryMaximumSize, queryTimeToLive));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION,
+                Eh107Configuration.fromEhcacheCacheConfiguration(
+                        CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                                Object.class, Object.class,
+                                ResourcePoolsBuilder.heap(1000))
+                                .withExpiry(ExpiryPolicyBuilder.noExpiration())));
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(
+            CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", "true");
+            properties.put("hibernate.cache.use_query_cache", "true");
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager",
+                    hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy",
+                    "fail");
+            properties.put("javax.persistence.sharedCache.mode",
+                    "ENABLE_SELECTIVE");
+        };
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object>
+    region(long maximumSize, Duration timeToLive) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                        Object.class, Object.class,
+                        ResourcePoolsBuilder.heap(maximumSize))
+                        .withExpiry(ExpiryPolicyBuilder
+                                .timeToLiveExpiration(timeToLive)));
+    }
+}
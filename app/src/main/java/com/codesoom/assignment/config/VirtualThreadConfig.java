@@ -0,0 +1,53 @@
+package com.codesoom.assignment.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves every request on its own virtual thread instead of Tomcat's
+ * bounded worker pool, so blocking JPA calls no longer exhaust request
+ * threads. Concurrency against the database is then limited by the
+ * Hikari pool alone.
+ *
+ * <p>The executor is looked up reflectively because the project still
+ * compiles for Java versions without virtual threads; enabling this on
+ * such a runtime fails at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.execution.virtual-threads",
+        havingValue = "true")
+public class VirtualThreadConfig {
+    static final String EXECUTOR_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return executorOf(EXECUTOR_FACTORY);
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler>
+    virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler ->
+                protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Calls the no-argument factory of that name on {@link Executors}.
+     */
+    static ExecutorService executorOf(String factoryName) {
+        try {
+            Method factory = Executors.class.getMethod(factoryName);
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "Virtual threads need Java 21 or later", e);
+        }
+    }
+}
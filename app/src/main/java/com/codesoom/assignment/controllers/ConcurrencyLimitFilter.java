@@ -0,0 +1,97 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.infra.AdaptiveConcurrencyLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Answers {@code 503 Service Unavailable} with {@code Retry-After} when
+ * the adaptive concurrency limit is reached, and feeds the latency of
+ * every admitted request back into the limit.
+ *
+ * <p>Requests matching {@code exempt}, such as the server's own warm-up,
+ * are neither limited nor measured.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final ObjectMapper objectMapper;
+
+    private final Predicate<HttpServletRequest> exempt;
+
+    private final Counter admitted;
+
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this(limiter, objectMapper, meterRegistry, request -> false);
+    }
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  Predicate<HttpServletRequest> exempt) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.exempt = exempt;
+        this.admitted = counter(meterRegistry, "admitted");
+        this.rejected = counter(meterRegistry, "rejected");
+
+        Gauge.builder("product.admission.concurrency.limit", limiter,
+                AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("product.admission.concurrency.in-flight", limiter,
+                AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return exempt.test(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            RateLimitFilter.reject(response, HttpStatus.SERVICE_UNAVAILABLE,
+                    RETRY_AFTER, "Server is busy", objectMapper);
+            return;
+        }
+
+        admitted.increment();
+        long startedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - startedAt);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry,
+                                   String result) {
+        return Counter.builder("product.admission")
+                .tag("limiter", "concurrency")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
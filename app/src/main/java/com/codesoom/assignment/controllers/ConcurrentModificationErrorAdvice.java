@@ -0,0 +1,33 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.ProductVersionMismatchException;
+import com.codesoom.assignment.dto.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ControllerAdvice
+public class ConcurrentModificationErrorAdvice {
+    private static final ErrorResponse VERSION_MISMATCH =
+            new ErrorResponse("Product has been modified");
+
+    private static final ErrorResponse CONCURRENT_MODIFICATION =
+            new ErrorResponse("Product was modified concurrently");
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(ProductVersionMismatchException.class)
+    public ErrorResponse handleProductVersionMismatch() {
+        return VERSION_MISMATCH;
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ErrorResponse handleOptimisticLockingFailure() {
+        return CONCURRENT_MODIFICATION;
+    }
+}
@@ -10,10 +10,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ControllerAdvice
 public class NotFoundErrorAdvice {
+    private static final ErrorResponse PRODUCT_NOT_FOUND =
+            new ErrorResponse("Product not found");
+
     @ResponseBody
     @ResponseStatus(HttpStatus.NOT_FOUND)
     @ExceptionHandler(ProductNotFoundException.class)
     public ErrorResponse handleProductTaskNotFound() {
-        return new ErrorResponse("Product not found");
+        return PRODUCT_NOT_FOUND;
     }
 }
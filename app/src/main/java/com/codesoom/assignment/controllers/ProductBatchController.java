@@ -0,0 +1,59 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductBatchService;
+import com.codesoom.assignment.application.ProductWriteBehind;
+import com.codesoom.assignment.dto.BatchItemResult;
+import com.codesoom.assignment.dto.ProductData;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/products/batch")
+public class ProductBatchController {
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final ProductBatchService productBatchService;
+
+    private final Optional<ProductWriteBehind> writeBehind;
+
+    public ProductBatchController(ProductBatchService productBatchService,
+                                  Optional<ProductWriteBehind> writeBehind) {
+        this.productBatchService = productBatchService;
+        this.writeBehind = writeBehind;
+    }
+
+    @PostMapping
+    public List<BatchItemResult> create(
+            @RequestBody List<ProductData> items
+    ) {
+        checkSize(items);
+        return productBatchService.createProducts(items);
+    }
+
+    @PatchMapping
+    public List<BatchItemResult> update(
+            @RequestBody List<ProductData> items
+    ) {
+        checkSize(items);
+        writeBehind.ifPresent(ProductWriteBehind::flush);
+        return productBatchService.updateProducts(items);
+    }
+
+    @DeleteMapping
+    public List<BatchItemResult> destroy(@RequestParam List<Long> ids) {
+        checkSize(ids);
+        writeBehind.ifPresent(buffer -> ids.forEach(buffer::discard));
+        return productBatchService.deleteProducts(ids);
+    }
+
+    private void checkSize(List<?> items) {
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+    }
+}
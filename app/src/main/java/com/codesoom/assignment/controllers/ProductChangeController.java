@@ -0,0 +1,113 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductChangeFeed;
+import com.codesoom.assignment.dto.ProductChanges;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lets consumers follow product changes from the last sequence number
+ * they saw, by long polling or over Server-Sent Events.
+ */
+@RestController
+@RequestMapping("/products/changes")
+public class ProductChangeController {
+    static final int MAX_LIMIT = 1000;
+
+    static final long MAX_TIMEOUT_MILLIS = 60_000;
+
+    private static final long SSE_TIMEOUT_MILLIS = 30 * 60_000;
+
+    private final ProductChangeFeed changeFeed;
+
+    private final long maxLag;
+
+    private final Duration sendTimeout;
+
+    private final ExecutorService sender = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "product-changes");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    public ProductChangeController(
+            ProductChangeFeed changeFeed,
+            @Value("${products.changes.max-lag:1000}") long maxLag,
+            @Value("${products.changes.send-timeout:10s}")
+                    Duration sendTimeout
+    ) {
+        this.changeFeed = changeFeed;
+        this.maxLag = maxLag;
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * Answers at once when there are changes after {@code since}, and
+     * otherwise holds the request until one arrives or {@code timeout}
+     * milliseconds pass.
+     */
+    @GetMapping
+    public DeferredResult<ProductChanges> poll(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "30000") long timeout
+    ) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        DeferredResult<ProductChanges> result = new DeferredResult<>(
+                Math.min(Math.max(timeout, 0), MAX_TIMEOUT_MILLIS),
+                () -> changeFeed.read(since, pageSize));
+
+        // Subscribe before reading, so a change in between is not missed.
+        // The reply is read off the writer's thread.
+        Runnable unsubscribe = changeFeed.subscribe(() -> sender.execute(() ->
+                result.setResult(changeFeed.read(since, pageSize))));
+        result.onCompletion(unsubscribe);
+
+        ProductChanges changes = changeFeed.read(since, pageSize);
+        if (!changes.getChanges().isEmpty() || changes.isReset()) {
+            result.setResult(changes);
+        }
+
+        return result;
+    }
+
+    /**
+     * Streams every change after {@code since}, or after the
+     * {@code Last-Event-ID} a reconnecting client sends, as an event
+     * named after the change type with the sequence number as its id.
+     * A client that falls more than {@code products.changes.max-lag}
+     * changes behind gets a {@code RESET} event and resumes at the head.
+     */
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false)
+                    Long lastEventId
+    ) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MILLIS);
+        new ProductChangeSubscription(changeFeed, emitter, sender,
+                lastEventId != null ? lastEventId : since,
+                maxLag, sendTimeout).start();
+
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
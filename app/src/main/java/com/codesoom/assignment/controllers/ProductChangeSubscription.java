@@ -0,0 +1,144 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductChangeFeed;
+import com.codesoom.assignment.dto.ProductChange;
+import com.codesoom.assignment.dto.ProductChanges;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends one Server-Sent Events client the changes it has not seen yet,
+ * off the writer's thread.
+ *
+ * <p>A client takes at most one sender thread at a time: changes that
+ * arrive while it is being sent to only bump a counter, and the running
+ * send picks them up from the feed at the client's cursor, so nothing
+ * piles up per client. A client more than {@code maxLag} changes behind
+ * gets a {@code RESET} event and resumes at the head. A client whose send
+ * has been blocked for longer than {@code sendTimeout} when the next
+ * change arrives is unsubscribed and completed as soon as the send
+ * returns.
+ */
+class ProductChangeSubscription {
+    private final ProductChangeFeed changeFeed;
+
+    private final SseEmitter emitter;
+
+    private final Executor sender;
+
+    private final long maxLag;
+
+    private final long sendTimeoutNanos;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile Runnable unsubscribe = () -> {
+    };
+
+    private volatile boolean sending;
+
+    private volatile long sendStartedAt;
+
+    private volatile boolean dropped;
+
+    private boolean closed;
+
+    private long cursor;
+
+    ProductChangeSubscription(ProductChangeFeed changeFeed,
+                              SseEmitter emitter, Executor sender,
+                              long since, long maxLag,
+                              Duration sendTimeout) {
+        this.changeFeed = changeFeed;
+        this.emitter = emitter;
+        this.sender = sender;
+        this.cursor = since;
+        this.maxLag = maxLag;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+    }
+
+    void start() {
+        unsubscribe = changeFeed.subscribe(this::schedule);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        schedule();
+    }
+
+    private void schedule() {
+        if (sending && System.nanoTime() - sendStartedAt > sendTimeoutNanos) {
+            dropped = true;
+            unsubscribe.run();
+        }
+
+        if (pending.getAndIncrement() == 0) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            sendPending();
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void sendPending() {
+        if (closed) {
+            return;
+        }
+
+        if (dropped) {
+            closed = true;
+            emitter.complete();
+            return;
+        }
+
+        try {
+            ProductChanges changes;
+            do {
+                long head = changeFeed.lastSeq();
+                if (cursor != 0 && head - cursor > maxLag) {
+                    send(SseEmitter.event().name("RESET").data(head));
+                    cursor = head;
+                }
+
+                changes = changeFeed.read(cursor,
+                        ProductChangeController.MAX_LIMIT);
+                if (changes.isReset()) {
+                    send(SseEmitter.event().name("RESET")
+                            .data(changes.getNext()));
+                }
+                for (ProductChange change : changes.getChanges()) {
+                    send(SseEmitter.event()
+                            .id(Long.toString(change.getSeq()))
+                            .name(change.getType())
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+                cursor = changes.getNext();
+            } while (changes.getChanges().size()
+                    == ProductChangeController.MAX_LIMIT);
+        } catch (IOException | IllegalStateException e) {
+            closed = true;
+            unsubscribe.run();
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) throws IOException {
+        sendStartedAt = System.nanoTime();
+        sending = true;
+        try {
+            emitter.send(event);
+        } finally {
+            sending = false;
+        }
+    }
+}
@@ -1,31 +1,169 @@
 package com.codesoom.assignment.controllers;
 
+import com.codesoom.assignment.application.CatalogVersion;
+import com.codesoom.assignment.application.ProductListSnapshots;
 import com.codesoom.assignment.application.ProductService;
+import com.codesoom.assignment.application.ProductWriteBehind;
 import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductView;
 import com.codesoom.assignment.dto.ProductData;
+import com.codesoom.assignment.dto.ProductLookup;
+import com.codesoom.assignment.dto.ProductLookupResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    static final MediaType APPLICATION_JSON_UTF8 =
+            MediaType.parseMediaType("application/json;charset=UTF-8");
+
+    static final int DEFAULT_LIMIT = 100;
+
+    static final int MAX_LIMIT = 1000;
+
+    /**
+     * The page size of a list request with neither {@code after} nor
+     * {@code limit} when {@code products.list.unpaged} is set, which gets
+     * the whole catalog as before paging.
+     */
+    static final int UNPAGED = Integer.MAX_VALUE;
+
+    static final int MAX_LOOKUP_SIZE = 10000;
+
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final ProductService productService;
 
-    public ProductController(ProductService productService) {
+    private final CatalogVersion catalogVersion;
+
+    private final ObjectMapper objectMapper;
+
+    private final ProductListSnapshots listSnapshots;
+
+    private final Optional<ProductWriteBehind> writeBehind;
+
+    private final boolean unpaged;
+
+    public ProductController(ProductService productService,
+                             CatalogVersion catalogVersion,
+                             ProductListSnapshots listSnapshots,
+                             ObjectMapper objectMapper,
+                             Optional<ProductWriteBehind> writeBehind,
+                             @Value("${products.list.unpaged:false}")
+                                     boolean unpaged) {
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.listSnapshots = listSnapshots;
+        this.objectMapper = objectMapper;
+        this.writeBehind = writeBehind;
+        this.unpaged = unpaged;
     }
 
     @GetMapping
-    public List<Product> list() {
-        return productService.getProducts();
+    public ResponseEntity<?> list(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+                    required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        String version = catalogVersion.current();
+        boolean gzip = fields == null && acceptsGzip(acceptEncoding);
+        String etag = etagOf(version, gzip);
+        if (webRequest.checkNotModified(
+                cachedEtagOf(webRequest, version, gzip))) {
+            return null;
+        }
+
+        int pageSize = pageSizeOf(after, limit);
+
+        if (fields == null) {
+            return snapshot(etag, pageSize, gzip,
+                    listSnapshots.get(version, after, pageSize));
+        }
+
+        checkFields(fields);
+
+        return page(etag, pageSize, "&fields=" + String.join(",", fields),
+                productService.getProductViews(after, pageSize, fields),
+                ProductView::getId);
+    }
+
+    @GetMapping(params = "ids")
+    public ProductLookupResult lookup(@RequestParam List<Long> ids) {
+        return lookupProducts(ids);
+    }
+
+    /**
+     * The same as {@code GET /products?ids=...}, for id lists too long to
+     * fit in a URL.
+     */
+    @PostMapping("lookup")
+    public ProductLookupResult lookup(
+            @RequestBody @Valid ProductLookup productLookup
+    ) {
+        return lookupProducts(productLookup.getIds());
+    }
+
+    @GetMapping(value = "stream", produces = APPLICATION_NDJSON_VALUE)
+    public void stream(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            productService.forEachProduct(STREAM_CHUNK_SIZE, product -> {
+                try {
+                    writer.write(product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     @GetMapping("{id}")
-    public Product detail(@PathVariable Long id) {
-        return productService.getProduct(id);
+    public ResponseEntity<Product> detail(@PathVariable Long id,
+                                          WebRequest webRequest) {
+        Optional<Product> buffered =
+                writeBehind.flatMap(buffer -> buffer.findPending(id));
+        if (buffered.isPresent()) {
+            return ResponseEntity.ok().body(buffered.get());
+        }
+
+        Product product = productService.getProduct(id);
+
+        String etag = etagOf(product);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok().eTag(etag).body(product);
     }
 
     @PostMapping
@@ -35,16 +173,167 @@ public class ProductController {
     }
 
     @PatchMapping("{id}")
-    public Product update(
+    public ResponseEntity<Product> update(
             @PathVariable Long id,
-            @RequestBody @Valid ProductData productData
+            @RequestBody @Valid ProductData productData,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                    String ifMatch
     ) {
-        return productService.updateProduct(id, productData);
+        if (ifMatch == null && writeBehind.isPresent()) {
+            return ResponseEntity.ok().body(
+                    writeBehind.get().updateProduct(id, productData));
+        }
+
+        // A conditional update must see, and then win over, any update
+        // still waiting in the write-behind buffer.
+        writeBehind.ifPresent(ProductWriteBehind::flush);
+
+        Product product = ifMatch == null
+                ? productService.updateProduct(id, productData)
+                : productService.updateProduct(id, productData,
+                        versionOf(ifMatch));
+
+        return ResponseEntity.ok().eTag(etagOf(product)).body(product);
     }
 
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void destroy(@PathVariable Long id) {
+        writeBehind.ifPresent(buffer -> buffer.discard(id));
         productService.deleteProduct(id);
     }
+
+    private ProductLookupResult lookupProducts(List<Long> ids) {
+        if (ids.size() > MAX_LOOKUP_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "ids must not exceed " + MAX_LOOKUP_SIZE);
+        }
+
+        ProductLookupResult result = productService.getProducts(ids);
+        if (writeBehind.isEmpty()) {
+            return result;
+        }
+
+        List<Product> products = result.getProducts().stream()
+                .map(product -> writeBehind.get()
+                        .findPending(product.getId()).orElse(product))
+                .collect(Collectors.toList());
+        return new ProductLookupResult(products, result.getMissing());
+    }
+
+    /**
+     * Sends the pre-serialized page as is, gzipped when the client takes
+     * it.
+     */
+    private static ResponseEntity<byte[]> snapshot(
+            String etag, int pageSize, boolean gzip,
+            ProductListSnapshots.Snapshot snapshot) {
+        byte[] body = gzip ? snapshot.getGzip() : snapshot.getJson();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(APPLICATION_JSON_UTF8)
+                .contentLength(body.length)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        if (snapshot.isProvisional()) {
+            response.cacheControl(CacheControl.noStore());
+        }
+        if (snapshot.getNext() != null) {
+            response.header(HttpHeaders.LINK, String.format(
+                    "</products?after=%d&limit=%d>; rel=\"next\"",
+                    snapshot.getNext(), pageSize));
+        }
+        return response.body(body);
+    }
+
+    /**
+     * The gzip body gets a tag of its own, as a strong validator must
+     * differ between content codings.
+     */
+    private static String etagOf(String version, boolean gzip) {
+        return "\"" + version + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    /**
+     * The tag the client holds for this version, in either coding, so a
+     * client that switched codings is still told nothing changed.
+     */
+    private static String cachedEtagOf(WebRequest webRequest, String version,
+                                       boolean gzip) {
+        String other = etagOf(version, !gzip);
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(other)) {
+            return other;
+        }
+        return etagOf(version, gzip);
+    }
+
+    private int pageSizeOf(Long after, Integer limit) {
+        if (limit == null) {
+            return unpaged && after == null ? UNPAGED : DEFAULT_LIMIT;
+        }
+        return Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1
+                        || !parts[1].replace(" ", "").equals("q=0");
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<List<?>> page(String etag, int pageSize,
+                                                   String query,
+                                                   List<T> items,
+                                                   Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (items.size() == pageSize) {
+            Long next = idOf.apply(items.get(items.size() - 1));
+            response.header(HttpHeaders.LINK, String.format(
+                    "</products?after=%d&limit=%d%s>; rel=\"next\"",
+                    next, pageSize, query));
+        }
+        return response.<List<?>>body(items);
+    }
+
+    private static void checkFields(Set<String> fields) {
+        if (!ProductView.FIELDS.containsAll(fields)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "fields must be among " + ProductView.FIELDS);
+        }
+    }
+
+    private static String etagOf(Product product) {
+        Long version = product.getVersion();
+        return "\"" + product.getId() + "-" + (version == null ? 0 : version)
+                + "\"";
+    }
+
+    /**
+     * Reads the version out of an {@code If-Match} tag made by
+     * {@link #etagOf(Product)}. {@code *} matches any version, and a tag
+     * that cannot be ours yields a version no product has, so the update
+     * fails its precondition.
+     */
+    private static Long versionOf(String ifMatch) {
+        String tag = ifMatch.trim().replace("\"", "");
+        if (tag.equals("*")) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(tag.lastIndexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
 }
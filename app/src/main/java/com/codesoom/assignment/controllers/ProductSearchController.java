@@ -0,0 +1,29 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductSearchIndex;
+import com.codesoom.assignment.dto.ProductSearchQuery;
+import com.codesoom.assignment.dto.ProductSearchResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/products/search")
+public class ProductSearchController {
+    private final ProductSearchIndex productSearchIndex;
+
+    public ProductSearchController(ProductSearchIndex productSearchIndex) {
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    @GetMapping
+    public ProductSearchResult search(ProductSearchQuery query) {
+        if (!query.hasFilter()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "q or maker is required");
+        }
+        return productSearchIndex.search(query);
+    }
+}
@@ -0,0 +1,44 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductPriceIndex;
+import com.codesoom.assignment.dto.PricePoint;
+import com.codesoom.assignment.dto.PriceStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/products/stats")
+public class ProductStatsController {
+    static final int MAX_LIMIT = 100;
+
+    private final ProductPriceIndex productPriceIndex;
+
+    public ProductStatsController(ProductPriceIndex productPriceIndex) {
+        this.productPriceIndex = productPriceIndex;
+    }
+
+    @GetMapping
+    public PriceStats stats(
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(required = false) String maker
+    ) {
+        return productPriceIndex.stats(minPrice, maxPrice, maker);
+    }
+
+    @GetMapping("cheapest")
+    public Map<String, List<PricePoint>> cheapest(
+            @RequestParam(required = false) String maker,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice
+    ) {
+        return productPriceIndex.cheapest(maker,
+                Math.min(Math.max(limit, 1), MAX_LIMIT), minPrice, maxPrice);
+    }
+}
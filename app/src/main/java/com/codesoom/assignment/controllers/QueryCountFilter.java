@@ -0,0 +1,93 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.infra.QueryCount;
+import com.codesoom.assignment.infra.QueryGuard;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Counts the SQL statements each request runs, records them as
+ * {@code product.sql.statements}, and warns when a request runs more
+ * than {@code maxStatements}. With {@code failOnExcess} the statement
+ * past the limit throws instead, so the request fails before its response
+ * is sent. That is how tests catch a change that turns one query per
+ * request into one query per product.
+ *
+ * <p>Bulk requests, to one of the {@code bulkPaths} or for a list of
+ * {@code ids}, run a statement per chunk by design. They are counted but
+ * never held to the limit.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+    private static final Logger log =
+            LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final QueryGuard queryGuard;
+
+    private final int maxStatements;
+
+    private final boolean failOnExcess;
+
+    private final Set<String> bulkPaths;
+
+    private final DistributionSummary statements;
+
+    public QueryCountFilter(QueryGuard queryGuard,
+                            int maxStatements,
+                            boolean failOnExcess,
+                            Set<String> bulkPaths,
+                            MeterRegistry meterRegistry) {
+        this.queryGuard = queryGuard;
+        this.maxStatements = maxStatements;
+        this.failOnExcess = failOnExcess;
+        this.bulkPaths = bulkPaths;
+        this.statements = DistributionSummary
+                .builder("product.sql.statements")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean bulk = isBulk(request);
+        String name = request.getMethod() + " " + request.getRequestURI();
+
+        QueryCount count = failOnExcess && !bulk
+                ? queryGuard.start(name, maxStatements)
+                : queryGuard.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryGuard.stop(count);
+        }
+
+        statements.record(count.getStatements());
+
+        if (bulk || count.getStatements() <= maxStatements) {
+            return;
+        }
+
+        log.warn("{} ran {} SQL statements, more than {}",
+                name, count.getStatements(), maxStatements);
+    }
+
+    private boolean isBulk(HttpServletRequest request) {
+        String path = request.getRequestURI()
+                .substring(request.getContextPath().length());
+        return bulkPaths.contains(path)
+                || (HttpMethod.GET.matches(request.getMethod())
+                && request.getParameter("ids") != null);
+    }
+}
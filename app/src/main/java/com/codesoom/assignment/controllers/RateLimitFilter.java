@@ -0,0 +1,154 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.dto.ErrorResponse;
+import com.codesoom.assignment.infra.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Gives every client, identified by its API key header or else its
+ * address, separate token buckets for reads and writes, and answers
+ * {@code 429 Too Many Requests} with {@code Retry-After} once a bucket
+ * is empty.
+ *
+ * <p>Only keys listed in {@code apiKeys} get buckets of their own. Any
+ * other key is ignored and the client is keyed by its address, so made-up
+ * keys cannot buy fresh bursts.
+ *
+ * <p>Requests matching {@code exempt}, such as the server's own warm-up,
+ * pass without spending any bucket.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    /**
+     * Posted rather than sent as a query only because the ids do not fit
+     * in a URL, so it spends the read budget.
+     */
+    private static final String LOOKUP_PATH = "/products/lookup";
+
+    private final TokenBucketRateLimiter reads;
+
+    private final TokenBucketRateLimiter writes;
+
+    private final String keyHeader;
+
+    private final Set<String> apiKeys;
+
+    private final ObjectMapper objectMapper;
+
+    private final Predicate<HttpServletRequest> exempt;
+
+    private final Counter readsAdmitted;
+
+    private final Counter readsRejected;
+
+    private final Counter writesAdmitted;
+
+    private final Counter writesRejected;
+
+    public RateLimitFilter(TokenBucketRateLimiter reads,
+                           TokenBucketRateLimiter writes,
+                           String keyHeader,
+                           Set<String> apiKeys,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this(reads, writes, keyHeader, apiKeys, objectMapper, meterRegistry,
+                request -> false);
+    }
+
+    public RateLimitFilter(TokenBucketRateLimiter reads,
+                           TokenBucketRateLimiter writes,
+                           String keyHeader,
+                           Set<String> apiKeys,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           Predicate<HttpServletRequest> exempt) {
+        this.reads = reads;
+        this.writes = writes;
+        this.keyHeader = keyHeader;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.objectMapper = objectMapper;
+        this.exempt = exempt;
+        this.readsAdmitted = counter(meterRegistry, "read", "admitted");
+        this.readsRejected = counter(meterRegistry, "read", "rejected");
+        this.writesAdmitted = counter(meterRegistry, "write", "admitted");
+        this.writesRejected = counter(meterRegistry, "write", "rejected");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return exempt.test(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = isRead(request);
+
+        Duration wait = (read ? reads : writes).tryAcquire(clientOf(request));
+        if (!wait.isZero()) {
+            (read ? readsRejected : writesRejected).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait,
+                    "Too many requests", objectMapper);
+            return;
+        }
+
+        (read ? readsAdmitted : writesAdmitted).increment();
+        filterChain.doFilter(request, response);
+    }
+
+    static void reject(HttpServletResponse response, HttpStatus status,
+                       Duration retryAfter, String message,
+                       ObjectMapper objectMapper) throws IOException {
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(message));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String key = request.getHeader(keyHeader);
+        return key != null && apiKeys.contains(key)
+                ? "key:" + key
+                : "ip:" + request.getRemoteAddr();
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.POST.matches(method)) {
+            return request.getRequestURI()
+                    .substring(request.getContextPath().length())
+                    .equals(LOOKUP_PATH);
+        }
+        return HttpMethod.GET.matches(method)
+                || HttpMethod.HEAD.matches(method);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry,
+                                   String budget, String result) {
+        return Counter.builder("product.admission")
+                .tag("limiter", "rate")
+                .tag("budget", budget)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
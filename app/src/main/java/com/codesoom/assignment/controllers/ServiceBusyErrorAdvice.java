@@ -0,0 +1,22 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.ServiceBusyException;
+import com.codesoom.assignment.dto.ErrorResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+@ControllerAdvice
+public class ServiceBusyErrorAdvice {
+    private static final ErrorResponse SERVICE_BUSY =
+            new ErrorResponse("Service busy");
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(SERVICE_BUSY);
+    }
+}
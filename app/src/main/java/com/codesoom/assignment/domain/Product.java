@@ -4,19 +4,32 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @Getter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,
+            generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String name;
@@ -27,6 +40,9 @@ public class Product {
 
     private String imageUrl;
 
+    @Version
+    private Long version;
+
     public void change(String name,
                        String maker,
                        Integer price,
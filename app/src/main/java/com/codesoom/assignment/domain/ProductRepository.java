@@ -1,13 +1,27 @@
 package com.codesoom.assignment.domain;
 
+import org.springframework.data.domain.Pageable;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ProductRepository {
     List<Product> findAll();
 
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Reads the next page after the given id, selecting only the given
+     * columns. The id is always selected.
+     */
+    List<ProductView> findViewsByIdGreaterThan(Long id, Set<String> fields,
+                                               int limit);
+
     Optional<Product> findById(Long id);
 
+    List<Product> findAllById(Iterable<Long> ids);
+
     Product save(Product product);
 
     void delete(Product product);
@@ -0,0 +1,34 @@
+package com.codesoom.assignment.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Read-only slice of a product holding only the requested fields. It is
+ * not an entity, so reading it costs neither hydration nor dirty checking,
+ * and fields that were not requested are left out of the JSON.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductView {
+    public static final List<String> FIELDS =
+            List.of("id", "name", "maker", "price", "imageUrl");
+
+    private Long id;
+
+    private String name;
+
+    private String maker;
+
+    private Integer price;
+
+    private String imageUrl;
+}
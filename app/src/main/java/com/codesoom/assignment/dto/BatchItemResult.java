@@ -0,0 +1,23 @@
+package com.codesoom.assignment.dto;
+
+import com.codesoom.assignment.domain.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private int index;
+
+    private Long id;
+
+    private int status;
+
+    private String message;
+
+    private Product product;
+}
@@ -1,7 +1,7 @@
 package com.codesoom.assignment.dto;
 
 public class ErrorResponse {
-    private String message;
+    private final String message;
 
     public ErrorResponse(String message) {
         this.message = message;
@@ -0,0 +1,18 @@
+package com.codesoom.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceStats {
+    private long count;
+
+    private Integer min;
+
+    private Integer max;
+
+    private Double average;
+}
@@ -0,0 +1,21 @@
+package com.codesoom.assignment.dto;
+
+import com.codesoom.assignment.domain.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+    private long seq;
+
+    private String type;
+
+    private Long id;
+
+    private Product product;
+}
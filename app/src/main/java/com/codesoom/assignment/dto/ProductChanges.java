@@ -0,0 +1,25 @@
+package com.codesoom.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChanges {
+    private List<ProductChange> changes;
+
+    /**
+     * The {@code since} to ask with next time.
+     */
+    private long next;
+
+    /**
+     * Set when changes after the requested sequence are no longer kept,
+     * or the server has restarted; the consumer must re-read the catalog.
+     */
+    private boolean reset;
+}
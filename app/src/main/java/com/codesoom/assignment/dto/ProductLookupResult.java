@@ -0,0 +1,17 @@
+package com.codesoom.assignment.dto;
+
+import com.codesoom.assignment.domain.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupResult {
+    private List<Product> products;
+
+    private List<Long> missing;
+}
@@ -0,0 +1,28 @@
+package com.codesoom.assignment.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class ProductSearchQuery {
+    private String q;
+
+    private String maker;
+
+    private Integer minPrice;
+
+    private Integer maxPrice;
+
+    private String sort = "id";
+
+    private int limit = 20;
+
+    /**
+     * Whether the query has text or a maker to search from. Price bounds
+     * alone are not enough.
+     */
+    public boolean hasFilter() {
+        return (q != null && !q.isBlank()) || maker != null;
+    }
+}
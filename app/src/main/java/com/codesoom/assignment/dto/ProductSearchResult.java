@@ -0,0 +1,20 @@
+package com.codesoom.assignment.dto;
+
+import com.codesoom.assignment.domain.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResult {
+    private int total;
+
+    private List<Product> products;
+
+    private Map<String, Long> makers;
+}
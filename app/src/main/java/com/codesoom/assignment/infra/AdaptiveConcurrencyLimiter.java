@@ -0,0 +1,88 @@
+package com.codesoom.assignment.infra;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the server's latency, after the gradient
+ * limiters of Netflix' concurrency-limits.
+ *
+ * <p>The lowest latency seen recently stands for the server without a
+ * queue. While sampled latencies stay close to it the limit grows; once
+ * they climb, requests are queueing and the limit shrinks in proportion,
+ * so excess requests are turned away before latency collapses. By
+ * Little's law the limit settles near throughput times no-load latency.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double TOLERANCE = 2.0;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private long minRttNanos = Long.MAX_VALUE;
+
+    private int samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit,
+                                      int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight. An admitted
+     * request must be finished with {@link #release(long)}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        update(rttNanos);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos) {
+        samples += 1;
+        if (samples >= MIN_RTT_RESET_SAMPLES) {
+            // Forget the old floor now and then, so the limiter follows a
+            // server that has become slower for good.
+            samples = 0;
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min(minRttNanos, Math.max(rttNanos, 1));
+
+        double gradient = Math.max(0.5, Math.min(1.0,
+                TOLERANCE * minRttNanos / Math.max(rttNanos, 1)));
+        double queue = Math.sqrt(limit);
+        double target = limit * gradient + queue;
+
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -2,19 +2,26 @@ package com.codesoom.assignment.infra;
 
 import com.codesoom.assignment.domain.Product;
 import com.codesoom.assignment.domain.ProductRepository;
-import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
-@Primary
 public interface JpaProductRepository
-        extends ProductRepository, CrudRepository<Product, Long> {
+        extends ProductRepository, ProductViewRepository,
+        CrudRepository<Product, Long> {
     List<Product> findAll();
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
     Optional<Product> findById(Long id);
 
+    List<Product> findAllById(Iterable<Long> ids);
+
     Product save(Product product);
 
     void delete(Product product);
@@ -0,0 +1,193 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.domain.ProductView;
+import com.google.common.util.concurrent.Striped;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the whole catalog in memory for read-heavy nodes.
+ *
+ * <p>Products are immutable records in a concurrent skip list keyed by
+ * id, so reads take no lock and pages are a walk from the cursor. Writes
+ * to the same id are serialized by a striped lock, appended to a
+ * {@link ProductLog} and only then made visible. Saving a product whose
+ * version is no longer current fails like an optimistic lock in JPA.
+ *
+ * <p>Once the log grows past {@code snapshotThreshold} bytes, writes are
+ * held back while the catalog is written to a new snapshot and the log is
+ * emptied. There are no transactions: a write is applied as soon as the
+ * method returns.
+ */
+public class MemoryProductRepository implements ProductRepository, Closeable {
+    private static final int STRIPES = 64;
+
+    private final ConcurrentSkipListMap<Long, ProductRecord> records =
+            new ConcurrentSkipListMap<>();
+
+    private final Striped<Lock> locks = Striped.lock(STRIPES);
+
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ProductLog log;
+
+    private final long snapshotThreshold;
+
+    public MemoryProductRepository(ProductLog log, long snapshotThreshold)
+            throws IOException {
+        this.log = log;
+        this.snapshotThreshold = snapshotThreshold;
+
+        sequence.set(log.recover(
+                record -> records.put(record.getId(), record),
+                records::remove));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return records.values().stream()
+                .map(ProductRecord::toProduct)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Product> findByIdGreaterThanOrderByIdAsc(Long id,
+                                                         Pageable pageable) {
+        return records.tailMap(id, false).values().stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(ProductRecord::toProduct)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ProductView> findViewsByIdGreaterThan(Long id,
+                                                      Set<String> fields,
+                                                      int limit) {
+        return records.tailMap(id, false).values().stream()
+                .limit(limit)
+                .map(record -> record.toView(fields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        ProductRecord record = records.get(id);
+        return record == null ? Optional.empty()
+                : Optional.of(record.toProduct());
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<Long> ids) {
+        List<Product> found = new ArrayList<>();
+        for (Long id : ids) {
+            ProductRecord record = records.get(id);
+            if (record != null) {
+                found.add(record.toProduct());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Product save(Product product) {
+        long id = product.getId() != null
+                ? product.getId()
+                : sequence.incrementAndGet();
+
+        ProductRecord saved = write(id, () -> {
+            ProductRecord existing = records.get(id);
+            if (existing != null && product.getVersion() != null
+                    && existing.getVersion() != product.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(
+                        Product.class, id);
+            }
+
+            ProductRecord record = ProductRecord.of(id, product,
+                    existing == null ? 0 : existing.getVersion() + 1);
+            log.appendPut(record);
+            records.put(id, record);
+            sequence.accumulateAndGet(id, Math::max);
+            return record;
+        });
+
+        return saved.toProduct();
+    }
+
+    @Override
+    public void delete(Product product) {
+        long id = Objects.requireNonNull(product.getId());
+
+        write(id, () -> {
+            if (records.containsKey(id)) {
+                log.appendDelete(id);
+                records.remove(id);
+            }
+            return null;
+        });
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    private <T> T write(long id, Supplier<T> write) {
+        Lock lock = locks.get(id);
+        snapshotLock.readLock().lock();
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+            snapshotLock.readLock().unlock();
+            snapshotIfNeeded();
+        }
+    }
+
+    private void snapshotIfNeeded() {
+        if (log.size() >= snapshotThreshold) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Writes a snapshot unless another writer has just done so.
+     */
+    void snapshot() {
+        snapshotLock.writeLock().lock();
+        try {
+            if (log.size() >= snapshotThreshold) {
+                log.snapshot(records.values(), sequence.get());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ErrorResponse;
+import com.codesoom.assignment.dto.ProductData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Serializers for the types on every product response. Each one writes
+ * its fields directly, where Jackson's bean serializer would look up
+ * each property by reflection. Field names are encoded once, up front,
+ * and written as pre-quoted bytes into the generator's recycled buffer.
+ *
+ * <p>The output is the same as the bean serializer's, field order and
+ * nulls included, so a plain {@code ObjectMapper} reads and writes the
+ * same JSON.
+ */
+@JsonComponent
+public class ProductJsonComponent {
+    private static final SerializableString ID = new SerializedString("id");
+
+    private static final SerializableString NAME =
+            new SerializedString("name");
+
+    private static final SerializableString MAKER =
+            new SerializedString("maker");
+
+    private static final SerializableString PRICE =
+            new SerializedString("price");
+
+    private static final SerializableString IMAGE_URL =
+            new SerializedString("imageUrl");
+
+    private static final SerializableString VERSION =
+            new SerializedString("version");
+
+    private static final SerializableString MESSAGE =
+            new SerializedString("message");
+
+    public static class ProductSerializer extends JsonSerializer<Product> {
+        @Override
+        public void serialize(Product product, JsonGenerator generator,
+                              SerializerProvider provider) throws IOException {
+            generator.writeStartObject(product);
+            writeNumber(generator, ID, product.getId());
+            writeString(generator, NAME, product.getName());
+            writeString(generator, MAKER, product.getMaker());
+            writeNumber(generator, PRICE, product.getPrice());
+            writeString(generator, IMAGE_URL, product.getImageUrl());
+            writeNumber(generator, VERSION, product.getVersion());
+            generator.writeEndObject();
+        }
+    }
+
+    public static class ProductDataSerializer
+            extends JsonSerializer<ProductData> {
+        @Override
+        public void serialize(ProductData productData, JsonGenerator generator,
+                              SerializerProvider provider) throws IOException {
+            generator.writeStartObject(productData);
+            writeNumber(generator, ID, productData.getId());
+            writeString(generator, NAME, productData.getName());
+            writeString(generator, MAKER, productData.getMaker());
+            writeNumber(generator, PRICE, productData.getPrice());
+            writeString(generator, IMAGE_URL, productData.getImageUrl());
+            generator.writeEndObject();
+        }
+    }
+
+    public static class ErrorResponseSerializer
+            extends JsonSerializer<ErrorResponse> {
+        @Override
+        public void serialize(ErrorResponse errorResponse,
+                              JsonGenerator generator,
+                              SerializerProvider provider) throws IOException {
+            generator.writeStartObject(errorResponse);
+            writeString(generator, MESSAGE, errorResponse.getMessage());
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeString(JsonGenerator generator,
+                                    SerializableString name,
+                                    String value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeString(value);
+    }
+
+    private static void writeNumber(JsonGenerator generator,
+                                    SerializableString name,
+                                    Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeNumber(value);
+    }
+
+    private static void writeNumber(JsonGenerator generator,
+                                    SerializableString name,
+                                    Integer value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeNumber(value);
+    }
+}
@@ -0,0 +1,315 @@
+package com.codesoom.assignment.infra;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable storage of {@link MemoryProductRepository}: a snapshot of the
+ * whole catalog plus an append-only log of the writes made since.
+ *
+ * <p>Log records are appended to a memory-mapped region of the file that
+ * grows by {@code regionSize} bytes at a time, so an append is a memory
+ * copy. Every record is framed by its length and a CRC32, and recovery
+ * stops at the first record that does not check out, which drops a write
+ * torn by a crash. Unless {@code syncWrites} is set, appends survive a
+ * crash of the process but not of the machine. A record whose payload
+ * exceeds {@link #MAX_PAYLOAD_SIZE} is refused with an
+ * {@link IllegalArgumentException} before anything is written.
+ */
+public class ProductLog implements Closeable {
+    static final String SNAPSHOT_FILE = "products.snapshot";
+
+    static final String LOG_FILE = "products.log";
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * Larger records are refused on append, as replay takes a length past
+     * this for a corrupt header.
+     */
+    static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+    private final Path snapshotPath;
+
+    private final Path logPath;
+
+    private final int regionSize;
+
+    private final boolean syncWrites;
+
+    private final FileChannel channel;
+
+    private MappedByteBuffer region;
+
+    private long regionStart;
+
+    public ProductLog(Path directory, int regionSize, boolean syncWrites)
+            throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.logPath = directory.resolve(LOG_FILE);
+        this.regionSize = regionSize;
+        this.syncWrites = syncWrites;
+        this.channel = FileChannel.open(logPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Replays the snapshot and then the log, and positions the log after
+     * its last valid record. Returns the highest id ever written, deleted
+     * ones included.
+     */
+    public synchronized long recover(Consumer<ProductRecord> put,
+                                     LongConsumer delete) throws IOException {
+        long sequence = 0;
+
+        if (Files.exists(snapshotPath)) {
+            try (DataInputStream input = open(snapshotPath)) {
+                long snapshotSequence = input.readLong();
+                sequence = Math.max(snapshotSequence,
+                        new Replay().run(input, put, delete));
+            }
+        }
+
+        long end;
+        try (DataInputStream input = open(logPath)) {
+            Replay replay = new Replay();
+            sequence = Math.max(sequence, replay.run(input, put, delete));
+            end = replay.end;
+        }
+
+        map(end);
+        return sequence;
+    }
+
+    public synchronized void appendPut(ProductRecord record) {
+        append(encode(PUT, record.getId(), record));
+    }
+
+    public synchronized void appendDelete(long id) {
+        append(encode(DELETE, id, null));
+    }
+
+    /**
+     * Bytes appended since the last snapshot.
+     */
+    public synchronized long size() {
+        return regionStart + region.position();
+    }
+
+    /**
+     * Replaces the snapshot with the given records and empties the log.
+     * The caller must keep writers out until this returns.
+     */
+    public synchronized void snapshot(Collection<ProductRecord> records,
+                                      long sequence) throws IOException {
+        Path temporary = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+
+        try (FileChannel snapshot = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(
+                            Channels.newOutputStream(snapshot)));
+            output.writeLong(sequence);
+            for (ProductRecord record : records) {
+                output.write(encode(PUT, record.getId(), record));
+            }
+            output.flush();
+            snapshot.force(true);
+        }
+
+        Files.move(temporary, snapshotPath,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        channel.truncate(0);
+        map(0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        region.force();
+        channel.close();
+    }
+
+    private void append(byte[] frame) {
+        try {
+            if (region.remaining() < frame.length) {
+                map(regionStart + region.position(), frame.length);
+            }
+            region.put(frame);
+            if (syncWrites) {
+                region.force();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void map(long position) throws IOException {
+        map(position, 0);
+    }
+
+    private void map(long position, int minimumSize) throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        regionStart = position;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                Math.max(regionSize, minimumSize));
+    }
+
+    private static DataInputStream open(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(path)));
+    }
+
+    /**
+     * Frames a record as its payload length, the CRC32 of the payload and
+     * the payload itself.
+     */
+    private static byte[] encode(byte type, long id, ProductRecord record) {
+        byte[] name = null;
+        byte[] maker = null;
+        byte[] imageUrl = null;
+        int size = 1 + Long.BYTES;
+        if (record != null) {
+            name = bytesOf(record.getName());
+            maker = bytesOf(record.getMaker());
+            imageUrl = bytesOf(record.getImageUrl());
+            size += Long.BYTES + 1 + Integer.BYTES
+                    + sizeOf(name) + sizeOf(maker) + sizeOf(imageUrl);
+        }
+        if (size > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Product record of %d bytes exceeds %d bytes",
+                    size, MAX_PAYLOAD_SIZE));
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + size);
+        frame.position(HEADER_SIZE);
+        frame.put(type).putLong(id);
+        if (record != null) {
+            frame.putLong(record.getVersion());
+            putBytes(frame, name);
+            putBytes(frame, maker);
+            frame.put((byte) (record.getPrice() == null ? 0 : 1));
+            frame.putInt(record.getPrice() == null ? 0 : record.getPrice());
+            putBytes(frame, imageUrl);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), HEADER_SIZE, size);
+        frame.putInt(0, size).putInt(4, (int) crc.getValue());
+        return frame.array();
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    /**
+     * Writes the length, or -1 for {@code null}, and then the bytes.
+     */
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Replay {
+        private long end;
+
+        long run(DataInputStream input, Consumer<ProductRecord> put,
+                 LongConsumer delete) throws IOException {
+            long sequence = 0;
+            byte[] payload;
+            while ((payload = next(input)) != null) {
+                ByteBuffer record = ByteBuffer.wrap(payload);
+                byte type = record.get();
+                long id = record.getLong();
+                if (type == PUT) {
+                    put.accept(decode(id, record));
+                } else {
+                    delete.accept(id);
+                }
+                sequence = Math.max(sequence, id);
+                end += HEADER_SIZE + payload.length;
+            }
+            return sequence;
+        }
+
+        private static ProductRecord decode(long id, ByteBuffer buffer) {
+            long version = buffer.getLong();
+            String name = getString(buffer);
+            String maker = getString(buffer);
+            boolean hasPrice = buffer.get() != 0;
+            int price = buffer.getInt();
+            String imageUrl = getString(buffer);
+            return new ProductRecord(id, name, maker,
+                    hasPrice ? price : null, imageUrl, version);
+        }
+
+        /**
+         * The next valid payload, or {@code null} at the end of the valid
+         * records.
+         */
+        private static byte[] next(DataInputStream input) throws IOException {
+            try {
+                int length = input.readInt();
+                int crc = input.readInt();
+                if (length <= 0 || length > MAX_PAYLOAD_SIZE) {
+                    return null;
+                }
+                byte[] payload = new byte[length];
+                input.readFully(payload);
+
+                CRC32 actual = new CRC32();
+                actual.update(payload);
+                return (int) actual.getValue() == crc ? payload : null;
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+    }
+}
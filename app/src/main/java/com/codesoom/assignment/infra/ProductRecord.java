@@ -0,0 +1,85 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductView;
+
+import java.util.Set;
+
+/**
+ * Immutable state of one product as kept by
+ * {@link MemoryProductRepository}. Callers only ever see copies, so a
+ * changed {@link Product} has no effect until it is saved.
+ */
+final class ProductRecord {
+    private final long id;
+
+    private final String name;
+
+    private final String maker;
+
+    private final Integer price;
+
+    private final String imageUrl;
+
+    private final long version;
+
+    ProductRecord(long id, String name, String maker, Integer price,
+                  String imageUrl, long version) {
+        this.id = id;
+        this.name = name;
+        this.maker = maker;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.version = version;
+    }
+
+    static ProductRecord of(long id, Product product, long version) {
+        return new ProductRecord(id, product.getName(), product.getMaker(),
+                product.getPrice(), product.getImageUrl(), version);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getMaker() {
+        return maker;
+    }
+
+    Integer getPrice() {
+        return price;
+    }
+
+    String getImageUrl() {
+        return imageUrl;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    Product toProduct() {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .maker(maker)
+                .price(price)
+                .imageUrl(imageUrl)
+                .version(version)
+                .build();
+    }
+
+    ProductView toView(Set<String> fields) {
+        return ProductView.builder()
+                .id(id)
+                .name(fields.contains("name") ? name : null)
+                .maker(fields.contains("maker") ? maker : null)
+                .price(fields.contains("price") ? price : null)
+                .imageUrl(fields.contains("imageUrl") ? imageUrl : null)
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+/**
+ * Moves {@code product_seq} past the highest product id on startup.
+ *
+ * <p>Product ids used to come from {@code hibernate_sequence}. When an
+ * existing database is updated, Hibernate creates {@code product_seq} at
+ * 1, and the ids it handed out would collide with the rows already there.
+ * Runs after the schema is updated and before the server takes requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductSequenceInitializer {
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSequenceInitializer(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void advance() {
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM product", Long.class);
+        if (maxId == null) {
+            return;
+        }
+
+        // The pooled optimizer hands out the block of ids ending at the
+        // value it reads.
+        Long next = jdbcTemplate.queryForObject(
+                "SELECT NEXT VALUE FOR product_seq", Long.class);
+        if (next - Product.ID_ALLOCATION_SIZE < maxId) {
+            jdbcTemplate.execute("ALTER SEQUENCE product_seq RESTART WITH "
+                    + (maxId + Product.ID_ALLOCATION_SIZE));
+        }
+    }
+}
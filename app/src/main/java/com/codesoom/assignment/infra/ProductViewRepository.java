@@ -0,0 +1,11 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.ProductView;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ProductViewRepository {
+    List<ProductView> findViewsByIdGreaterThan(Long id, Set<String> fields,
+                                               int limit);
+}
@@ -0,0 +1,66 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductView;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a tuple query whose SELECT clause lists only the requested
+ * columns, so neither the unused columns nor managed entities are loaded.
+ */
+public class ProductViewRepositoryImpl implements ProductViewRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductView> findViewsByIdGreaterThan(Long id,
+                                                      Set<String> fields,
+                                                      int limit) {
+        List<String> columns = ProductView.FIELDS.stream()
+                .filter(field -> field.equals("id") || fields.contains(field))
+                .collect(Collectors.toList());
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+
+        List<Selection<?>> selections = columns.stream()
+                .<Selection<?>>map(column -> product.get(column).alias(column))
+                .collect(Collectors.toList());
+
+        query.multiselect(selections)
+                .where(builder.greaterThan(product.<Long>get("id"), id))
+                .orderBy(builder.asc(product.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList().stream()
+                .map(tuple -> viewOf(tuple, columns))
+                .collect(Collectors.toList());
+    }
+
+    private static ProductView viewOf(Tuple tuple, List<String> columns) {
+        return ProductView.builder()
+                .id(tuple.get("id", Long.class))
+                .name(valueOf(tuple, columns, "name", String.class))
+                .maker(valueOf(tuple, columns, "maker", String.class))
+                .price(valueOf(tuple, columns, "price", Integer.class))
+                .imageUrl(valueOf(tuple, columns, "imageUrl", String.class))
+                .build();
+    }
+
+    private static <T> T valueOf(Tuple tuple, List<String> columns,
+                                 String column, Class<T> type) {
+        return columns.contains(column) ? tuple.get(column, type) : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.codesoom.assignment.infra;
+
+/**
+ * Number of SQL statements run on one thread since
+ * {@link QueryGuard#start()}.
+ */
+public class QueryCount {
+    private final QueryCount parent;
+
+    private final String name;
+
+    private final int maxStatements;
+
+    private int statements;
+
+    QueryCount(QueryCount parent, String name, int maxStatements) {
+        this.parent = parent;
+        this.name = name;
+        this.maxStatements = maxStatements;
+    }
+
+    QueryCount getParent() {
+        return parent;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getMaxStatements() {
+        return maxStatements;
+    }
+
+    void add(int count) {
+        statements += count;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+}
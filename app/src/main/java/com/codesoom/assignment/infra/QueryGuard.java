@@ -0,0 +1,120 @@
+package com.codesoom.assignment.infra;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Listens to every statement run through the proxied data source. It
+ * counts statements per thread and times each one as {@code product.sql},
+ * tagged with its {@link SqlFingerprint}. Statements slower than
+ * {@code slowThreshold} are logged with their fingerprint and parameter
+ * count.
+ *
+ * <p>Statements are counted only inside a {@link #start()} scope. Every
+ * open scope on the thread counts them, so a test can count around a
+ * request that is counted as well. A JDBC batch counts once. A scope
+ * opened with {@link #start(String, int)} fails the statement that takes
+ * it past its limit, while the work that ran it is still in progress.
+ */
+public class QueryGuard implements QueryExecutionListener, MeterBinder {
+    private static final Logger log =
+            LoggerFactory.getLogger(QueryGuard.class);
+
+    private final ThreadLocal<QueryCount> current = new ThreadLocal<>();
+
+    private final Duration slowThreshold;
+
+    private volatile MeterRegistry meterRegistry;
+
+    public QueryGuard(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    /**
+     * Statements run before the registry is bound, such as the schema
+     * update at startup, are counted and logged but not timed.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    public QueryCount start() {
+        return start(null, Integer.MAX_VALUE);
+    }
+
+    public QueryCount start(String name, int maxStatements) {
+        QueryCount count = new QueryCount(current.get(), name, maxStatements);
+        current.set(count);
+        return count;
+    }
+
+    public void stop(QueryCount count) {
+        if (count.getParent() == null) {
+            current.remove();
+            return;
+        }
+        current.set(count.getParent());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo,
+                            List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo,
+                           List<QueryInfo> queryInfoList) {
+        QueryCount exceeded = null;
+        for (QueryCount count = current.get(); count != null;
+             count = count.getParent()) {
+            count.add(queryInfoList.size());
+            if (count.getStatements() > count.getMaxStatements()) {
+                exceeded = count;
+            }
+        }
+
+        Duration elapsed = Duration.ofMillis(execInfo.getElapsedTime());
+        MeterRegistry registry = meterRegistry;
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            String fingerprint = SqlFingerprint.of(queryInfo.getQuery());
+
+            if (registry != null) {
+                Timer.builder("product.sql")
+                        .tag("statement", fingerprint)
+                        .register(registry)
+                        .record(elapsed);
+            }
+
+            if (elapsed.compareTo(slowThreshold) >= 0) {
+                log.warn("Slow statement took {} ms with {} parameters "
+                                + "in {} rows: {}",
+                        elapsed.toMillis(), parametersOf(queryInfo),
+                        Math.max(1, queryInfo.getParametersList().size()),
+                        fingerprint);
+            }
+        }
+
+        if (exceeded != null) {
+            throw new IllegalStateException(String.format(
+                    "%s ran %d SQL statements, more than %d",
+                    exceeded.getName(), exceeded.getStatements(),
+                    exceeded.getMaxStatements()));
+        }
+    }
+
+    private static int parametersOf(QueryInfo queryInfo) {
+        return queryInfo.getParametersList().isEmpty() ? 0
+                : queryInfo.getParametersList().get(0).size();
+    }
+}
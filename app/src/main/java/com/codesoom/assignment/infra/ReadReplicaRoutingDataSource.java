@@ -0,0 +1,153 @@
+package com.codesoom.assignment.infra;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to read replicas, round
+ * robin, and everything else to the primary.
+ *
+ * <p>Replicas are checked in the background. A replica that cannot be
+ * reached, or whose lag reported by {@code lagQuery} exceeds
+ * {@code maxLag}, is skipped until a later check finds it healthy again.
+ * With no healthy replica, reads fall back to the primary.
+ *
+ * <p>The read-only flag is only known once the transaction has begun, so
+ * this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource
+        implements Closeable {
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final String lagQuery;
+
+    private final Duration maxLag;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ScheduledExecutorService scheduler;
+
+    public ReadReplicaRoutingDataSource(DataSource primary,
+                                        List<DataSource> replicas,
+                                        String lagQuery, Duration maxLag,
+                                        Duration checkInterval) {
+        this.primary = primary;
+        replicas.forEach(replica -> this.replicas.add(new Replica(replica)));
+        this.lagQuery = lagQuery == null || lagQuery.isBlank()
+                ? null : lagQuery;
+        this.maxLag = maxLag;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = checkInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkReplicas,
+                0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            for (int tried = 0; tried < replicas.size(); tried += 1) {
+                Replica replica = replicas.get(Math.floorMod(
+                        next.getAndIncrement(), replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password)
+            throws SQLException {
+        throw new SQLFeatureNotSupportedException(
+                "Credentials are configured per data source");
+    }
+
+    /**
+     * Stops the health checks and closes the replicas. The primary is
+     * left to its owner.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    /**
+     * Marks each replica healthy or not by connecting to it and, when a
+     * lag query is configured, comparing its lag in seconds to the limit.
+     */
+    public void checkReplicas() {
+        replicas.forEach(replica -> replica.healthy = isHealthy(replica));
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream()
+                .filter(replica -> replica.healthy)
+                .count();
+    }
+
+    private boolean isHealthy(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (lagQuery == null) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                return resultSet.next()
+                        && resultSet.getDouble(1) * 1000 <= maxLag.toMillis();
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof Closeable) {
+            try {
+                ((Closeable) dataSource).close();
+            } catch (IOException e) {
+                // Shutting down anyway.
+            }
+        }
+    }
+
+    private static class Replica {
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
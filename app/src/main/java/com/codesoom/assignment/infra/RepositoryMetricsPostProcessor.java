@@ -0,0 +1,87 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Times every {@link ProductRepository} call as {@code product.repository}
+ * and records how many rows each query returned as
+ * {@code product.repository.rows}, both tagged by method.
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean,
+                                                 String beanName) {
+        if (!(bean instanceof ProductRepository)) {
+            return bean;
+        }
+
+        MethodInterceptor interceptor = this::record;
+
+        if (bean instanceof Advised) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    private Object record(MethodInvocation invocation) throws Throwable {
+        MeterRegistry registry = meterRegistry.getObject();
+        String method = invocation.getMethod().getName();
+        String exception = "none";
+
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            Object result = invocation.proceed();
+
+            Integer rows = rowsOf(result);
+            if (rows != null) {
+                DistributionSummary.builder("product.repository.rows")
+                        .tag("method", method)
+                        .register(registry)
+                        .record(rows);
+            }
+
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("product.repository")
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+
+    private static Integer rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,132 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.ServiceBusyException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one. The first caller
+ * runs the loader. Callers that arrive while it runs wait for it and
+ * share its result or exception.
+ *
+ * <p>A waiter gives up after {@code timeout}, and at most
+ * {@code maxWaiters} callers may wait on one key. Past either limit the
+ * call fails with {@link ServiceBusyException} instead of adding load to
+ * a backend that is already slow.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Flight<V>> flights =
+            new ConcurrentHashMap<>();
+
+    private final Duration timeout;
+
+    private final int maxWaiters;
+
+    private final LongAdder leaders = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public SingleFlight(Duration timeout, int maxWaiters) {
+        this.timeout = timeout;
+        this.maxWaiters = maxWaiters;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        Flight<V> flight = new Flight<>();
+
+        Flight<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Lets callers arriving from now on start a new call for the key,
+     * for when a write has made the one in flight stale. Its current
+     * waiters still get its result.
+     */
+    public void forget(K key) {
+        flights.remove(key);
+    }
+
+    public void forgetAll() {
+        flights.clear();
+    }
+
+    public long leaders() {
+        return leaders.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private V await(Flight<V> flight) {
+        if (flight.waiters.incrementAndGet() > maxWaiters) {
+            flight.waiters.decrementAndGet();
+            rejected.increment();
+            throw new ServiceBusyException("Too many waiting for one read");
+        }
+
+        coalesced.increment();
+        try {
+            return flight.result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new ServiceBusyException("Timed out waiting for one read");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted waiting for one read");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } finally {
+            flight.waiters.decrementAndGet();
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return (RuntimeException) cause;
+    }
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
@@ -0,0 +1,31 @@
+package com.codesoom.assignment.infra;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a SQL statement to its shape, so statements that differ only in
+ * literals or in the length of an {@code IN} list share one fingerprint.
+ */
+public final class SqlFingerprint {
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER =
+            Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern LIST =
+            Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final Pattern SPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String result = STRING.matcher(sql).replaceAll("?");
+        result = NUMBER.matcher(result).replaceAll("?");
+        result = LIST.matcher(result).replaceAll("(?)");
+        return SPACE.matcher(result).replaceAll(" ").trim()
+                .toLowerCase(Locale.ROOT);
+    }
+}
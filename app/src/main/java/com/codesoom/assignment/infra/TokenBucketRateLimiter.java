@@ -0,0 +1,69 @@
+package com.codesoom.assignment.infra;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets refilled at {@code ratePerSecond} and holding at
+ * most {@code burst} tokens.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the point in time
+ * up to which its tokens have been spent (the generic cell rate
+ * algorithm), so taking a token is one compare-and-set and no lock.
+ * Buckets live in a concurrent, striped map and are dropped after a
+ * minute without requests.
+ */
+public class TokenBucketRateLimiter {
+    private final long nanosPerToken;
+
+    private final long burstNanos;
+
+    private final LongSupplier clock;
+
+    private final LoadingCache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double ratePerSecond, int burst,
+                           LongSupplier clock) {
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1)
+                / ratePerSecond);
+        this.burstNanos = nanosPerToken * burst;
+        this.clock = clock;
+        this.buckets = CacheBuilder.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .build(CacheLoader.from(() -> new AtomicLong(Long.MIN_VALUE)));
+    }
+
+    /**
+     * Takes a token for the key. Returns zero when one was available, or
+     * how long to wait for the next one otherwise.
+     */
+    public Duration tryAcquire(String key) {
+        AtomicLong spentUntil = buckets.getUnchecked(key);
+        long now = clock.getAsLong();
+
+        while (true) {
+            long current = spentUntil.get();
+            long start = current == Long.MIN_VALUE
+                    ? now - burstNanos
+                    : Math.max(current, now - burstNanos);
+            long next = start + nanosPerToken;
+
+            if (next > now) {
+                return Duration.ofNanos(next - now);
+            }
+            if (spentUntil.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
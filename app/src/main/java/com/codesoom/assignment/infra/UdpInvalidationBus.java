@@ -0,0 +1,278 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.application.InvalidationBus;
+import com.codesoom.assignment.application.ProductInvalidation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link InvalidationBus} over UDP datagrams sent to a fixed list of
+ * peers.
+ *
+ * <p>Published notices are held for {@code flushInterval} and sent
+ * together, up to {@link #MAX_BATCH_SIZE} per datagram, so a burst of
+ * writes costs a few packets; what does not fit follows straight away.
+ * Each datagram carries the sending node's random id; a node lists every
+ * member as a peer, itself included, and drops what it sent.
+ *
+ * <p>Datagrams are numbered per node, and an idle node sends an empty one
+ * carrying its last number every {@code heartbeatInterval}. A receiver
+ * that finds a number missing, whether from a later datagram or a
+ * heartbeat, asks its subscribers to resync. A datagram that arrives
+ * late after one sent later also looks like a gap, as does the first
+ * datagram from a node that sent some before this one started; either
+ * costs a resync, never a missed notice. When more than
+ * {@code maxQueued} notices wait to be sent, the backlog is dropped and
+ * a number skipped on purpose, so peers resync rather than fall further
+ * behind.
+ *
+ * <p>A datagram is a header of magic, node id, sequence number and entry
+ * count, followed by product id, version and a deleted flag per entry, in
+ * network byte order.
+ */
+public class UdpInvalidationBus implements InvalidationBus, Closeable {
+    private static final Logger log =
+            LoggerFactory.getLogger(UdpInvalidationBus.class);
+
+    static final int MAGIC = 0x50494e56;
+
+    static final int HEADER_SIZE = 4 + 8 + 8 + 2;
+
+    static final int ENTRY_SIZE = 8 + 8 + 1;
+
+    /**
+     * Small enough to fit an Ethernet frame without fragmenting.
+     */
+    static final int MAX_DATAGRAM_SIZE = 1400;
+
+    static final int MAX_BATCH_SIZE =
+            (MAX_DATAGRAM_SIZE - HEADER_SIZE) / ENTRY_SIZE;
+
+    private final long nodeId;
+
+    private final DatagramChannel channel;
+
+    private final List<InetSocketAddress> peers;
+
+    private final Duration flushInterval;
+
+    private final Duration heartbeatInterval;
+
+    private final BlockingQueue<ProductInvalidation> queue;
+
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Datagrams with entries sent so far; touched by the sender only.
+     */
+    private long sent;
+
+    /**
+     * The highest number received from each node; touched by the
+     * receiver only.
+     */
+    private final Map<Long, Long> received = new HashMap<>();
+
+    private final ExecutorService executor;
+
+    public UdpInvalidationBus(InetSocketAddress address,
+                              List<InetSocketAddress> peers,
+                              Duration flushInterval,
+                              Duration heartbeatInterval,
+                              int maxQueued) throws IOException {
+        this(ThreadLocalRandom.current().nextLong(), address, peers,
+                flushInterval, heartbeatInterval, maxQueued);
+    }
+
+    UdpInvalidationBus(long nodeId, InetSocketAddress address,
+                       List<InetSocketAddress> peers,
+                       Duration flushInterval,
+                       Duration heartbeatInterval,
+                       int maxQueued) throws IOException {
+        this.nodeId = nodeId;
+        this.channel = DatagramChannel.open().bind(address);
+        this.peers = List.copyOf(peers);
+        this.flushInterval = flushInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.queue = new LinkedBlockingQueue<>(maxQueued);
+
+        this.executor = Executors.newFixedThreadPool(2, task -> {
+            Thread thread = new Thread(task, "product-invalidation-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::sendLoop);
+        executor.execute(this::receiveLoop);
+    }
+
+    @Override
+    public void publish(ProductInvalidation invalidation) {
+        if (!queue.offer(invalidation)) {
+            overflowed.set(true);
+        }
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Stops both threads. Notices not sent yet are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        channel.close();
+    }
+
+    private void sendLoop() {
+        List<ProductInvalidation> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try {
+            while (true) {
+                if (overflowed.getAndSet(false)) {
+                    skipBacklog();
+                    continue;
+                }
+
+                ProductInvalidation first = queue.poll(
+                        heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    send(encode(batch));
+                    continue;
+                }
+
+                batch.add(first);
+                // Let the rest of a burst catch up with the first notice.
+                Thread.sleep(flushInterval.toMillis());
+                do {
+                    queue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+
+                    sent += 1;
+                    send(encode(batch));
+                    batch.clear();
+                } while (!queue.isEmpty() && !overflowed.get());
+            }
+        } catch (InterruptedException e) {
+            // Closed.
+        }
+    }
+
+    /**
+     * Drops the notices not sent yet and leaves a gap in the numbers,
+     * announced straight away by a heartbeat, so that peers resync.
+     */
+    private void skipBacklog() {
+        queue.clear();
+        sent += 1;
+        send(encode(List.of()));
+        log.warn("Dropped product invalidations over the queue limit;"
+                + " peers will resync");
+    }
+
+    private void send(ByteBuffer datagram) {
+        for (InetSocketAddress peer : peers) {
+            try {
+                channel.send(datagram.duplicate(), peer);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to send product invalidations to {}",
+                        peer, e);
+            }
+        }
+    }
+
+    private void receiveLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+        try {
+            while (true) {
+                buffer.clear();
+                channel.receive(buffer);
+                buffer.flip();
+
+                receive(buffer);
+            }
+        } catch (IOException e) {
+            // Closed.
+        }
+    }
+
+    /**
+     * Delivers a datagram from a peer, and ignores one that is not ours,
+     * is cut short, or was sent by this node.
+     */
+    private void receive(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE
+                || buffer.getInt() != MAGIC) {
+            return;
+        }
+
+        long node = buffer.getLong();
+        long sequence = buffer.getLong();
+        int count = buffer.getShort();
+        if (node == nodeId || buffer.remaining() < count * ENTRY_SIZE) {
+            return;
+        }
+
+        List<ProductInvalidation> invalidations = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 1) {
+            invalidations.add(new ProductInvalidation(
+                    buffer.getLong(), buffer.getLong(), buffer.get() == 1));
+        }
+
+        // How many datagrams with entries the node sent before this one.
+        long before = invalidations.isEmpty() ? sequence : sequence - 1;
+        long last = received.getOrDefault(node, 0L);
+        received.put(node, Math.max(last, sequence));
+
+        for (Subscriber subscriber : subscribers) {
+            try {
+                if (before > last) {
+                    subscriber.resync();
+                }
+                if (!invalidations.isEmpty()) {
+                    subscriber.invalidate(invalidations);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply product invalidations", e);
+            }
+        }
+    }
+
+    private ByteBuffer encode(List<ProductInvalidation> batch) {
+        ByteBuffer buffer = ByteBuffer.allocate(
+                HEADER_SIZE + batch.size() * ENTRY_SIZE);
+        buffer.putInt(MAGIC).putLong(nodeId).putLong(sent)
+                .putShort((short) batch.size());
+        for (ProductInvalidation invalidation : batch) {
+            buffer.putLong(invalidation.getId())
+                    .putLong(invalidation.getVersion())
+                    .put((byte) (invalidation.isDeleted() ? 1 : 0));
+        }
+        return buffer.flip();
+    }
+}
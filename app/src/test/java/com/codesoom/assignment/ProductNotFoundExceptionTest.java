@@ -0,0 +1,22 @@
+package com.codesoom.assignment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductNotFoundExceptionTest {
+    @Test
+    void message() {
+        ProductNotFoundException exception = new ProductNotFoundException(1L);
+
+        assertThat(exception.getId()).isEqualTo(1L);
+        assertThat(exception).hasMessage("Product not found: 1");
+    }
+
+    @Test
+    void noStackTrace() {
+        ProductNotFoundException exception = new ProductNotFoundException(1L);
+
+        assertThat(exception.getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,37 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogVersionTest {
+    @Test
+    void onProductEvent() {
+        CatalogVersion catalogVersion = new CatalogVersion();
+
+        String before = catalogVersion.current();
+
+        catalogVersion.onProductEvent(new ProductEvent(
+                ProductEvent.Type.UPDATED, Product.builder().id(1L).build()));
+
+        assertThat(catalogVersion.current()).isNotEqualTo(before);
+        assertThat(catalogVersion.current()).endsWith("-1");
+    }
+
+    @Test
+    void changedWithin() {
+        CatalogVersion catalogVersion = new CatalogVersion();
+
+        assertThat(catalogVersion.changedWithin(Duration.ofMinutes(1)))
+                .isFalse();
+
+        catalogVersion.increment();
+
+        assertThat(catalogVersion.changedWithin(Duration.ofMinutes(1)))
+                .isTrue();
+        assertThat(catalogVersion.changedWithin(Duration.ZERO)).isFalse();
+    }
+}
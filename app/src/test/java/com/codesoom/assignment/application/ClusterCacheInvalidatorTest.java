@@ -0,0 +1,185 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductLookupResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ClusterCacheInvalidatorTest {
+    private final InvalidationBus bus = mock(InvalidationBus.class);
+
+    private final ProductService productService = mock(ProductService.class);
+
+    private final ProductSearchIndex searchIndex =
+            mock(ProductSearchIndex.class);
+
+    private final ProductPriceIndex priceIndex = mock(ProductPriceIndex.class);
+
+    private final Cache entityCache = mock(Cache.class);
+
+    private final org.hibernate.Cache hibernateCache =
+            mock(org.hibernate.Cache.class);
+
+    private final ProductCache productCache =
+            new ProductCache(100, Duration.ofMinutes(10));
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    private final ExecutorService refresher =
+            MoreExecutors.newDirectExecutorService();
+
+    private ClusterCacheInvalidator invalidator;
+
+    private final Product product = Product.builder()
+            .id(1L)
+            .name("쥐돌이")
+            .maker("냥이월드")
+            .price(5000)
+            .version(2L)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory =
+                mock(EntityManagerFactory.class);
+        given(entityManagerFactory.getCache()).willReturn(entityCache);
+        given(entityCache.unwrap(org.hibernate.Cache.class))
+                .willReturn(hibernateCache);
+
+        given(productService.getProducts(anyList())).willReturn(
+                new ProductLookupResult(List.of(product), List.of(2L)));
+
+        invalidator = new ClusterCacheInvalidator(bus, productService,
+                productCache, catalogVersion, searchIndex, priceIndex,
+                entityManagerFactory, 1000, refresher);
+    }
+
+    @Test
+    void subscribes() {
+        verify(bus).subscribe(invalidator);
+    }
+
+    @Test
+    void publishesCommittedChanges() {
+        invalidator.onProductEvent(
+                new ProductEvent(ProductEvent.Type.UPDATED, product));
+        invalidator.onProductEvent(new ProductEvent(ProductEvent.Type.DELETED,
+                Product.builder().id(3L).build()));
+
+        ArgumentCaptor<ProductInvalidation> captor =
+                ArgumentCaptor.forClass(ProductInvalidation.class);
+        verify(bus, times(2)).publish(captor.capture());
+
+        assertThat(captor.getAllValues())
+                .extracting(ProductInvalidation::getId,
+                        ProductInvalidation::getVersion,
+                        ProductInvalidation::isDeleted)
+                .containsExactly(
+                        tuple(1L, 2L, false),
+                        tuple(3L, 0L, true));
+    }
+
+    @Test
+    void invalidateEvictsAndRefreshesInOneLookup() {
+        productCache.put(product);
+        String version = catalogVersion.current();
+
+        invalidator.invalidate(List.of(
+                new ProductInvalidation(1L, 2L, false),
+                new ProductInvalidation(2L, 1L, false),
+                new ProductInvalidation(3L, 4L, true)));
+
+        assertThat(productCache.get(1L)).isEmpty();
+        assertThat(catalogVersion.current()).isNotEqualTo(version);
+        verify(entityCache).evict(Product.class, 1L);
+        verify(entityCache).evict(Product.class, 3L);
+        verify(hibernateCache).evictDefaultQueryRegion();
+
+        verify(productService).getProducts(List.of(1L, 2L));
+        verify(searchIndex).put(product);
+        verify(priceIndex).put(product);
+        verify(searchIndex).remove(2L);
+        verify(priceIndex).remove(2L);
+        verify(searchIndex).remove(3L);
+        verify(priceIndex).remove(3L);
+    }
+
+    @Test
+    void dropsOvertakenNotices() {
+        invalidator.invalidate(List.of(new ProductInvalidation(1L, 2L, false)));
+        String version = catalogVersion.current();
+
+        invalidator.invalidate(List.of(
+                new ProductInvalidation(1L, 1L, false),
+                new ProductInvalidation(1L, 2L, false)));
+
+        assertThat(catalogVersion.current()).isEqualTo(version);
+        verify(productService, times(1)).getProducts(anyList());
+        verify(hibernateCache, times(1)).evictDefaultQueryRegion();
+    }
+
+    @Test
+    void resyncDropsEverythingAndRebuildsIndexes() {
+        productCache.put(product);
+        String version = catalogVersion.current();
+
+        invalidator.resync();
+
+        assertThat(productCache.size()).isZero();
+        assertThat(catalogVersion.current()).isNotEqualTo(version);
+        verify(entityCache).evictAll();
+        verify(hibernateCache).evictDefaultQueryRegion();
+        verify(searchIndex).rebuild();
+        verify(priceIndex).rebuild();
+    }
+
+    @Test
+    void resyncWhenReloadFails() {
+        given(productService.getProducts(anyList()))
+                .willThrow(new IllegalStateException("database is down"));
+
+        invalidator.invalidate(List.of(new ProductInvalidation(1L, 2L, false)));
+
+        verify(searchIndex).rebuild();
+        verify(searchIndex, never()).remove(any());
+    }
+
+    @Test
+    void rebuildFailureIsLogged() {
+        given(productService.getProducts(anyList()))
+                .willThrow(new IllegalStateException("database is down"));
+        willThrow(
+                new IllegalStateException("database is down"))
+                .given(searchIndex).rebuild();
+
+        invalidator.invalidate(List.of(new ProductInvalidation(1L, 2L, false)));
+
+        verify(priceIndex, never()).rebuild();
+    }
+
+    @Test
+    void shutdown() {
+        invalidator.shutdown();
+
+        assertThat(refresher.isShutdown()).isTrue();
+    }
+}
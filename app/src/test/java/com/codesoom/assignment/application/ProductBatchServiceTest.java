@@ -0,0 +1,143 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.dto.BatchItemResult;
+import com.codesoom.assignment.dto.ProductData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ProductBatchServiceTest {
+    private ProductBatchService productBatchService;
+
+    private ProductRepository productRepository = mock(ProductRepository.class);
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productBatchService = new ProductBatchService(productRepository,
+                new ProductCache(100, Duration.ofMinutes(10)),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                event -> {
+                });
+
+        product = Product.builder()
+                .id(1L)
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+
+        given(productRepository.findAllById(anyIterable()))
+                .willReturn(List.of(product));
+
+        given(productRepository.save(any(Product.class))).will(invocation -> {
+            Product source = invocation.getArgument(0);
+            if (source.getId() != null) {
+                return source;
+            }
+            return Product.builder()
+                    .id(2L)
+                    .name(source.getName())
+                    .maker(source.getMaker())
+                    .price(source.getPrice())
+                    .build();
+        });
+    }
+
+    @Test
+    void createProducts() {
+        List<BatchItemResult> results = productBatchService.createProducts(
+                List.of(productData(null, "쥐돌이"), productData(null, "")));
+
+        verify(productRepository, times(1)).save(any(Product.class));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(201, 400);
+        assertThat(results.get(0).getId()).isEqualTo(2L);
+        assertThat(results.get(1).getMessage())
+                .startsWith("name: ");
+    }
+
+    @Test
+    void createProductsWithMissingItem() {
+        List<BatchItemResult> results = productBatchService.createProducts(
+                Arrays.asList(null, productData(null, "쥐돌이")));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(400, 201);
+        assertThat(results.get(0).getMessage())
+                .isEqualTo("item: must not be null");
+    }
+
+    @Test
+    void updateProducts() {
+        List<BatchItemResult> results = productBatchService.updateProducts(
+                List.of(productData(1L, "쥐순이"),
+                        productData(1000L, "쥐순이"),
+                        productData(null, "쥐순이"),
+                        productData(1L, "")));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(200, 404, 400, 400);
+        assertThat(results.get(2).getMessage())
+                .isEqualTo("id: must not be null");
+        assertThat(product.getName()).isEqualTo("쥐순이");
+    }
+
+    @Test
+    void updateProductsWithMissingItem() {
+        List<BatchItemResult> results = productBatchService.updateProducts(
+                Arrays.asList(productData(1L, "쥐순이"), null));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(200, 400);
+        assertThat(results.get(1).getMessage())
+                .isEqualTo("item: must not be null");
+    }
+
+    @Test
+    void deleteProducts() {
+        List<BatchItemResult> results =
+                productBatchService.deleteProducts(List.of(1L, 1000L));
+
+        verify(productRepository).delete(product);
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(204, 404);
+    }
+
+    @Test
+    void deleteProductsWithMissingId() {
+        List<BatchItemResult> results =
+                productBatchService.deleteProducts(Arrays.asList(null, 1L));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(400, 204);
+        assertThat(results.get(0).getMessage())
+                .isEqualTo("id: must not be null");
+    }
+
+    private ProductData productData(Long id, String name) {
+        return ProductData.builder()
+                .id(id)
+                .name(name)
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(2, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getWithCachedProduct() {
+        productCache.put(product(1L));
+
+        assertThat(productCache.get(1L)).isPresent();
+        assertThat(productCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithNotCachedProduct() {
+        assertThat(productCache.get(1L)).isEmpty();
+        assertThat(productCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithLoaderOnMiss() {
+        Product product = productCache.get(1L, this::product);
+
+        assertThat(productCache.get(1L)).contains(product);
+        assertThat(productCache.loads().leaders()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithLoaderOnHit() {
+        Product product = product(1L);
+        productCache.put(product);
+
+        assertThat(productCache.get(1L, id -> {
+            throw new AssertionError("loaded a cached product");
+        })).isSameAs(product);
+        assertThat(productCache.loads().leaders()).isZero();
+    }
+
+    @Test
+    void getWithLoaderWhenWriteCommitsDuringLoad() {
+        Product product = productCache.get(1L, id -> {
+            Product old = product(id);
+            // The writer commits after the old row was read.
+            productCache.invalidate(id);
+            return old;
+        });
+
+        assertThat(product.getId()).isEqualTo(1L);
+        assertThat(productCache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void putWithCurrentGeneration() {
+        long generation = productCache.generationOf(1L);
+
+        productCache.put(product(1L), generation);
+
+        assertThat(productCache.get(1L)).isPresent();
+    }
+
+    @Test
+    void putAfterInvalidateAll() {
+        long generation = productCache.generationOf(1L);
+
+        productCache.invalidateAll();
+        productCache.put(product(1L), generation);
+
+        assertThat(productCache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void eviction() {
+        productCache.put(product(1L));
+        productCache.put(product(2L));
+        productCache.put(product(3L));
+
+        assertThat(productCache.size()).isEqualTo(2);
+        assertThat(productCache.stats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate() {
+        productCache.put(product(1L));
+
+        productCache.invalidate(1L);
+
+        assertThat(productCache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void invalidateInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        productCache.put(product(1L));
+        productCache.invalidate(1L);
+        productCache.put(product(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(
+                        TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(productCache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void putRightAfterWriteWithHold() {
+        productCache = new ProductCache(2, Duration.ofMinutes(10),
+                Duration.ofMinutes(1));
+
+        productCache.put(product(1L));
+        productCache.invalidate(1L);
+        productCache.put(product(1L));
+        productCache.put(product(2L));
+
+        assertThat(productCache.get(1L)).isEmpty();
+        assertThat(productCache.get(2L)).isPresent();
+    }
+
+    @Test
+    void invalidateInTransactionWithHold() {
+        productCache = new ProductCache(2, Duration.ofMinutes(10),
+                Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        productCache.invalidate(1L);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(
+                        TransactionSynchronization.STATUS_COMMITTED));
+        productCache.put(product(1L));
+
+        assertThat(productCache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void invalidateAll() {
+        productCache.put(product(1L));
+        productCache.put(product(2L));
+
+        productCache.invalidateAll();
+
+        assertThat(productCache.size()).isZero();
+    }
+
+    private Product product(Long id) {
+        return Product.builder()
+                .id(id)
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductChange;
+import com.codesoom.assignment.dto.ProductChanges;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangeFeedTest {
+    private ProductChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        changeFeed = new ProductChangeFeed(3, 0);
+    }
+
+    @Test
+    void readEmptyFeed() {
+        ProductChanges changes = changeFeed.read(0, 10);
+
+        assertThat(changes.getChanges()).isEmpty();
+        assertThat(changes.getNext()).isZero();
+        assertThat(changes.isReset()).isFalse();
+    }
+
+    @Test
+    void readChangesInOrder() {
+        publish(ProductEvent.Type.CREATED, 1L);
+        publish(ProductEvent.Type.UPDATED, 1L);
+        publish(ProductEvent.Type.DELETED, 1L);
+
+        ProductChanges changes = changeFeed.read(1, 10);
+
+        assertThat(changes.getChanges()).extracting(ProductChange::getType)
+                .containsExactly("UPDATED", "DELETED");
+        assertThat(changes.getChanges().get(0).getProduct().getName())
+                .isEqualTo("쥐돌이");
+        assertThat(changes.getNext()).isEqualTo(3);
+        assertThat(changeFeed.lastSeq()).isEqualTo(3);
+    }
+
+    @Test
+    void readWithLimit() {
+        publish(ProductEvent.Type.CREATED, 1L);
+        publish(ProductEvent.Type.CREATED, 2L);
+
+        ProductChanges changes = changeFeed.read(0, 1);
+
+        assertThat(changes.getChanges()).extracting(ProductChange::getId)
+                .containsExactly(1L);
+        assertThat(changes.getNext()).isEqualTo(1);
+    }
+
+    @Test
+    void readAfterChangesWereOverwritten() {
+        for (long id = 1; id <= 5; id += 1) {
+            publish(ProductEvent.Type.CREATED, id);
+        }
+
+        ProductChanges changes = changeFeed.read(1, 10);
+
+        assertThat(changes.isReset()).isTrue();
+        assertThat(changes.getChanges()).extracting(ProductChange::getSeq)
+                .containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void readAfterRestart() {
+        publish(ProductEvent.Type.CREATED, 1L);
+
+        ProductChanges changes = changeFeed.read(42, 10);
+
+        assertThat(changes.isReset()).isTrue();
+        assertThat(changes.getChanges()).hasSize(1);
+
+        ProductChanges empty = new ProductChangeFeed(3, 0).read(42, 10);
+
+        assertThat(empty.isReset()).isTrue();
+        assertThat(empty.getNext()).isZero();
+    }
+
+    @Test
+    void readFromPreviousProcess() {
+        publish(ProductEvent.Type.CREATED, 1L);
+        publish(ProductEvent.Type.CREATED, 2L);
+
+        changeFeed = new ProductChangeFeed(3, 1000);
+        publish(ProductEvent.Type.CREATED, 3L);
+        publish(ProductEvent.Type.CREATED, 4L);
+
+        ProductChanges changes = changeFeed.read(1, 10);
+
+        assertThat(changes.isReset()).isTrue();
+        assertThat(changes.getChanges()).extracting(ProductChange::getSeq)
+                .containsExactly(1001L, 1002L);
+    }
+
+    @Test
+    void readFromStart() {
+        changeFeed = new ProductChangeFeed(3, 1000);
+        publish(ProductEvent.Type.CREATED, 1L);
+
+        ProductChanges changes = changeFeed.read(0, 10);
+
+        assertThat(changes.isReset()).isFalse();
+        assertThat(changes.getNext()).isEqualTo(1001L);
+    }
+
+    @Test
+    void subscribe() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Runnable unsubscribe = changeFeed.subscribe(calls::incrementAndGet);
+        publish(ProductEvent.Type.CREATED, 1L);
+        unsubscribe.run();
+        publish(ProductEvent.Type.CREATED, 2L);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    private void publish(ProductEvent.Type type, Long id) {
+        changeFeed.onProductEvent(new ProductEvent(type, Product.builder()
+                .id(id)
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .build()));
+    }
+}
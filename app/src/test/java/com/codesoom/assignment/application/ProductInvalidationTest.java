@@ -0,0 +1,27 @@
+package com.codesoom.assignment.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductInvalidationTest {
+    @Test
+    void supersedesLowerVersion() {
+        ProductInvalidation later = new ProductInvalidation(1L, 2L, false);
+        ProductInvalidation earlier = new ProductInvalidation(1L, 1L, true);
+
+        assertThat(later.supersedes(earlier)).isTrue();
+        assertThat(earlier.supersedes(later)).isFalse();
+    }
+
+    @Test
+    void deleteSupersedesUpdateOfSameVersion() {
+        ProductInvalidation update = new ProductInvalidation(1L, 3L, false);
+        ProductInvalidation delete = new ProductInvalidation(1L, 3L, true);
+
+        assertThat(delete.supersedes(update)).isTrue();
+        assertThat(update.supersedes(delete)).isFalse();
+        assertThat(delete.supersedes(delete)).isFalse();
+        assertThat(update.supersedes(update)).isFalse();
+    }
+}
@@ -0,0 +1,224 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ProductListSnapshotsTest {
+    private ProductService productService = mock(ProductService.class);
+
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
+    private ProductListSnapshots listSnapshots;
+
+    @BeforeEach
+    void setUp() {
+        given(productService.getProducts(any(), anyInt())).willReturn(List.of(
+                Product.builder().id(1L).name("쥐돌이").build(),
+                Product.builder().id(2L).name("쥐순이").build()));
+
+        listSnapshots = snapshots("lazy");
+    }
+
+    @AfterEach
+    void tearDown() {
+        listSnapshots.shutdown();
+    }
+
+    @Test
+    void getBuildsSnapshot() throws IOException {
+        ProductListSnapshots.Snapshot snapshot =
+                listSnapshots.get(catalogVersion.current(), null, 10);
+
+        assertThat(snapshot.getVersion()).isEqualTo(catalogVersion.current());
+        assertThat(new String(snapshot.getJson(), StandardCharsets.UTF_8))
+                .contains("쥐돌이", "쥐순이");
+        assertThat(gunzip(snapshot.getGzip())).isEqualTo(snapshot.getJson());
+        assertThat(snapshot.getNext()).isNull();
+    }
+
+    @Test
+    void getWithFullPage() {
+        assertThat(listSnapshots.get(catalogVersion.current(), 0L, 2)
+                .getNext()).isEqualTo(2L);
+    }
+
+    @Test
+    void getReusesSnapshotOfSameVersion() {
+        String version = catalogVersion.current();
+
+        ProductListSnapshots.Snapshot first =
+                listSnapshots.get(version, null, 10);
+
+        assertThat(listSnapshots.get(version, null, 10)).isSameAs(first);
+        verify(productService).getProducts(null, 10);
+    }
+
+    @Test
+    void concurrentReadersShareOneBuild() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(productService.getProducts(null, 10)).willAnswer(invocation -> {
+            building.countDown();
+            release.await();
+            return List.of(Product.builder().id(1L).name("쥐돌이").build());
+        });
+
+        String version = catalogVersion.current();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ProductListSnapshots.Snapshot> leader = executor.submit(
+                    () -> listSnapshots.get(version, null, 10));
+            building.await();
+
+            List<Future<ProductListSnapshots.Snapshot>> waiters = List.of(
+                    executor.submit(() -> listSnapshots.get(version, null, 10)),
+                    executor.submit(() -> listSnapshots.get(version, null, 10)),
+                    executor.submit(() -> listSnapshots.get(version, null, 10)));
+            while (listSnapshots.builds().coalesced() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<ProductListSnapshots.Snapshot> waiter : waiters) {
+                assertThat(waiter.get()).isSameAs(leader.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(productService).getProducts(null, 10);
+        assertThat(listSnapshots.builds().leaders()).isEqualTo(1);
+    }
+
+    @Test
+    void getRebuildsAfterCatalogChange() {
+        listSnapshots.get(catalogVersion.current(), null, 10);
+
+        catalogVersion.increment();
+        listSnapshots.onProductEvent(null);
+
+        assertThat(listSnapshots.get(catalogVersion.current(), null, 10)
+                .getVersion()).isEqualTo(catalogVersion.current());
+        assertThat(listSnapshots.size()).isEqualTo(1);
+        verify(productService, times(2)).getProducts(null, 10);
+    }
+
+    @Test
+    void eagerRebuildAfterWrite() {
+        listSnapshots.shutdown();
+        listSnapshots = snapshots("eager");
+
+        listSnapshots.get(catalogVersion.current(), null, 10);
+        listSnapshots.get(catalogVersion.current(), 5L, 10);
+
+        catalogVersion.increment();
+        listSnapshots.onProductEvent(null);
+
+        verify(productService, timeout(1000).times(2)).getProducts(null, 10);
+        verify(productService, timeout(1000).times(2)).getProducts(5L, 10);
+    }
+
+    @Test
+    void lazyModeDoesNotRebuildOnWrite() {
+        listSnapshots.get(catalogVersion.current(), null, 10);
+
+        listSnapshots.onProductEvent(null);
+        listSnapshots.onProductEvent(null);
+
+        verify(productService).getProducts(null, 10);
+        verify(productService, never()).getProducts(5L, 10);
+    }
+
+    @Test
+    void getDoesNotKeepPageBuiltRightAfterWrite() {
+        listSnapshots.shutdown();
+        listSnapshots = snapshots("lazy", Duration.ofMinutes(1));
+
+        catalogVersion.increment();
+
+        String version = catalogVersion.current();
+        assertThat(listSnapshots.get(version, null, 10).isProvisional())
+                .isTrue();
+        listSnapshots.get(version, null, 10);
+
+        assertThat(listSnapshots.size()).isZero();
+        verify(productService, times(2)).getProducts(null, 10);
+    }
+
+    @Test
+    void getKeepsPageOnceHoldHasPassed() {
+        listSnapshots.shutdown();
+        listSnapshots = snapshots("lazy", Duration.ofMinutes(1));
+
+        assertThat(listSnapshots.get(catalogVersion.current(), null, 10)
+                .isProvisional()).isFalse();
+
+        assertThat(listSnapshots.size()).isEqualTo(1);
+    }
+
+    @Test
+    void eagerRebuildWaitsForHold() {
+        listSnapshots.shutdown();
+        listSnapshots = snapshots("eager", Duration.ofMillis(500));
+
+        listSnapshots.get(catalogVersion.current(), null, 10);
+
+        catalogVersion.increment();
+        listSnapshots.onProductEvent(null);
+
+        verify(productService, after(100).times(1)).getProducts(null, 10);
+        verify(productService, timeout(2000).times(2)).getProducts(null, 10);
+    }
+
+    @Test
+    void invalidateAll() {
+        listSnapshots.get(catalogVersion.current(), null, 10);
+
+        listSnapshots.invalidateAll();
+
+        assertThat(listSnapshots.size()).isZero();
+    }
+
+    private ProductListSnapshots snapshots(String rebuild) {
+        return snapshots(rebuild, Duration.ZERO);
+    }
+
+    private ProductListSnapshots snapshots(String rebuild,
+                                           Duration holdAfterWrite) {
+        return new ProductListSnapshots(productService, catalogVersion,
+                new ObjectMapper(), rebuild, 64, holdAfterWrite,
+                Duration.ofSeconds(5), 100);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.PricePoint;
+import com.codesoom.assignment.dto.PriceStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+class ProductPriceIndexTest {
+    private ProductPriceIndex productPriceIndex;
+
+    private ProductService productService = mock(ProductService.class);
+
+    @BeforeEach
+    void setUp() {
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "냥이월드", 5000, 0L));
+            consumer.accept(product(2L, "냥이월드", 3000, 0L));
+            consumer.accept(product(3L, "Codesoom", 10000, 0L));
+            consumer.accept(product(4L, "냥이월드", 3000, 0L));
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productPriceIndex = new ProductPriceIndex(productService, 100_000);
+        productPriceIndex.rebuild();
+    }
+
+    @Test
+    void rebuild() {
+        assertThat(productPriceIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void statsOfAllProducts() {
+        PriceStats stats = productPriceIndex.stats(null, null, null);
+
+        assertThat(stats.getCount()).isEqualTo(4);
+        assertThat(stats.getMin()).isEqualTo(3000);
+        assertThat(stats.getMax()).isEqualTo(10000);
+        assertThat(stats.getAverage()).isEqualTo(5250.0);
+    }
+
+    @Test
+    void statsInPriceBand() {
+        PriceStats stats = productPriceIndex.stats(3000, 5000, null);
+
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getMax()).isEqualTo(5000);
+
+        assertThat(productPriceIndex.stats(6000, 9000, null).getCount())
+                .isZero();
+        assertThat(productPriceIndex.stats(9000, 6000, null).getMin())
+                .isNull();
+    }
+
+    @Test
+    void statsOfMaker() {
+        PriceStats stats = productPriceIndex.stats(null, 9000, "냥이월드");
+
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getMin()).isEqualTo(3000);
+        assertThat(stats.getMax()).isEqualTo(5000);
+
+        assertThat(productPriceIndex.stats(null, null, "Unknown").getCount())
+                .isZero();
+    }
+
+    @Test
+    void statsOfMakerInParallel() {
+        productPriceIndex = new ProductPriceIndex(productService, 2);
+        productPriceIndex.rebuild();
+
+        PriceStats stats = productPriceIndex.stats(null, null, "Codesoom");
+
+        assertThat(stats.getCount()).isEqualTo(1);
+        assertThat(stats.getAverage()).isEqualTo(10000.0);
+    }
+
+    @Test
+    void cheapestPerMaker() {
+        Map<String, List<PricePoint>> cheapest =
+                productPriceIndex.cheapest(null, 2, null, null);
+
+        assertThat(ids(cheapest.get("냥이월드"))).containsExactly(2L, 4L);
+        assertThat(ids(cheapest.get("Codesoom"))).containsExactly(3L);
+    }
+
+    @Test
+    void cheapestOfMaker() {
+        Map<String, List<PricePoint>> cheapest =
+                productPriceIndex.cheapest("냥이월드", 1, 4000, null);
+
+        assertThat(cheapest).containsOnlyKeys("냥이월드");
+        assertThat(ids(cheapest.get("냥이월드"))).containsExactly(1L);
+
+        assertThat(productPriceIndex.cheapest("Unknown", 1, null, null))
+                .isEmpty();
+    }
+
+    @Test
+    void update() {
+        productPriceIndex.onProductEvent(new ProductEvent(
+                ProductEvent.Type.UPDATED, product(3L, "Codesoom", 1000, 1L)));
+
+        assertThat(productPriceIndex.stats(null, null, null).getMin())
+                .isEqualTo(1000);
+    }
+
+    @Test
+    void updateOutOfOrder() {
+        productPriceIndex.put(product(3L, "Codesoom", 1000, 2L));
+        productPriceIndex.put(product(3L, "Codesoom", 2000, 1L));
+
+        assertThat(productPriceIndex.stats(null, null, "Codesoom").getMin())
+                .isEqualTo(1000);
+    }
+
+    @Test
+    void delete() {
+        productPriceIndex.onProductEvent(new ProductEvent(
+                ProductEvent.Type.DELETED, product(3L, "Codesoom", 10000, 0L)));
+        productPriceIndex.remove(1000L);
+
+        assertThat(productPriceIndex.size()).isEqualTo(3);
+        assertThat(productPriceIndex.stats(null, null, "Codesoom").getCount())
+                .isZero();
+    }
+
+    @Test
+    void statsAfterWrite() {
+        assertThat(productPriceIndex.stats(null, null, null).getCount())
+                .isEqualTo(4);
+
+        productPriceIndex.put(product(5L, "Codesoom", 100, 0L));
+
+        PriceStats stats = productPriceIndex.stats(null, null, null);
+        assertThat(stats.getCount()).isEqualTo(5);
+        assertThat(stats.getMin()).isEqualTo(100);
+    }
+
+    @Test
+    void writesAreMergedIntoColumns() {
+        assertThat(productPriceIndex.size()).isEqualTo(4);
+
+        productPriceIndex.put(product(2L, "냥이월드", 8000, 1L));
+        productPriceIndex.remove(3L);
+        productPriceIndex.put(product(5L, "Codesoom", 3000, 0L));
+        productPriceIndex.put(product(6L, "냥이월드", 7000, 0L));
+        productPriceIndex.put(Product.builder().id(6L).maker("냥이월드")
+                .version(1L).build());
+
+        PriceStats stats = productPriceIndex.stats(null, null, null);
+        assertThat(stats.getCount()).isEqualTo(4);
+        assertThat(stats.getMin()).isEqualTo(3000);
+        assertThat(stats.getMax()).isEqualTo(8000);
+        assertThat(stats.getAverage()).isEqualTo(4750.0);
+
+        Map<String, List<PricePoint>> cheapest =
+                productPriceIndex.cheapest(null, 10, null, null);
+        assertThat(ids(cheapest.get("냥이월드"))).containsExactly(4L, 1L, 2L);
+        assertThat(ids(cheapest.get("Codesoom"))).containsExactly(5L);
+    }
+
+    @Test
+    void rebuildWithDeleteDuringScan() {
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "냥이월드", 5000, 0L));
+            productPriceIndex.onProductEvent(new ProductEvent(
+                    ProductEvent.Type.DELETED,
+                    product(2L, "냥이월드", 3000, 0L)));
+            consumer.accept(product(2L, "냥이월드", 3000, 0L));
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productPriceIndex.rebuild();
+
+        assertThat(productPriceIndex.size()).isEqualTo(1);
+
+        productPriceIndex.put(product(2L, "냥이월드", 3000, 1L));
+
+        assertThat(productPriceIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void statsDuringRebuildSeeOldEntries() {
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "냥이월드", 5000, 0L));
+            assertThat(productPriceIndex.size()).isEqualTo(4);
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productPriceIndex.rebuild();
+
+        assertThat(productPriceIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildKeepsWriteDuringScan() {
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "냥이월드", 5000, 0L));
+            productPriceIndex.onProductEvent(new ProductEvent(
+                    ProductEvent.Type.UPDATED,
+                    product(1L, "냥이월드", 4000, 1L)));
+            productPriceIndex.onProductEvent(new ProductEvent(
+                    ProductEvent.Type.CREATED,
+                    product(5L, "냥이월드", 1000, 0L)));
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productPriceIndex.rebuild();
+
+        PriceStats stats = productPriceIndex.stats(null, null, null);
+        assertThat(stats.getCount()).isEqualTo(2);
+        assertThat(stats.getMin()).isEqualTo(1000);
+        assertThat(stats.getMax()).isEqualTo(4000);
+    }
+
+    @Test
+    void productWithoutPriceOrMaker() {
+        productPriceIndex.put(Product.builder().id(5L).build());
+
+        assertThat(productPriceIndex.stats(null, null, "").getCount())
+                .isZero();
+        assertThat(productPriceIndex.stats(null, null, null).getCount())
+                .isEqualTo(4);
+
+        productPriceIndex.put(Product.builder().id(6L).price(100).build());
+
+        assertThat(productPriceIndex.stats(null, null, "").getMin())
+                .isEqualTo(100);
+    }
+
+    private static List<Long> ids(List<PricePoint> points) {
+        return points.stream().map(PricePoint::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static Product product(Long id, String maker, int price,
+                                   Long version) {
+        return Product.builder()
+                .id(id)
+                .name("쥐돌이")
+                .maker(maker)
+                .price(price)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,259 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductSearchQuery;
+import com.codesoom.assignment.dto.ProductSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+class ProductSearchIndexTest {
+    private ProductSearchIndex productSearchIndex;
+
+    private ProductService productService = mock(ProductService.class);
+
+    @BeforeEach
+    void setUp() {
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "쥐돌이", "냥이월드", 5000));
+            consumer.accept(product(2L, "쥐순이", "냥이월드", 3000));
+            consumer.accept(product(3L, "Fish Toy", "Codesoom", 10000));
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productSearchIndex = new ProductSearchIndex(productService);
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void rebuild() {
+        assertThat(productSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void searchWithoutFilter() {
+        ProductSearchQuery query = query();
+        query.setMinPrice(0);
+
+        ProductSearchResult result = search(query);
+
+        assertThat(result.getTotal()).isZero();
+        assertThat(ids(result)).isEmpty();
+        assertThat(result.getMakers()).isEmpty();
+    }
+
+    @Test
+    void searchWithFacets() {
+        ProductSearchQuery query = query();
+        query.setQ("o");
+
+        ProductSearchResult result = search(query);
+
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result.getMakers()).isEqualTo(Map.of("Codesoom", 1L));
+
+        query.setQ("쥐");
+        assertThat(search(query).getMakers())
+                .isEqualTo(Map.of("냥이월드", 2L));
+    }
+
+    @Test
+    void searchWithText() {
+        ProductSearchQuery query = query();
+        query.setQ("돌이");
+
+        assertThat(ids(search(query))).containsExactly(1L);
+
+        query.setQ("쥐");
+        assertThat(ids(search(query))).containsExactly(1L, 2L);
+
+        query.setQ("fish codesoom");
+        assertThat(ids(search(query))).containsExactly(3L);
+
+        query.setQ("고양이");
+        assertThat(ids(search(query))).isEmpty();
+    }
+
+    @Test
+    void searchWithMaker() {
+        ProductSearchQuery query = query();
+        query.setMaker("codesoom");
+
+        assertThat(ids(search(query))).containsExactly(3L);
+    }
+
+    @Test
+    void searchWithPriceRange() {
+        ProductSearchQuery query = query();
+        query.setMaker("냥이월드");
+        query.setMinPrice(4000);
+        query.setMaxPrice(10000);
+
+        assertThat(ids(search(query))).containsExactly(1L);
+
+        query.setMaker(null);
+        query.setQ("쥐");
+        query.setMaxPrice(4000);
+        assertThat(ids(search(query))).isEmpty();
+
+        query.setMinPrice(null);
+        assertThat(ids(search(query))).containsExactly(2L);
+    }
+
+    @Test
+    void searchWithSort() {
+        productSearchIndex.put(product(4L, "Cat Toy", "Codesoom", 7000));
+
+        ProductSearchQuery query = query();
+        query.setQ("o");
+
+        query.setSort("price");
+        assertThat(ids(search(query))).containsExactly(4L, 3L);
+
+        query.setSort("-price");
+        assertThat(ids(search(query))).containsExactly(3L, 4L);
+
+        query.setSort("name");
+        assertThat(ids(search(query))).containsExactly(4L, 3L);
+
+        query.setSort("-name");
+        assertThat(ids(search(query))).containsExactly(3L, 4L);
+
+        query.setSort("-id");
+        assertThat(ids(search(query))).containsExactly(4L, 3L);
+
+        query.setSort("id");
+        assertThat(ids(search(query))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void searchWithLimit() {
+        ProductSearchQuery query = query();
+        query.setMaker("냥이월드");
+        query.setSort("-price");
+        query.setLimit(1);
+
+        ProductSearchResult result = search(query);
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(ids(result)).containsExactly(1L);
+    }
+
+    @Test
+    void onProductEvent() {
+        productSearchIndex.onProductEvent(new ProductEvent(
+                ProductEvent.Type.UPDATED,
+                product(1L, "물고기", "냥이월드", 5000)));
+        productSearchIndex.onProductEvent(new ProductEvent(
+                ProductEvent.Type.DELETED,
+                product(2L, "쥐순이", "냥이월드", 3000)));
+
+        ProductSearchQuery query = query();
+        query.setQ("쥐");
+        assertThat(ids(search(query))).isEmpty();
+
+        query.setQ("물고기");
+        assertThat(ids(search(query))).containsExactly(1L);
+    }
+
+    @Test
+    void putWithOlderVersion() {
+        productSearchIndex.put(Product.builder().id(4L).name("새")
+                .maker("냥이월드").price(100).version(2L).build());
+        productSearchIndex.put(Product.builder().id(4L).name("헌")
+                .maker("냥이월드").price(100).version(1L).build());
+
+        ProductSearchQuery query = query();
+        query.setQ("새");
+
+        assertThat(ids(search(query))).containsExactly(4L);
+    }
+
+    @Test
+    void rebuildWithDeleteDuringScan() {
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "쥐돌이", "냥이월드", 5000));
+            productSearchIndex.onProductEvent(new ProductEvent(
+                    ProductEvent.Type.DELETED,
+                    product(2L, "쥐순이", "냥이월드", 3000)));
+            consumer.accept(product(2L, "쥐순이", "냥이월드", 3000));
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productSearchIndex.rebuild();
+
+        ProductSearchQuery query = query();
+        query.setQ("쥐");
+        assertThat(ids(search(query))).containsExactly(1L);
+    }
+
+    @Test
+    void searchDuringRebuildSeesOldIndex() {
+        ProductSearchQuery query = query();
+        query.setQ("쥐");
+
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "쥐돌이", "냥이월드", 5000));
+            assertThat(ids(search(query))).containsExactly(1L, 2L);
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productSearchIndex.rebuild();
+
+        assertThat(ids(search(query))).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildKeepsWriteDuringScan() {
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product(1L, "쥐돌이", "냥이월드", 5000));
+            productSearchIndex.onProductEvent(new ProductEvent(
+                    ProductEvent.Type.CREATED,
+                    product(4L, "쥐방울", "냥이월드", 1000)));
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        productSearchIndex.rebuild();
+
+        ProductSearchQuery query = query();
+        query.setQ("쥐");
+        assertThat(ids(search(query))).containsExactly(1L, 4L);
+    }
+
+    private ProductSearchResult search(ProductSearchQuery query) {
+        return productSearchIndex.search(query);
+    }
+
+    private ProductSearchQuery query() {
+        return new ProductSearchQuery();
+    }
+
+    private List<Long> ids(ProductSearchResult result) {
+        return result.getProducts().stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+    }
+
+    private Product product(Long id, String name, String maker, int price) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .maker(maker)
+                .price(price)
+                .build();
+    }
+}
@@ -1,20 +1,32 @@
 package com.codesoom.assignment.application;
 
 import com.codesoom.assignment.ProductNotFoundException;
+import com.codesoom.assignment.ProductVersionMismatchException;
 import com.codesoom.assignment.domain.Product;
 import com.codesoom.assignment.domain.ProductRepository;
 import com.codesoom.assignment.dto.ProductData;
+import com.codesoom.assignment.dto.ProductLookupResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class ProductServiceTest {
@@ -22,23 +34,33 @@ class ProductServiceTest {
 
     private ProductRepository productRepository = mock(ProductRepository.class);
 
+    private ApplicationEventPublisher eventPublisher =
+            mock(ApplicationEventPublisher.class);
+
     @BeforeEach
     void setUp() {
-        productService = new ProductService(productRepository);
+        productService = new ProductService(productRepository,
+                new ProductCache(100, Duration.ofMinutes(10)),
+                eventPublisher);
 
         Product product = Product.builder()
                 .id(1L)
                 .name("쥐돌이")
                 .maker("냥이월드")
                 .price(5000)
+                .version(3L)
                 .build();
 
-        given(productRepository.findAll()).willReturn(List.of(product));
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(
+                eq(0L), any(Pageable.class))).willReturn(List.of(product));
 
         given(productRepository.findById(1L)).willReturn(Optional.of(product));
 
         given(productRepository.save(any(Product.class))).will(invocation -> {
             Product source = invocation.getArgument(0);
+            if (source.getId() != null) {
+                return source;
+            }
             return Product.builder()
                     .id(2L)
                     .name(source.getName())
@@ -50,20 +72,71 @@ class ProductServiceTest {
 
     @Test
     void getProductsWithNoProduct() {
-        given(productRepository.findAll()).willReturn(List.of());
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(
+                eq(0L), any(Pageable.class))).willReturn(List.of());
 
-        assertThat(productService.getProducts()).isEmpty();
+        assertThat(productService.getProducts(null, 10)).isEmpty();
     }
 
     @Test
     void getProducts() {
-        List<Product> products = productService.getProducts();
+        List<Product> products = productService.getProducts(null, 10);
 
         assertThat(products).isNotEmpty();
 
         Product product = products.get(0);
 
         assertThat(product.getName()).isEqualTo("쥐돌이");
+
+        verify(productRepository)
+                .findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getProductsAfterCursor() {
+        productService.getProducts(5L, 10);
+
+        verify(productRepository)
+                .findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getProductViews() {
+        productService.getProductViews(null, 10, Set.of("name"));
+        productService.getProductViews(5L, 10, Set.of("name"));
+
+        verify(productRepository)
+                .findViewsByIdGreaterThan(0L, Set.of("name"), 10);
+        verify(productRepository)
+                .findViewsByIdGreaterThan(5L, Set.of("name"), 10);
+    }
+
+    @Test
+    void forEachProduct() {
+        Product second = Product.builder().id(2L).name("쥐순이").build();
+        Product third = Product.builder().id(3L).name("쥐식이").build();
+
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(
+                eq(0L), any(Pageable.class)))
+                .willReturn(List.of(Product.builder().id(1L).build(), second));
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(
+                eq(2L), any(Pageable.class))).willReturn(List.of(third));
+
+        List<Long> ids = new ArrayList<>();
+        productService.forEachProduct(2, product -> ids.add(product.getId()));
+
+        assertThat(ids).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void forEachProductWithNoProduct() {
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(
+                eq(0L), any(Pageable.class))).willReturn(List.of());
+
+        List<Long> ids = new ArrayList<>();
+        productService.forEachProduct(2, product -> ids.add(product.getId()));
+
+        assertThat(ids).isEmpty();
     }
 
     @Test
@@ -74,6 +147,71 @@ class ProductServiceTest {
         assertThat(product.getName()).isEqualTo("쥐돌이");
     }
 
+    @Test
+    void getProductFromCache() {
+        productService.getProduct(1L);
+        Product product = productService.getProduct(1L);
+
+        assertThat(product.getName()).isEqualTo("쥐돌이");
+
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getProductAfterUpdate() {
+        productService.getProduct(1L);
+
+        productService.updateProduct(1L, ProductData.builder()
+                .name("쥐순이")
+                .maker("냥이월드")
+                .price(5000)
+                .build());
+
+        productService.getProduct(1L);
+
+        verify(productRepository, times(3)).findById(1L);
+    }
+
+    @Test
+    void getProductsByIds() {
+        given(productRepository.findAllById(List.of(1000L, 1L)))
+                .willReturn(List.of(Product.builder().id(1L).build()));
+
+        ProductLookupResult result =
+                productService.getProducts(List.of(1000L, 1L, 1000L));
+
+        assertThat(result.getProducts()).extracting(Product::getId)
+                .containsExactly(1L);
+        assertThat(result.getMissing()).containsExactly(1000L);
+    }
+
+    @Test
+    void getProductsByIdsFromCache() {
+        productService.getProduct(1L);
+
+        ProductLookupResult result = productService.getProducts(List.of(1L));
+
+        assertThat(result.getProducts()).extracting(Product::getName)
+                .containsExactly("쥐돌이");
+
+        verify(productRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void getProductsByIdsInChunks() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= ProductService.LOOKUP_CHUNK_SIZE * 2 + 1;
+             id += 1) {
+            ids.add(id);
+        }
+
+        ProductLookupResult result = productService.getProducts(ids);
+
+        assertThat(result.getMissing()).hasSize(ids.size());
+
+        verify(productRepository, times(3)).findAllById(anyIterable());
+    }
+
     @Test
     void getProductWithNotExsitedId() {
         assertThatThrownBy(() -> productService.getProduct(1000L))
@@ -95,6 +233,8 @@ class ProductServiceTest {
         assertThat(product.getId()).isEqualTo(2L);
         assertThat(product.getName()).isEqualTo("쥐돌이");
         assertThat(product.getMaker()).isEqualTo("냥이월드");
+
+        verify(eventPublisher).publishEvent(any(ProductEvent.class));
     }
 
     @Test
@@ -109,6 +249,34 @@ class ProductServiceTest {
 
         assertThat(product.getId()).isEqualTo(1L);
         assertThat(product.getName()).isEqualTo("쥐순이");
+
+        verify(eventPublisher).publishEvent(any(ProductEvent.class));
+    }
+
+    @Test
+    void updateProductWithMatchingVersion() {
+        ProductData productData = ProductData.builder()
+                .name("쥐순이")
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+
+        Product product = productService.updateProduct(1L, productData, 3L);
+
+        assertThat(product.getName()).isEqualTo("쥐순이");
+    }
+
+    @Test
+    void updateProductWithStaleVersion() {
+        ProductData productData = ProductData.builder()
+                .name("쥐순이")
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+
+        assertThatThrownBy(
+                () -> productService.updateProduct(1L, productData, 2L))
+                .isInstanceOf(ProductVersionMismatchException.class);
     }
 
     @Test
@@ -128,6 +296,7 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository).delete(any(Product.class));
+        verify(eventPublisher).publishEvent(any(ProductEvent.class));
     }
 
     @Test
@@ -0,0 +1,80 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.dto.ProductData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductUpdateJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readEmptyJournal() throws IOException {
+        ProductUpdateJournal journal = journalIn(directory);
+
+        assertThat(journal.read()).isEmpty();
+    }
+
+    @Test
+    void appendSurvivesReopen() throws IOException {
+        ProductUpdateJournal journal = journalIn(directory);
+        journal.append(update(1L, "쥐돌이"));
+        journal.append(update(2L, "쥐순이"));
+        journal.close();
+
+        List<ProductData> updates = journalIn(directory).read();
+
+        assertThat(updates).extracting(ProductData::getName)
+                .containsExactly("쥐돌이", "쥐순이");
+    }
+
+    @Test
+    void rewriteKeepsOnlyPendingUpdates() throws IOException {
+        ProductUpdateJournal journal = journalIn(directory);
+        journal.append(update(1L, "쥐돌이"));
+        journal.append(update(2L, "쥐순이"));
+
+        journal.rewrite(List.of(update(2L, "쥐순이")));
+        journal.append(update(3L, "범냐옹"));
+
+        assertThat(journal.read()).extracting(ProductData::getId)
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    void readSkipsTornLine() throws IOException {
+        ProductUpdateJournal journal = journalIn(directory);
+        journal.append(update(1L, "쥐돌이"));
+        Files.write(directory.resolve("updates.journal"),
+                "\n{\"id\":2,\"na".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        assertThat(journal.read()).extracting(ProductData::getId)
+                .containsExactly(1L);
+    }
+
+    private static ProductUpdateJournal journalIn(Path directory)
+            throws IOException {
+        return new ProductUpdateJournal(
+                directory.resolve("updates.journal"), new ObjectMapper());
+    }
+
+    private static ProductData update(Long id, String name) {
+        return ProductData.builder()
+                .id(id)
+                .name(name)
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+    }
+}
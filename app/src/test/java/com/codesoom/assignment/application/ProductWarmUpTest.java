@@ -0,0 +1,133 @@
+package com.codesoom.assignment.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductWarmUpTest {
+    private HttpServer server;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private final List<String> tokens = new CopyOnWriteArrayList<>();
+
+    private int listStatus = 200;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/products", exchange -> {
+            String uri = exchange.getRequestURI().toString();
+            requests.add(uri);
+            tokens.add(exchange.getRequestHeaders()
+                    .getFirst(ProductWarmUp.TOKEN_HEADER));
+
+            int status = uri.startsWith("/products?fields=id&")
+                    ? listStatus
+                    : uri.equals("/products/2") ? 404 : 200;
+            byte[] body = "[{\"id\":1},{\"id\":2}]"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void warmUp() throws InterruptedException {
+        int failures = warmUp(3).warmUp(baseUrl());
+
+        assertThat(failures).isEqualTo(3);
+        assertThat(requests).contains(
+                "/products",
+                "/products?fields=id,name,price",
+                "/products/1",
+                "/products?ids=1,2");
+        assertThat(requests).filteredOn("/products"::equals).hasSize(3);
+    }
+
+    @Test
+    void warmUpRequestsCarryToken() throws InterruptedException {
+        ProductWarmUp warmUp = warmUp(1);
+        warmUp.warmUp(baseUrl());
+
+        assertThat(tokens).hasSameSizeAs(requests).doesNotContainNull();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ProductWarmUp.TOKEN_HEADER, tokens.get(0));
+
+        assertThat(warmUp.isWarmUp(request)).isTrue();
+        assertThat(warmUp(1).isWarmUp(request)).isFalse();
+        assertThat(warmUp.isWarmUp(new MockHttpServletRequest())).isFalse();
+    }
+
+    @Test
+    void warmUpWithoutProducts() throws InterruptedException {
+        listStatus = 500;
+
+        int failures = warmUp(1).warmUp(baseUrl());
+
+        assertThat(failures).isZero();
+        assertThat(requests).doesNotContain("/products/1");
+    }
+
+    @Test
+    void warmUpWithoutServer() throws InterruptedException {
+        URI baseUrl = baseUrl();
+        server.stop(0);
+
+        assertThat(warmUp(1).warmUp(baseUrl)).isEqualTo(2);
+    }
+
+    @Test
+    void run() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("local.server.port",
+                        String.valueOf(server.getAddress().getPort()));
+
+        new ProductWarmUp(environment, new ObjectMapper(), 1)
+                .run(new DefaultApplicationArguments());
+
+        assertThat(requests).contains("/products");
+    }
+
+    @Test
+    void runWithoutWebServer() throws Exception {
+        new ProductWarmUp(new MockEnvironment(), new ObjectMapper(), 1)
+                .run(new DefaultApplicationArguments());
+
+        assertThat(requests).isEmpty();
+    }
+
+    private ProductWarmUp warmUp(int iterations) {
+        return new ProductWarmUp(new MockEnvironment(), new ObjectMapper(),
+                iterations);
+    }
+
+    private URI baseUrl() {
+        return URI.create("http://localhost:"
+                + server.getAddress().getPort());
+    }
+}
@@ -0,0 +1,293 @@
+package com.codesoom.assignment.application;
+
+import com.codesoom.assignment.ProductNotFoundException;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.BatchItemResult;
+import com.codesoom.assignment.dto.ProductData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ProductWriteBehindTest {
+    @TempDir
+    Path directory;
+
+    private ProductService productService = mock(ProductService.class);
+
+    private ProductBatchService productBatchService =
+            mock(ProductBatchService.class);
+
+    private ProductUpdateJournal journal;
+
+    private ProductWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (long id = 1; id <= 3; id += 1) {
+            given(productService.getProduct(id)).willReturn(Product.builder()
+                    .id(id)
+                    .name("쥐돌이")
+                    .maker("냥이월드")
+                    .price(5000)
+                    .version(3L)
+                    .build());
+        }
+
+        given(productService.getProduct(1000L))
+                .willThrow(new ProductNotFoundException(1000L));
+
+        given(productBatchService.updateProducts(anyList())).willReturn(List.of(
+                BatchItemResult.builder().id(1L).status(200).build(),
+                BatchItemResult.builder().id(2L).status(404)
+                        .message("Product not found").build()));
+
+        journal = new ProductUpdateJournal(
+                directory.resolve("updates.journal"), new ObjectMapper());
+        writeBehind = writeBehind(10);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void updateProductIsBuffered() {
+        Product product = writeBehind.updateProduct(1L, change(4000));
+
+        assertThat(product.getPrice()).isEqualTo(4000);
+        assertThat(product.getVersion()).isEqualTo(3L);
+        assertThat(writeBehind.pendingCount()).isEqualTo(1);
+        assertThat(journal.read()).extracting(ProductData::getId)
+                .containsExactly(1L);
+
+        verify(productBatchService, never()).updateProducts(anyList());
+    }
+
+    @Test
+    void updateProductWithNotExistedProduct() {
+        assertThatThrownBy(() -> writeBehind.updateProduct(1000L, change(1)))
+                .isInstanceOf(ProductNotFoundException.class);
+
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    void findPending() {
+        writeBehind.updateProduct(1L, change(4000));
+
+        assertThat(writeBehind.findPending(1L))
+                .hasValueSatisfying(product ->
+                        assertThat(product.getPrice()).isEqualTo(4000));
+        assertThat(writeBehind.findPending(2L)).isEmpty();
+    }
+
+    @Test
+    void flushCoalescesUpdatesPerProduct() {
+        writeBehind.updateProduct(1L, change(4000));
+        writeBehind.updateProduct(2L, change(3000));
+        writeBehind.updateProduct(1L, change(4500));
+
+        writeBehind.flush();
+
+        assertThat(flushed()).containsExactly(List.of(2L, 1L));
+        assertThat(writeBehind.pendingCount()).isZero();
+        assertThat(writeBehind.findPending(1L)).isEmpty();
+        assertThat(journal.read()).isEmpty();
+    }
+
+    @Test
+    void flushSplitsBatches() throws Exception {
+        writeBehind.shutdown();
+        writeBehind = writeBehind(2);
+
+        writeBehind.updateProduct(1L, change(4000));
+        writeBehind.updateProduct(2L, change(3000));
+
+        verify(productBatchService, timeout(1000)).updateProducts(anyList());
+
+        writeBehind.updateProduct(3L, change(3000));
+        writeBehind.flush();
+
+        assertThat(flushed()).containsExactly(List.of(1L, 2L), List.of(3L));
+    }
+
+    @Test
+    void flushWithNothingPending() {
+        writeBehind.flush();
+
+        verify(productBatchService, never()).updateProducts(anyList());
+    }
+
+    @Test
+    void flushWithFailure() {
+        given(productBatchService.updateProducts(anyList()))
+                .willThrow(new IllegalStateException("database is down"));
+
+        writeBehind.updateProduct(1L, change(4000));
+
+        assertThatThrownBy(() -> writeBehind.flush())
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(writeBehind.pendingCount()).isEqualTo(1);
+        assertThat(journal.read()).hasSize(1);
+
+        willReturn(List.of()).given(productBatchService)
+                .updateProducts(anyList());
+    }
+
+    @Test
+    void backgroundFlushWithFailure() throws Exception {
+        willThrow(new IllegalStateException("database is down"))
+                .given(productBatchService).updateProducts(anyList());
+
+        writeBehind.shutdown();
+        writeBehind = writeBehind(1);
+
+        writeBehind.updateProduct(1L, change(4000));
+
+        verify(productBatchService, timeout(1000)).updateProducts(anyList());
+        assertThat(journal.read()).hasSize(1);
+
+        willReturn(List.of()).given(productBatchService)
+                .updateProducts(anyList());
+    }
+
+    @Test
+    void discard() {
+        writeBehind.updateProduct(1L, change(4000));
+
+        writeBehind.discard(1L);
+
+        assertThat(writeBehind.findPending(1L)).isEmpty();
+        assertThat(journal.read()).isEmpty();
+    }
+
+    @Test
+    void discardWhileFlushing() {
+        given(productBatchService.updateProducts(anyList()))
+                .willAnswer(invocation -> {
+                    writeBehind.discard(1L);
+                    throw new IllegalStateException("database is down");
+                });
+
+        writeBehind.updateProduct(1L, change(4000));
+        writeBehind.updateProduct(2L, change(3000));
+
+        assertThatThrownBy(() -> writeBehind.flush())
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(writeBehind.findPending(1L)).isEmpty();
+        assertThat(writeBehind.pendingCount()).isEqualTo(1);
+        assertThat(journal.read()).extracting(ProductData::getId)
+                .containsExactly(2L);
+
+        willReturn(List.of()).given(productBatchService)
+                .updateProducts(anyList());
+    }
+
+    @Test
+    void discardBeforeLaterBatch() throws Exception {
+        for (long id = 1; id <= 3; id += 1) {
+            journal.append(ProductData.builder().id(id).price(4000).build());
+        }
+
+        writeBehind.shutdown();
+        writeBehind = writeBehind(2);
+
+        given(productBatchService.updateProducts(anyList()))
+                .willAnswer(invocation -> {
+                    writeBehind.discard(3L);
+                    return List.of();
+                });
+
+        writeBehind.flush();
+
+        assertThat(flushed()).containsExactly(List.of(1L, 2L));
+        assertThat(journal.read()).isEmpty();
+    }
+
+    @Test
+    void replayJournalOnStartup() throws Exception {
+        writeBehind.updateProduct(1L, change(4000));
+        writeBehind.updateProduct(1L, change(4500));
+
+        ProductWriteBehind restarted = writeBehind(10);
+
+        assertThat(restarted.findPending(1L))
+                .hasValueSatisfying(product ->
+                        assertThat(product.getPrice()).isEqualTo(4500));
+        assertThat(restarted.pendingCount()).isEqualTo(1);
+
+        restarted.shutdown();
+    }
+
+    @Test
+    void appendAfterTornLineIsReplayed() throws Exception {
+        writeBehind.updateProduct(1L, change(4000));
+        Files.writeString(directory.resolve("updates.journal"),
+                "{\"id\":2,\"pri", StandardOpenOption.APPEND);
+
+        writeBehind.shutdown();
+        writeBehind = writeBehind(10);
+        writeBehind.updateProduct(3L, change(3000));
+
+        ProductWriteBehind restarted = writeBehind(10);
+
+        assertThat(restarted.findPending(3L))
+                .hasValueSatisfying(product ->
+                        assertThat(product.getPrice()).isEqualTo(3000));
+        assertThat(restarted.pendingCount()).isEqualTo(2);
+
+        restarted.shutdown();
+    }
+
+    private ProductWriteBehind writeBehind(int batchSize) {
+        return new ProductWriteBehind(productService, productBatchService,
+                journal, batchSize, Duration.ofHours(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Long>> flushed() {
+        ArgumentCaptor<List<ProductData>> captor =
+                ArgumentCaptor.forClass(List.class);
+        verify(productBatchService, atLeastOnce())
+                .updateProducts(captor.capture());
+        return captor.getAllValues().stream()
+                .map(batch -> batch.stream()
+                        .map(ProductData::getId)
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    private static ProductData change(int price) {
+        return ProductData.builder()
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(price)
+                .build();
+    }
+}
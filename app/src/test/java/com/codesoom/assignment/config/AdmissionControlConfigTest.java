@@ -0,0 +1,70 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.application.ProductWarmUp;
+import com.codesoom.assignment.controllers.ConcurrencyLimitFilter;
+import com.codesoom.assignment.controllers.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.Ordered;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlConfigTest {
+    private final AdmissionControlConfig config = new AdmissionControlConfig();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rateLimitFilter() {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                config.rateLimitFilter(100, 200, 10, 20, "X-API-Key",
+                        Set.of("key"), objectMapper, meterRegistry,
+                        Optional.empty());
+
+        assertThat(registration.getFilter()).isNotNull();
+        assertThat(registration.getUrlPatterns())
+                .containsExactly("/products", "/products/*");
+        assertThat(registration.getOrder())
+                .isEqualTo(Ordered.HIGHEST_PRECEDENCE + 10);
+    }
+
+    @Test
+    void concurrencyLimitFilter() {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                config.concurrencyLimitFilter(20, 5, 1000, objectMapper,
+                        meterRegistry, Optional.empty());
+
+        assertThat(registration.getFilter()).isNotNull();
+        assertThat(registration.getUrlPatterns())
+                .containsExactly("/products", "/products/*");
+        assertThat(registration.getOrder())
+                .isEqualTo(Ordered.HIGHEST_PRECEDENCE + 20);
+    }
+
+    @Test
+    void exemptOfNoWarmUp() {
+        assertThat(AdmissionControlConfig.exemptOf(Optional.empty())
+                .test(new MockHttpServletRequest())).isFalse();
+    }
+
+    @Test
+    void exemptOfWarmUp() {
+        ProductWarmUp warmUp = new ProductWarmUp(new MockEnvironment(),
+                objectMapper, 1);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ProductWarmUp.TOKEN_HEADER, "guessed");
+
+        assertThat(AdmissionControlConfig.exemptOf(Optional.of(warmUp))
+                .test(request)).isFalse();
+    }
+}
@@ -0,0 +1,31 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.infra.UdpInvalidationBus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusterInvalidationConfigTest {
+    private final ClusterInvalidationConfig config =
+            new ClusterInvalidationConfig();
+
+    @Test
+    void invalidationBus() throws Exception {
+        UdpInvalidationBus bus = config.invalidationBus("127.0.0.1:0",
+                List.of(" 127.0.0.1:7701 ", "", "localhost:7702"),
+                Duration.ofMillis(10), Duration.ofSeconds(5), 100);
+
+        bus.close();
+    }
+
+    @Test
+    void invalidationBusWithBadPeer() {
+        assertThatThrownBy(() -> config.invalidationBus("127.0.0.1:0",
+                List.of("localhost:port"),
+                Duration.ofMillis(10), Duration.ofSeconds(5), 100))
+                .isInstanceOf(NumberFormatException.class);
+    }
+}
@@ -0,0 +1,33 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.infra.MemoryProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryRepositoryConfigTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void memoryProductRepository() throws Exception {
+        ProductRepository repository = new MemoryRepositoryConfig()
+                .memoryProductRepository(directory, false,
+                        DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+
+        assertThat(repository).isInstanceOf(MemoryProductRepository.class);
+
+        Product product = repository.save(
+                Product.builder().name("쥐돌이").build());
+
+        assertThat(repository.findById(product.getId())).isPresent();
+
+        ((MemoryProductRepository) repository).close();
+    }
+}
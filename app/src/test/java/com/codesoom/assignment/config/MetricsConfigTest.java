@@ -0,0 +1,79 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.application.ProductCache;
+import com.codesoom.assignment.application.ProductListSnapshots;
+import com.codesoom.assignment.infra.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+
+class MetricsConfigTest {
+    private final MetricsConfig config = new MetricsConfig();
+
+    private SimpleMeterRegistry registry;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        productCache = new ProductCache(10, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void repositoryMetricsPostProcessor() {
+        assertThat(MetricsConfig.repositoryMetricsPostProcessor(
+                new StaticListableBeanFactory(
+                        Map.of("meterRegistry", registry))
+                        .getBeanProvider(MeterRegistry.class)))
+                .isNotNull();
+    }
+
+    @Test
+    void timedAspect() {
+        assertThat(config.timedAspect(registry)).isNotNull();
+    }
+
+    @Test
+    void productCacheMetrics() {
+        config.productCacheMetrics(productCache).bindTo(registry);
+
+        assertThat(registry.get("product.cache.requests")
+                .tag("result", "hit").functionCounter().count()).isZero();
+        assertThat(registry.get("product.cache.requests")
+                .tag("result", "miss").functionCounter().count()).isZero();
+        assertThat(registry.get("product.cache.evictions")
+                .functionCounter().count()).isZero();
+        assertThat(registry.get("product.cache.size").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void singleFlightMetrics() {
+        ProductListSnapshots listSnapshots = mock(ProductListSnapshots.class);
+        willReturn(new SingleFlight<>(Duration.ofSeconds(1), 10))
+                .given(listSnapshots).builds();
+
+        config.singleFlightMetrics(productCache, listSnapshots)
+                .bindTo(registry);
+
+        for (String flight : new String[]{"product", "list"}) {
+            for (String result : new String[]{
+                    "leader", "coalesced", "timeout", "rejected"}) {
+                assertThat(registry.get("product.single-flight.calls")
+                        .tag("flight", flight)
+                        .tag("result", result)
+                        .functionCounter().count()).isZero();
+            }
+        }
+    }
+}
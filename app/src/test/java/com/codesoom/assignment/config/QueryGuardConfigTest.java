@@ -0,0 +1,68 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.controllers.QueryCountFilter;
+import com.codesoom.assignment.infra.QueryGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class QueryGuardConfigTest {
+    private final QueryGuardConfig config = new QueryGuardConfig();
+
+    private final QueryGuard queryGuard =
+            config.queryGuard(Duration.ofMillis(100));
+
+    private final BeanPostProcessor postProcessor =
+            QueryGuardConfig.queryGuardDataSourcePostProcessor(
+                    new StaticListableBeanFactory(
+                            Map.of("queryGuard", queryGuard))
+                            .getBeanProvider(QueryGuard.class));
+
+    private final DataSource dataSource = mock(DataSource.class);
+
+    @Test
+    void queryCountFilter() {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                config.queryCountFilter(queryGuard, 10, "fail",
+                        Set.of("/products/stream"),
+                        new SimpleMeterRegistry());
+
+        assertThat(registration.getFilter()).isNotNull();
+        assertThat(registration.getUrlPatterns()).containsExactly("/*");
+        assertThat(registration.getOrder())
+                .isEqualTo(Ordered.HIGHEST_PRECEDENCE + 30);
+    }
+
+    @Test
+    void postProcessOtherBean() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(
+                bean, "dataSource")).isSameAs(bean);
+    }
+
+    @Test
+    void postProcessOtherDataSource() {
+        assertThat(postProcessor.postProcessAfterInitialization(
+                dataSource, "replicaDataSource")).isSameAs(dataSource);
+    }
+
+    @Test
+    void postProcessDataSource() {
+        assertThat(postProcessor.postProcessAfterInitialization(
+                dataSource, "dataSource"))
+                .isInstanceOf(ProxyDataSource.class);
+    }
+}
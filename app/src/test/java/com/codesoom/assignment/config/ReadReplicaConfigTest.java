@@ -0,0 +1,63 @@
+package com.codesoom.assignment.config;
+
+import com.codesoom.assignment.infra.ReadReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaConfigTest {
+    private static final String URL = "jdbc:h2:mem:replica";
+
+    private final ReadReplicaConfig config = new ReadReplicaConfig();
+
+    private DataSourceProperties properties;
+
+    private HikariDataSource primary;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:primary");
+        properties.setUsername("sa");
+        properties.afterPropertiesSet();
+
+        primary = config.primaryDataSource(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+    }
+
+    @Test
+    void replicasShareCredentials() throws Exception {
+        try (ReadReplicaRoutingDataSource routing =
+                     routing("", "")) {
+            assertThat(config.dataSource(routing))
+                    .isInstanceOf(LazyConnectionDataSourceProxy.class);
+        }
+    }
+
+    @Test
+    void replicasWithOwnCredentials() throws Exception {
+        try (ReadReplicaRoutingDataSource routing =
+                     routing("reader", "secret")) {
+            assertThat(routing).isNotNull();
+        }
+    }
+
+    private ReadReplicaRoutingDataSource routing(String username,
+                                                 String password) {
+        return config.readReplicaRoutingDataSource(primary, properties,
+                List.of(URL), username, password, "", Duration.ofSeconds(5),
+                Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,45 @@
+package com.codesoom.assignment.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecondLevelCacheConfigTest {
+    private final SecondLevelCacheConfig config = new SecondLevelCacheConfig();
+
+    private final CacheManager cacheManager = config.hibernateCacheManager(
+            100, Duration.ofMinutes(10), 10, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void hibernateCacheManager() {
+        assertThat(cacheManager.getCacheNames()).containsExactlyInAnyOrder(
+                SecondLevelCacheConfig.PRODUCT_REGION,
+                SecondLevelCacheConfig.QUERY_RESULTS_REGION,
+                SecondLevelCacheConfig.UPDATE_TIMESTAMPS_REGION);
+    }
+
+    @Test
+    void secondLevelCacheProperties() {
+        Map<String, Object> properties = new HashMap<>();
+
+        config.secondLevelCacheProperties(cacheManager).customize(properties);
+
+        assertThat(properties)
+                .containsEntry("hibernate.cache.use_second_level_cache",
+                        "true")
+                .containsEntry("hibernate.cache.use_query_cache", "true")
+                .containsEntry("hibernate.javax.cache.cache_manager",
+                        cacheManager);
+    }
+}
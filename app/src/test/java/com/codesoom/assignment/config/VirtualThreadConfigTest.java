@@ -0,0 +1,58 @@
+package com.codesoom.assignment.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class VirtualThreadConfigTest {
+    private final VirtualThreadConfig config = new VirtualThreadConfig();
+
+    @Test
+    void executorOf() {
+        ExecutorService executor =
+                VirtualThreadConfig.executorOf("newCachedThreadPool");
+
+        assertThat(executor.isShutdown()).isFalse();
+
+        executor.shutdown();
+    }
+
+    @Test
+    void executorOfMissingFactory() {
+        assertThatThrownBy(() -> VirtualThreadConfig.executorOf("missing"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+    }
+
+    @Test
+    void virtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) {
+            assertThatThrownBy(config::virtualThreadExecutor)
+                    .isInstanceOf(IllegalStateException.class);
+            return;
+        }
+
+        ExecutorService executor = config.virtualThreadExecutor();
+
+        assertThat(executor.isShutdown()).isFalse();
+
+        executor.shutdown();
+    }
+
+    @Test
+    void virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = mock(ExecutorService.class);
+        ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+
+        config.virtualThreadProtocolHandlerCustomizer(executor)
+                .customize(protocolHandler);
+
+        verify(protocolHandler).setExecutor(executor);
+    }
+}
@@ -0,0 +1,92 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.infra.AdaptiveConcurrencyLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+    private MeterRegistry meterRegistry;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        filter = new ConcurrencyLimitFilter(limiter, new ObjectMapper(),
+                meterRegistry);
+    }
+
+    @Test
+    void admitsWithinLimit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"),
+                response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(count("admitted")).isEqualTo(1);
+        assertThat(meterRegistry.get("product.admission.concurrency.limit")
+                .gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsOverLimit() throws Exception {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // The first request is still running when the second arrives.
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"),
+                new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, (request, response, chain) -> filter.doFilter(
+                        new MockHttpServletRequest("GET", "/products/1"),
+                        rejected, new MockFilterChain())));
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("Server is busy");
+        assertThat(count("rejected")).isEqualTo(1);
+        assertThat(meterRegistry
+                .get("product.admission.concurrency.in-flight")
+                .gauge().value()).isZero();
+    }
+
+    @Test
+    void admitsExemptRequestsOverLimit() throws Exception {
+        filter = new ConcurrencyLimitFilter(limiter, new ObjectMapper(),
+                meterRegistry, request -> request.getRequestURI()
+                .equals("/products/1"));
+        MockHttpServletResponse exempt = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"),
+                new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, (request, response, chain) -> filter.doFilter(
+                        new MockHttpServletRequest("GET", "/products/1"),
+                        exempt, new MockFilterChain())));
+
+        assertThat(exempt.getStatus()).isEqualTo(200);
+        assertThat(count("admitted")).isEqualTo(1);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("product.admission")
+                .tag("limiter", "concurrency")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,108 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductBatchService;
+import com.codesoom.assignment.application.ProductWriteBehind;
+import com.codesoom.assignment.dto.BatchItemResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductBatchController.class)
+class ProductBatchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductBatchService productBatchService;
+
+    @MockBean
+    private ProductWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        List<BatchItemResult> results = List.of(BatchItemResult.builder()
+                .index(0)
+                .id(1L)
+                .status(404)
+                .message("Product not found")
+                .build());
+
+        given(productBatchService.createProducts(anyList()))
+                .willReturn(results);
+        given(productBatchService.updateProducts(anyList()))
+                .willReturn(results);
+        given(productBatchService.deleteProducts(anyList()))
+                .willReturn(results);
+    }
+
+    @Test
+    void create() throws Exception {
+        mockMvc.perform(
+                post("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"쥐돌이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}]")
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("404")));
+
+        verify(productBatchService).createProducts(anyList());
+    }
+
+    @Test
+    void createWithTooManyItems() throws Exception {
+        String items = String.join(",", Collections.nCopies(
+                ProductBatchController.MAX_BATCH_SIZE + 1, "{}"));
+
+        mockMvc.perform(
+                post("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + items + "]")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void update() throws Exception {
+        mockMvc.perform(
+                patch("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"name\":\"쥐순이\"," +
+                                "\"maker\":\"냥이월드\",\"price\":5000}]")
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Product not found")));
+
+        InOrder inOrder = inOrder(writeBehind, productBatchService);
+        inOrder.verify(writeBehind).flush();
+        inOrder.verify(productBatchService).updateProducts(anyList());
+    }
+
+    @Test
+    void destroy() throws Exception {
+        mockMvc.perform(delete("/products/batch?ids=1,2"))
+                .andExpect(status().isOk());
+
+        InOrder inOrder = inOrder(writeBehind, productBatchService);
+        inOrder.verify(writeBehind).discard(1L);
+        inOrder.verify(writeBehind).discard(2L);
+        inOrder.verify(productBatchService).deleteProducts(List.of(1L, 2L));
+    }
+}
@@ -0,0 +1,141 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductChangeFeed;
+import com.codesoom.assignment.application.ProductEvent;
+import com.codesoom.assignment.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ProductChangeController.class,
+        properties = "products.changes.max-lag=5")
+@Import(ProductChangeFeed.class)
+class ProductChangeControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductChangeFeed changeFeed;
+
+    @Test
+    void pollWithPendingChanges() throws Exception {
+        long since = changeFeed.lastSeq();
+        publish(1L);
+
+        MvcResult result = mockMvc.perform(
+                get("/products/changes").param("since", "" + since))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.changes[0].product.id").value(1))
+                .andExpect(jsonPath("$.next").value(since + 1))
+                .andExpect(jsonPath("$.reset").value(false));
+    }
+
+    @Test
+    void pollWaitsForNextChange() throws Exception {
+        long since = changeFeed.lastSeq();
+
+        MvcResult result = mockMvc.perform(
+                get("/products/changes").param("since", "" + since))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getAsyncResult(0)).isNull();
+
+        publish(2L);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].id").value(2));
+    }
+
+    @Test
+    void pollAheadOfFeed() throws Exception {
+        MvcResult result = mockMvc.perform(
+                get("/products/changes")
+                        .param("since", "" + (changeFeed.lastSeq() + 100)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(jsonPath("$.reset").value(true));
+    }
+
+    @Test
+    void stream() throws Exception {
+        long since = changeFeed.lastSeq();
+        publish(3L);
+
+        MvcResult result = mockMvc.perform(
+                get("/products/changes/stream").param("since", "" + since))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        publish(4L);
+
+        String content = awaitContent(result, "\"id\":4");
+
+        assertThat(content)
+                .contains("id:" + (since + 1))
+                .contains("event:CREATED")
+                .contains("\"id\":3");
+    }
+
+    @Test
+    void streamResumesFromLastEventId() throws Exception {
+        long lastEventId = changeFeed.lastSeq() + 100;
+
+        MvcResult result = mockMvc.perform(
+                get("/products/changes/stream")
+                        .header("Last-Event-ID", lastEventId))
+                .andReturn();
+
+        assertThat(awaitContent(result, "event:RESET")).isNotEmpty();
+    }
+
+    @Test
+    void streamResetsLaggingClient() throws Exception {
+        long since = changeFeed.lastSeq();
+        for (long id = 10; id < 16; id += 1) {
+            publish(id);
+        }
+
+        MvcResult result = mockMvc.perform(
+                get("/products/changes/stream").param("since", "" + since))
+                .andReturn();
+
+        assertThat(awaitContent(result, "event:RESET"))
+                .contains("data:" + (since + 6))
+                .doesNotContain("\"id\":10");
+    }
+
+    private void publish(Long id) {
+        changeFeed.onProductEvent(new ProductEvent(ProductEvent.Type.CREATED,
+                Product.builder().id(id).name("쥐돌이").build()));
+    }
+
+    private static String awaitContent(MvcResult result, String expected)
+            throws Exception {
+        for (int i = 0; i < 100; i += 1) {
+            String content = result.getResponse().getContentAsString();
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Timed out waiting for " + expected);
+    }
+}
@@ -0,0 +1,129 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductChangeFeed;
+import com.codesoom.assignment.application.ProductEvent;
+import com.codesoom.assignment.domain.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ProductChangeSubscriptionTest {
+    private final ProductChangeFeed changeFeed = new ProductChangeFeed(100);
+
+    private final SseEmitter emitter = mock(SseEmitter.class);
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+    private final CountDownLatch sending = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        sender.shutdownNow();
+    }
+
+    @Test
+    void sendsEveryKeptChangeFromZero() throws Exception {
+        publish(1L);
+        publish(2L);
+
+        subscribe(0, Duration.ofSeconds(10)).start();
+
+        verify(emitter, timeout(1000).times(2))
+                .send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void dropsClientStuckInSend() throws Exception {
+        blockFirstSend(null);
+        publish(1L);
+
+        subscribe(changeFeed.lastSeq() - 1, Duration.ZERO).start();
+        assertThat(sending.await(1, TimeUnit.SECONDS)).isTrue();
+
+        publish(2L);
+        publish(3L);
+        release.countDown();
+
+        verify(emitter, timeout(1000)).complete();
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void keepsClientWithinSendTimeout() throws Exception {
+        blockFirstSend(null);
+        publish(1L);
+
+        subscribe(changeFeed.lastSeq() - 1, Duration.ofSeconds(10)).start();
+        assertThat(sending.await(1, TimeUnit.SECONDS)).isTrue();
+
+        publish(2L);
+        release.countDown();
+
+        verify(emitter, timeout(1000).times(2))
+                .send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter, never()).complete();
+    }
+
+    @Test
+    void completesWithErrorWhenSendFails() throws Exception {
+        IOException error = new IOException("Broken pipe");
+        blockFirstSend(error);
+        publish(1L);
+
+        subscribe(changeFeed.lastSeq() - 1, Duration.ofSeconds(10)).start();
+        assertThat(sending.await(1, TimeUnit.SECONDS)).isTrue();
+
+        publish(2L);
+        release.countDown();
+
+        verify(emitter, timeout(1000)).completeWithError(error);
+
+        publish(3L);
+        sender.shutdown();
+        assertThat(sender.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    private ProductChangeSubscription subscribe(long since,
+                                                Duration sendTimeout) {
+        return new ProductChangeSubscription(changeFeed, emitter, sender,
+                since, 100, sendTimeout);
+    }
+
+    private void blockFirstSend(IOException error) throws IOException {
+        willAnswer(invocation -> {
+            if (sending.getCount() > 0) {
+                sending.countDown();
+                release.await();
+                if (error != null) {
+                    throw error;
+                }
+            }
+            return null;
+        }).given(emitter).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    private void publish(Long id) {
+        changeFeed.onProductEvent(new ProductEvent(ProductEvent.Type.CREATED,
+                Product.builder().id(id).name("쥐돌이").build()));
+    }
+}
@@ -1,36 +1,69 @@
 package com.codesoom.assignment.controllers;
 
 import com.codesoom.assignment.ProductNotFoundException;
+import com.codesoom.assignment.ProductVersionMismatchException;
+import com.codesoom.assignment.ServiceBusyException;
+import com.codesoom.assignment.application.CatalogVersion;
+import com.codesoom.assignment.application.ProductListSnapshots;
 import com.codesoom.assignment.application.ProductService;
 import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductView;
 import com.codesoom.assignment.dto.ProductData;
+import com.codesoom.assignment.dto.ProductLookupResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(ProductController.class)
+@WebMvcTest(controllers = ProductController.class,
+        properties = "products.list-snapshots.hold-after-write=1m")
+@Import(ProductListSnapshots.class)
 class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ProductListSnapshots listSnapshots;
+
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private CatalogVersion catalogVersion;
+
     @BeforeEach
     void setUp() {
         Product product = Product.builder()
@@ -38,14 +71,38 @@ class ProductControllerTest {
                 .name("쥐돌이")
                 .maker("냥이월드")
                 .price(5000)
+                .version(3L)
                 .build();
 
-        given(productService.getProducts()).willReturn(List.of(product));
+        given(catalogVersion.current()).willReturn("kf2-7");
+
+        listSnapshots.invalidateAll();
+
+        given(productService.getProducts(any(), anyInt()))
+                .willReturn(List.of(product));
+
+        willAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(1);
+            consumer.accept(product);
+            return null;
+        }).given(productService).forEachProduct(anyInt(), any());
+
+        given(productService.getProductViews(any(), anyInt(), any()))
+                .willReturn(List.of(ProductView.builder()
+                        .id(1L)
+                        .name("쥐돌이")
+                        .build()));
 
         given(productService.getProduct(1L)).willReturn(product);
 
+        given(productService.getProducts(List.of(1L, 1000L)))
+                .willReturn(new ProductLookupResult(List.of(product),
+                        List.of(1000L)));
+
         given(productService.getProduct(1000L))
                 .willThrow(new ProductNotFoundException(1000L));
+        given(productService.getProduct(2000L)).willThrow(
+                new ServiceBusyException("Timed out waiting for one read"));
 
         given(productService.createProduct(any(ProductData.class)))
                 .willReturn(product);
@@ -65,6 +122,27 @@ class ProductControllerTest {
         given(productService.updateProduct(eq(1000L), any(ProductData.class)))
                 .willThrow(new ProductNotFoundException(1000L));
 
+        given(productService.updateProduct(
+                eq(1L), any(ProductData.class), eq(3L)))
+                .willReturn(product);
+
+        given(productService.updateProduct(
+                eq(1L), any(ProductData.class), isNull()))
+                .willReturn(product);
+
+        given(productService.updateProduct(
+                eq(1L), any(ProductData.class), eq(2L)))
+                .willThrow(new ProductVersionMismatchException(1L, 2L));
+
+        given(productService.updateProduct(
+                eq(1L), any(ProductData.class), eq(-1L)))
+                .willThrow(new ProductVersionMismatchException(1L, -1L));
+
+        given(productService.updateProduct(
+                eq(2L), any(ProductData.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(
+                        Product.class, 2L));
+
         given(productService.deleteProduct(1000L))
                 .willThrow(new ProductNotFoundException(1000L));
     }
@@ -75,8 +153,259 @@ class ProductControllerTest {
                 get("/products")
                         .accept(MediaType.APPLICATION_JSON_UTF8)
         )
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("쥐돌이")))
+                .andExpect(header().string("ETag", "\"kf2-7\""))
+                .andExpect(header().doesNotExist("Link"));
+
+        verify(productService)
+                .getProducts(null, ProductController.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void listWithCurrentETag() throws Exception {
+        mockMvc.perform(
+                get("/products")
+                        .header("If-None-Match", "\"kf2-7\"")
+        )
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getProducts(any(), anyInt());
+    }
+
+    @Test
+    void listWithFullPage() throws Exception {
+        mockMvc.perform(
+                get("/products?after=0&limit=1")
+                        .accept(MediaType.APPLICATION_JSON_UTF8)
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link",
+                        "</products?after=1&limit=1>; rel=\"next\""));
+
+        verify(productService).getProducts(0L, 1);
+    }
+
+    @Test
+    void listWithoutParamsIsPaged() throws Exception {
+        given(productService.getProducts(null, ProductController.DEFAULT_LIMIT))
+                .willReturn(LongStream.rangeClosed(1,
+                        ProductController.DEFAULT_LIMIT)
+                        .mapToObj(id -> Product.builder().id(id).build())
+                        .collect(Collectors.toList()));
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link",
+                        "</products?after=100&limit=100>; rel=\"next\""));
+    }
+
+    @Test
+    void listAfterWithoutLimit() throws Exception {
+        mockMvc.perform(get("/products?after=0"))
+                .andExpect(status().isOk());
+
+        verify(productService).getProducts(0L, ProductController.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void listWithTooLargeLimit() throws Exception {
+        mockMvc.perform(get("/products?limit=100000"))
+                .andExpect(status().isOk());
+
+        verify(productService).getProducts(null, 1000);
+    }
+
+    @Test
+    void listFromSnapshot() throws Exception {
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
                 .andExpect(content().string(containsString("쥐돌이")));
+
+        verify(productService)
+                .getProducts(null, ProductController.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void listRightAfterWrite() throws Exception {
+        given(catalogVersion.changedWithin(any())).willReturn(true);
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"));
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk());
+
+        verify(productService, times(2))
+                .getProducts(null, ProductController.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void listAfterCatalogChange() throws Exception {
+        mockMvc.perform(get("/products"));
+
+        given(catalogVersion.current()).willReturn("kf2-8");
+
+        mockMvc.perform(get("/products"))
+                .andExpect(header().string("ETag", "\"kf2-8\""));
+
+        verify(productService, times(2))
+                .getProducts(null, ProductController.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void listWithGzip() throws Exception {
+        MvcResult result = mockMvc.perform(
+                get("/products")
+                        .header("Accept-Encoding", "br, gzip;q=0.8")
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("ETag", "\"kf2-7-gzip\""))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertThat(result.getResponse().getContentLength())
+                .isEqualTo(body.length);
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .contains("쥐돌이");
+        }
+    }
+
+    @Test
+    void listWithETagOfOtherCoding() throws Exception {
+        mockMvc.perform(
+                get("/products")
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", "\"kf2-7\"")
+        )
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(
+                get("/products")
+                        .header("If-None-Match", "\"kf2-7-gzip\"")
+        )
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(
+                get("/products")
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", "\"kf2-6-gzip\"")
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"kf2-7-gzip\""));
+    }
+
+    @Test
+    void listWithGzipRefused() throws Exception {
+        mockMvc.perform(
+                get("/products")
+                        .header("Accept-Encoding", "gzip;q=0, identity")
+        )
+                .andExpect(header().doesNotExist("Content-Encoding"));
+
+        mockMvc.perform(
+                get("/products")
+                        .header("Accept-Encoding", "deflate")
+        )
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    void listWithFields() throws Exception {
+        mockMvc.perform(
+                get("/products?fields=id,name")
+                        .accept(MediaType.APPLICATION_JSON_UTF8)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"name\":\"쥐돌이\"}]",
+                        true))
+                .andExpect(header().string("ETag", "\"kf2-7\""));
+
+        verify(productService).getProductViews(null,
+                ProductController.DEFAULT_LIMIT, Set.of("id", "name"));
+        verify(productService, never()).getProducts(any(), anyInt());
+    }
+
+    @Test
+    void listWithFieldsAndFullPage() throws Exception {
+        mockMvc.perform(get("/products?fields=name,price&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link",
+                        "</products?after=1&limit=1&fields=name,price>; "
+                                + "rel=\"next\""));
+    }
+
+    @Test
+    void listWithUnknownField() throws Exception {
+        mockMvc.perform(get("/products?fields=id,secret"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never())
+                .getProductViews(any(), anyInt(), any());
+    }
+
+    @Test
+    void lookup() throws Exception {
+        mockMvc.perform(get("/products?ids=1,1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(1000));
+
+        verify(productService, never()).getProducts(any(), anyInt());
+    }
+
+    @Test
+    void lookupWithBody() throws Exception {
+        mockMvc.perform(
+                post("/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,1000]}")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(1000));
+    }
+
+    @Test
+    void lookupWithoutIds() throws Exception {
+        mockMvc.perform(
+                post("/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void lookupWithTooManyIds() throws Exception {
+        StringBuilder ids = new StringBuilder("1");
+        for (int i = 2; i <= ProductController.MAX_LOOKUP_SIZE + 1; i += 1) {
+            ids.append(',').append(i);
+        }
+
+        mockMvc.perform(
+                post("/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + ids + "]}")
+        )
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).getProducts(anyList());
+    }
+
+    @Test
+    void stream() throws Exception {
+        mockMvc.perform(get("/products/stream"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("쥐돌이")));
     }
 
     @Test
@@ -89,12 +418,30 @@ class ProductControllerTest {
                 .andExpect(content().string(containsString("쥐돌이")));
     }
 
+    @Test
+    void deatilWithCurrentETag() throws Exception {
+        mockMvc.perform(
+                get("/products/1")
+                        .header("If-None-Match", "\"1-3\"")
+        )
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void deatilWithNotExsitedProduct() throws Exception {
         mockMvc.perform(get("/products/1000"))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void detailWhenBusy() throws Exception {
+        mockMvc.perform(get("/products/2000"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Service busy"));
+    }
+
     @Test
     void create() throws Exception {
         mockMvc.perform(
@@ -152,6 +499,75 @@ class ProductControllerTest {
         verify(productService).updateProduct(eq(1L), any(ProductData.class));
     }
 
+    @Test
+    void updateWithMatchingETag() throws Exception {
+        mockMvc.perform(
+                patch("/products/1")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+
+        verify(productService)
+                .updateProduct(eq(1L), any(ProductData.class), eq(3L));
+    }
+
+    @Test
+    void updateWithAnyETag() throws Exception {
+        mockMvc.perform(
+                patch("/products/1")
+                        .header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        )
+                .andExpect(status().isOk());
+
+        verify(productService)
+                .updateProduct(eq(1L), any(ProductData.class), isNull());
+    }
+
+    @Test
+    void updateWithStaleETag() throws Exception {
+        mockMvc.perform(
+                patch("/products/1")
+                        .header("If-Match", "\"1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        )
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateWithMalformedETag() throws Exception {
+        mockMvc.perform(
+                patch("/products/1")
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        )
+                .andExpect(status().isPreconditionFailed());
+
+        verify(productService)
+                .updateProduct(eq(1L), any(ProductData.class), eq(-1L));
+    }
+
+    @Test
+    void updateWithConcurrentModification() throws Exception {
+        mockMvc.perform(
+                patch("/products/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        )
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void updateWithNotExistedProduct() throws Exception {
         mockMvc.perform(
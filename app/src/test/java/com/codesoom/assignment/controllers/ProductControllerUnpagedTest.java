@@ -0,0 +1,62 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.CatalogVersion;
+import com.codesoom.assignment.application.ProductListSnapshots;
+import com.codesoom.assignment.application.ProductService;
+import com.codesoom.assignment.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ProductController.class,
+        properties = "products.list.unpaged=true")
+@Import(ProductListSnapshots.class)
+class ProductControllerUnpagedTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private CatalogVersion catalogVersion;
+
+    @BeforeEach
+    void setUp() {
+        given(catalogVersion.current()).willReturn("kf2-7");
+
+        given(productService.getProducts(any(), anyInt()))
+                .willReturn(List.of(Product.builder().id(1L).build()));
+    }
+
+    @Test
+    void listWithoutParams() throws Exception {
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"));
+
+        verify(productService).getProducts(null, ProductController.UNPAGED);
+    }
+
+    @Test
+    void listAfterWithoutLimit() throws Exception {
+        mockMvc.perform(get("/products?after=0"))
+                .andExpect(status().isOk());
+
+        verify(productService).getProducts(0L, ProductController.DEFAULT_LIMIT);
+    }
+}
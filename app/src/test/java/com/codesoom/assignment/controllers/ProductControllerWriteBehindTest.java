@@ -0,0 +1,163 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.CatalogVersion;
+import com.codesoom.assignment.application.ProductListSnapshots;
+import com.codesoom.assignment.application.ProductService;
+import com.codesoom.assignment.application.ProductWriteBehind;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductData;
+import com.codesoom.assignment.dto.ProductLookupResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductController.class)
+class ProductControllerWriteBehindTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private CatalogVersion catalogVersion;
+
+    @MockBean
+    private ProductListSnapshots listSnapshots;
+
+    @MockBean
+    private ProductWriteBehind writeBehind;
+
+    private Product product;
+
+    private Product buffered;
+
+    @BeforeEach
+    void setUp() {
+        product = Product.builder()
+                .id(1L)
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .version(3L)
+                .build();
+
+        buffered = Product.builder()
+                .id(1L)
+                .name("쥐순이")
+                .maker("냥이월드")
+                .price(5000)
+                .version(3L)
+                .build();
+
+        given(productService.getProduct(1L)).willReturn(product);
+        given(productService.getProduct(2L)).willReturn(product);
+
+        given(writeBehind.findPending(1L)).willReturn(Optional.of(buffered));
+        given(writeBehind.findPending(2L)).willReturn(Optional.empty());
+
+        given(writeBehind.updateProduct(eq(1L), any(ProductData.class)))
+                .willReturn(buffered);
+
+        given(productService.updateProduct(
+                eq(1L), any(ProductData.class), eq(3L)))
+                .willReturn(product);
+    }
+
+    @Test
+    void detailWithBufferedUpdate() throws Exception {
+        mockMvc.perform(get("/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(content().string(containsString("쥐순이")));
+
+        verify(productService, never()).getProduct(1L);
+    }
+
+    @Test
+    void lookupWithBufferedUpdate() throws Exception {
+        given(productService.getProducts(List.of(1L)))
+                .willReturn(new ProductLookupResult(List.of(product),
+                        List.of()));
+        given(writeBehind.findPending(1L)).willReturn(Optional.of(
+                Product.builder().id(1L).price(6000).build()));
+
+        mockMvc.perform(get("/products?ids=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].price").value(6000));
+    }
+
+    @Test
+    void detailWithoutBufferedUpdate() throws Exception {
+        mockMvc.perform(get("/products/2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+    }
+
+    @Test
+    void update() throws Exception {
+        mockMvc.perform(
+                patch("/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(content().string(containsString("쥐순이")));
+
+        verify(productService, never())
+                .updateProduct(eq(1L), any(ProductData.class));
+    }
+
+    @Test
+    void updateWithETag() throws Exception {
+        mockMvc.perform(
+                patch("/products/1")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐순이\",\"maker\":\"냥이월드\"," +
+                                "\"price\":5000}")
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+
+        InOrder inOrder = inOrder(writeBehind, productService);
+        inOrder.verify(writeBehind).flush();
+        inOrder.verify(productService)
+                .updateProduct(eq(1L), any(ProductData.class), eq(3L));
+    }
+
+    @Test
+    void destroy() throws Exception {
+        mockMvc.perform(delete("/products/1"))
+                .andExpect(status().isNoContent());
+
+        InOrder inOrder = inOrder(writeBehind, productService);
+        inOrder.verify(writeBehind).discard(1L);
+        inOrder.verify(productService).deleteProduct(1L);
+    }
+}
@@ -0,0 +1,124 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductCache;
+import com.codesoom.assignment.application.ProductListSnapshots;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.infra.QueryGuard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.codesoom.assignment.infra.QueryCounts.count;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins down how many SQL statements the product endpoints run against a
+ * real database, with the Hibernate second-level cache off so every read
+ * reaches it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count",
+        "products.second-level-cache.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductQueryCountTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryGuard queryGuard;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductListSnapshots listSnapshots;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of("쥐돌이", "쥐순이", "범냐옹")) {
+            ids.add(productRepository.save(Product.builder()
+                    .name(name)
+                    .maker("냥이월드")
+                    .price(5000)
+                    .build()).getId());
+        }
+
+        productCache.invalidateAll();
+        listSnapshots.invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ids.forEach(id -> productRepository.findById(id)
+                .ifPresent(productRepository::delete));
+    }
+
+    @Test
+    void detailReadsOnceThenFromCache() throws Exception {
+        assertThat(count(queryGuard, () -> mockMvc
+                .perform(get("/products/{id}", ids.get(0)))
+                .andExpect(status().isOk())))
+                .isEqualTo(1);
+
+        assertThat(count(queryGuard, () -> mockMvc
+                .perform(get("/products/{id}", ids.get(0)))
+                .andExpect(status().isOk())))
+                .isZero();
+    }
+
+    @Test
+    void listReadsOnePage() throws Exception {
+        assertThat(count(queryGuard, () -> mockMvc
+                .perform(get("/products"))
+                .andExpect(status().isOk())))
+                .isEqualTo(1);
+
+        assertThat(count(queryGuard, () -> mockMvc
+                .perform(get("/products"))
+                .andExpect(status().isOk())))
+                .isZero();
+    }
+
+    @Test
+    void lookupReadsAllInOneQuery() throws Exception {
+        assertThat(count(queryGuard, () -> mockMvc
+                .perform(get("/products").param("ids",
+                        ids.get(0) + "," + ids.get(1) + "," + ids.get(2)))
+                .andExpect(status().isOk())))
+                .isEqualTo(1);
+
+        assertThat(count(queryGuard, () -> mockMvc
+                .perform(get("/products/{id}", ids.get(2)))
+                .andExpect(status().isOk())))
+                .isZero();
+    }
+
+    @Test
+    void updateSelectsThenUpdates() throws Exception {
+        assertThat(count(queryGuard, () -> mockMvc
+                .perform(patch("/products/{id}", ids.get(0))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"쥐돌이\",\"maker\":\"냥이월드\","
+                                + "\"price\":6000}"))
+                .andExpect(status().isOk())))
+                .isEqualTo(2);
+    }
+}
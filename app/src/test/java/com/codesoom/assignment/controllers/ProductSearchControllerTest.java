@@ -0,0 +1,65 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductSearchIndex;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductSearchQuery;
+import com.codesoom.assignment.dto.ProductSearchResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductSearchController.class)
+class ProductSearchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void search() throws Exception {
+        Product product = Product.builder()
+                .id(1L)
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+
+        given(productSearchIndex.search(argThat((ProductSearchQuery query) ->
+                "쥐".equals(query.getQ())
+                        && query.getMaxPrice() == 6000
+                        && "price".equals(query.getSort()))))
+                .willReturn(new ProductSearchResult(1, List.of(product),
+                        Map.of("냥이월드", 1L)));
+
+        mockMvc.perform(get("/products/search?q=쥐&maxPrice=6000&sort=price"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("쥐돌이")));
+    }
+
+    @Test
+    void searchWithoutFilter() throws Exception {
+        mockMvc.perform(get("/products/search?maxPrice=6000"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/products/search?q=%20"))
+                .andExpect(status().isBadRequest());
+
+        verify(productSearchIndex, never()).search(any());
+    }
+}
@@ -0,0 +1,50 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.application.ProductPriceIndex;
+import com.codesoom.assignment.dto.PricePoint;
+import com.codesoom.assignment.dto.PriceStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductStatsController.class)
+class ProductStatsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductPriceIndex productPriceIndex;
+
+    @Test
+    void stats() throws Exception {
+        given(productPriceIndex.stats(1000, 6000, null))
+                .willReturn(new PriceStats(2, 3000, 5000, 4000.0));
+
+        mockMvc.perform(get("/products/stats?minPrice=1000&maxPrice=6000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.average").value(4000.0));
+    }
+
+    @Test
+    void cheapest() throws Exception {
+        given(productPriceIndex.cheapest("Codesoom", 100, null, null))
+                .willReturn(Map.of("Codesoom",
+                        List.of(new PricePoint(3L, 10000))));
+
+        mockMvc.perform(get("/products/stats/cheapest?maker=Codesoom"
+                + "&limit=1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.Codesoom[0].id").value(3));
+    }
+}
@@ -0,0 +1,139 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.infra.QueryGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(OutputCaptureExtension.class)
+class QueryCountFilterTest {
+    private MeterRegistry meterRegistry;
+
+    private QueryGuard queryGuard;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryGuard = new QueryGuard(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void withinLimit(CapturedOutput output) throws Exception {
+        perform(filter(false), 2);
+
+        assertThat(output).doesNotContain("SQL statements");
+        assertThat(meterRegistry.get("product.sql.statements")
+                .summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void warnsOverLimit(CapturedOutput output) throws Exception {
+        perform(filter(false), 3);
+
+        assertThat(output).contains(
+                "GET /products ran 3 SQL statements, more than 2");
+    }
+
+    @Test
+    void failsOverLimit() {
+        assertThatThrownBy(() -> perform(filter(true), 3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("GET /products ran 3 SQL statements, more than 2");
+    }
+
+    @Test
+    void failsWhileRequestRuns() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(true).doFilter(new MockHttpServletRequest("GET", "/products"),
+                response,
+                (request, servletResponse) -> {
+                    try {
+                        runStatements(3);
+                    } catch (IllegalStateException e) {
+                        ((MockHttpServletResponse) servletResponse)
+                                .setStatus(500);
+                    }
+                });
+
+        assertThat(response.getStatus()).isEqualTo(500);
+    }
+
+    @Test
+    void bulkPathIsNotLimited(CapturedOutput output) throws Exception {
+        perform(filter(true), new MockHttpServletRequest("GET",
+                "/products/stream"), 3);
+
+        assertThat(output).doesNotContain("SQL statements");
+        assertThat(meterRegistry.get("product.sql.statements")
+                .summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void lookupByIdsIsNotLimited(CapturedOutput output) throws Exception {
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("GET", "/products");
+        request.setParameter("ids", "1,2,3");
+
+        perform(filter(true), request, 3);
+
+        assertThat(output).doesNotContain("SQL statements");
+    }
+
+    @Test
+    void stopsCountingWhenRequestFails() {
+        QueryCountFilter filter = filter(true);
+
+        assertThatThrownBy(() -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/products"),
+                new MockHttpServletResponse(),
+                (request, response) -> {
+                    throw new IOException("broken pipe");
+                }))
+                .isInstanceOf(IOException.class);
+
+        assertThat(meterRegistry.get("product.sql.statements")
+                .summary().count()).isZero();
+    }
+
+    private QueryCountFilter filter(boolean failOnExcess) {
+        return new QueryCountFilter(queryGuard, 2, failOnExcess,
+                Set.of("/products/stream"), meterRegistry);
+    }
+
+    private void perform(QueryCountFilter filter, int statements)
+            throws Exception {
+        perform(filter, new MockHttpServletRequest("GET", "/products"),
+                statements);
+    }
+
+    private void perform(QueryCountFilter filter,
+                         MockHttpServletRequest request, int statements)
+            throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (servletRequest, response) -> runStatements(statements));
+    }
+
+    private void runStatements(int statements) {
+        for (int i = 0; i < statements; i += 1) {
+            queryGuard.afterQuery(new ExecutionInfo(),
+                    List.of(new QueryInfo("select 1")));
+        }
+    }
+}
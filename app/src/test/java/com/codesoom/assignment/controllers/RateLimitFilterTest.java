@@ -0,0 +1,133 @@
+package com.codesoom.assignment.controllers;
+
+import com.codesoom.assignment.infra.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+    private MeterRegistry meterRegistry;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(
+                new TokenBucketRateLimiter(1, 2),
+                new TokenBucketRateLimiter(1, 1),
+                "X-API-Key", Set.of("tenant-a", "tenant-b"),
+                new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void readsWithinBudget() throws Exception {
+        assertThat(perform("GET", null).getStatus()).isEqualTo(200);
+        assertThat(perform("HEAD", null).getStatus()).isEqualTo(200);
+
+        assertThat(count("read", "admitted")).isEqualTo(2);
+    }
+
+    @Test
+    void readsOverBudget() throws Exception {
+        perform("GET", null);
+        perform("GET", null);
+
+        MockHttpServletResponse response = perform("GET", null);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString())
+                .contains("Too many requests");
+        assertThat(count("read", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void writesHaveTheirOwnBudget() throws Exception {
+        assertThat(perform("POST", null).getStatus()).isEqualTo(200);
+        assertThat(perform("PATCH", null).getStatus()).isEqualTo(429);
+        assertThat(perform("GET", null).getStatus()).isEqualTo(200);
+
+        assertThat(count("write", "admitted")).isEqualTo(1);
+        assertThat(count("write", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void clientsAreKeyedByApiKey() throws Exception {
+        perform("POST", "tenant-a");
+
+        assertThat(perform("POST", "tenant-a").getStatus()).isEqualTo(429);
+        assertThat(perform("POST", "tenant-b").getStatus()).isEqualTo(200);
+        assertThat(perform("POST", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void unknownKeysShareTheAddressBucket() throws Exception {
+        perform("POST", "made-up-1");
+
+        assertThat(perform("POST", "made-up-2").getStatus()).isEqualTo(429);
+        assertThat(perform("POST", null).getStatus()).isEqualTo(429);
+        assertThat(perform("POST", "tenant-a").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void lookupSpendsTheReadBudget() throws Exception {
+        perform("POST", null);
+
+        assertThat(perform("POST", "/products/lookup", null).getStatus())
+                .isEqualTo(200);
+        assertThat(count("read", "admitted")).isEqualTo(1);
+    }
+
+    @Test
+    void exemptRequestsSpendNothing() throws Exception {
+        filter = new RateLimitFilter(
+                new TokenBucketRateLimiter(1, 1),
+                new TokenBucketRateLimiter(1, 1),
+                "X-API-Key", Set.of(), new ObjectMapper(), meterRegistry,
+                request -> request.getHeader("X-API-Key") != null);
+
+        assertThat(perform("GET", "warm-up").getStatus()).isEqualTo(200);
+        assertThat(perform("GET", "warm-up").getStatus()).isEqualTo(200);
+        assertThat(perform("GET", null).getStatus()).isEqualTo(200);
+
+        assertThat(count("read", "admitted")).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse perform(String method, String apiKey)
+            throws Exception {
+        return perform(method, "/products", apiKey);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri,
+                                            String apiKey) throws Exception {
+        MockHttpServletRequest request =
+                new MockHttpServletRequest(method, uri);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        return response;
+    }
+
+    private double count(String budget, String result) {
+        return meterRegistry.get("product.admission")
+                .tag("limiter", "rate")
+                .tag("budget", budget)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
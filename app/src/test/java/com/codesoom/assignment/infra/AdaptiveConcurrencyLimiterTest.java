@@ -0,0 +1,71 @@
+package com.codesoom.assignment.infra;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void admitsUpToLimit() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(FAST);
+
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsSteady() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+        for (int i = 0; i < 50; i += 1) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyClimbs() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(50, 5, 100);
+
+        limiter.tryAcquire();
+        limiter.release(FAST);
+
+        for (int i = 0; i < 50; i += 1) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(50);
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(10, 5, 12);
+
+        for (int i = 0; i < 2000; i += 1) {
+            limiter.tryAcquire();
+            limiter.release(i % 2 == 0 ? FAST : 0);
+        }
+
+        assertThat(limiter.getLimit()).isBetween(5, 12);
+    }
+}
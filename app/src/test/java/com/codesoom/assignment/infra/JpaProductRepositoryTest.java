@@ -0,0 +1,26 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+@DataJpaTest
+class JpaProductRepositoryTest extends ProductRepositoryContractTest {
+    @Autowired
+    private JpaProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Override
+    protected ProductRepository repository() {
+        return productRepository;
+    }
+
+    @Override
+    protected void flush() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,325 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemoryProductRepositoryTest extends ProductRepositoryContractTest {
+    private static final int REGION_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    private MemoryProductRepository repository;
+
+    private ProductLog log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = open(Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Override
+    protected ProductRepository repository() {
+        return repository;
+    }
+
+    @Override
+    protected void flush() {
+    }
+
+    @Test
+    void changesAreInvisibleUntilSaved() {
+        Long id = repository.save(product("쥐돌이", 5000)).getId();
+
+        repository.findById(id).orElseThrow()
+                .change("쥐순이", "냥이월드", 6000, null);
+
+        assertThat(repository.findById(id).orElseThrow().getName())
+                .isEqualTo("쥐돌이");
+    }
+
+    @Test
+    void saveWithoutVersionOverwrites() {
+        Long id = repository.save(product("쥐돌이", 5000)).getId();
+
+        Product saved = repository.save(Product.builder()
+                .id(id)
+                .name("쥐순이")
+                .build());
+
+        assertThat(saved.getName()).isEqualTo("쥐순이");
+        assertThat(saved.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void saveWithNewIdAdvancesSequence() {
+        repository.save(Product.builder().id(100L).name("쥐돌이").build());
+
+        assertThat(repository.save(product("쥐순이", 3000)).getId())
+                .isEqualTo(101L);
+    }
+
+    @Test
+    void deleteMissingProduct() {
+        repository.delete(Product.builder().id(1000L).build());
+
+        assertThat(repository.size()).isZero();
+    }
+
+    @Test
+    void recoverFromLog() throws IOException {
+        Long first = repository.save(product("쥐돌이", 5000)).getId();
+        Long second = repository.save(Product.builder()
+                .name("쥐순이")
+                .build()).getId();
+        Product product = repository.findById(first).orElseThrow();
+        product.change("쥐식이", "냥이월드", 6000, "rat.png");
+        repository.save(product);
+        repository.delete(repository.findById(second).orElseThrow());
+
+        reopen(Long.MAX_VALUE);
+
+        assertThat(ids(repository.findAll())).containsExactly(first);
+        Product recovered = repository.findById(first).orElseThrow();
+        assertThat(recovered.getName()).isEqualTo("쥐식이");
+        assertThat(recovered.getVersion()).isEqualTo(1L);
+
+        assertThat(repository.save(product("쥐돌이", 5000)).getId())
+                .isEqualTo(second + 1);
+    }
+
+    @Test
+    void recoverWithoutOptionalFields() throws IOException {
+        Long id = repository.save(Product.builder().build()).getId();
+
+        reopen(Long.MAX_VALUE);
+
+        Product recovered = repository.findById(id).orElseThrow();
+        assertThat(recovered.getName()).isNull();
+        assertThat(recovered.getMaker()).isNull();
+        assertThat(recovered.getPrice()).isNull();
+        assertThat(recovered.getImageUrl()).isNull();
+    }
+
+    @Test
+    void appendAcrossRegions() throws IOException {
+        for (int i = 0; i < 20; i += 1) {
+            repository.save(product("쥐돌이 " + i, 5000 + i));
+        }
+        repository.save(product("쥐".repeat(REGION_SIZE), 5000));
+
+        reopen(Long.MAX_VALUE);
+
+        assertThat(repository.size()).isEqualTo(21);
+    }
+
+    @Test
+    void snapshotEmptiesLog() throws IOException {
+        repository.close();
+        repository = open(1);
+
+        Long first = repository.save(product("쥐돌이", 5000)).getId();
+        Long second = repository.save(product("쥐순이", 3000)).getId();
+        repository.delete(repository.findById(second).orElseThrow());
+
+        assertThat(Files.exists(directory.resolve(ProductLog.SNAPSHOT_FILE)))
+                .isTrue();
+
+        reopen(Long.MAX_VALUE);
+
+        assertThat(ids(repository.findAll())).containsExactly(first);
+        assertThat(repository.save(product("쥐식이", 1000)).getId())
+                .isEqualTo(second + 1);
+    }
+
+    @Test
+    void snapshotBelowThreshold() {
+        repository.save(product("쥐돌이", 5000));
+
+        repository.snapshot();
+
+        assertThat(Files.exists(directory.resolve(ProductLog.SNAPSHOT_FILE)))
+                .isFalse();
+    }
+
+    @Test
+    void snapshotFailure() throws IOException {
+        repository.close();
+        repository = open(1);
+        Files.createDirectories(
+                directory.resolve(ProductLog.SNAPSHOT_FILE + ".tmp"));
+
+        assertThatThrownBy(() -> repository.save(product("쥐돌이", 5000)))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void recoverUntilTornRecord() throws IOException {
+        repository.save(product("쥐돌이", 5000));
+        long end = logSize();
+        repository.save(product("쥐순이", 3000));
+        repository.close();
+
+        try (FileChannel channel = FileChannel.open(
+                directory.resolve(ProductLog.LOG_FILE),
+                StandardOpenOption.WRITE)) {
+            channel.truncate(end + 12);
+        }
+
+        repository = open(Long.MAX_VALUE);
+
+        assertThat(repository.size()).isEqualTo(1);
+    }
+
+    @Test
+    void recoverUntilCorruptRecord() throws IOException {
+        repository.save(product("쥐돌이", 5000));
+        long end = logSize();
+        repository.save(product("쥐순이", 3000));
+        repository.close();
+
+        writeAt(end + 12, 0x7f);
+
+        repository = open(Long.MAX_VALUE);
+
+        assertThat(repository.size()).isEqualTo(1);
+
+        repository.save(product("쥐식이", 1000));
+        reopen(Long.MAX_VALUE);
+
+        assertThat(repository.size()).isEqualTo(2);
+    }
+
+    @Test
+    void recoverUntilImpossibleLength() throws IOException {
+        repository.save(product("쥐돌이", 5000));
+        long end = logSize();
+        repository.close();
+
+        writeAt(end, 0x7f);
+
+        repository = open(Long.MAX_VALUE);
+
+        assertThat(repository.size()).isEqualTo(1);
+    }
+
+    @Test
+    void refuseOversizedRecord() throws IOException {
+        Long before = repository.save(product("쥐돌이", 5000)).getId();
+        Product product = repository.findById(before).orElseThrow();
+        product.change("쥐".repeat(ProductLog.MAX_PAYLOAD_SIZE / 3 + 1),
+                "냥이월드", 5000, null);
+
+        assertThatThrownBy(() -> repository.save(product))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        Long after = repository.save(product("쥐순이", 3000)).getId();
+
+        reopen(Long.MAX_VALUE);
+
+        assertThat(ids(repository.findAll())).containsExactly(before, after);
+        assertThat(repository.findById(before).orElseThrow().getName())
+                .isEqualTo("쥐돌이");
+    }
+
+    @Test
+    void saveAfterClose() throws IOException {
+        repository.close();
+
+        assertThatThrownBy(() -> repository.save(
+                product("쥐".repeat(REGION_SIZE), 5000)))
+                .isInstanceOf(UncheckedIOException.class);
+
+        repository = open(Long.MAX_VALUE);
+    }
+
+    @Test
+    void syncWrites() throws IOException {
+        repository.close();
+        repository = new MemoryProductRepository(
+                new ProductLog(directory, REGION_SIZE, true), Long.MAX_VALUE);
+
+        Long id = repository.save(product("쥐돌이", 5000)).getId();
+
+        reopen(Long.MAX_VALUE);
+
+        assertThat(repository.findById(id)).isPresent();
+    }
+
+    @Test
+    void concurrentWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> ids = new ArrayList<>();
+            for (int i = 0; i < 400; i += 1) {
+                int price = i;
+                ids.add(executor.submit(() ->
+                        repository.save(product("쥐돌이", price)).getId()));
+            }
+
+            Set<Long> unique = new HashSet<>();
+            for (Future<Long> id : ids) {
+                unique.add(id.get());
+            }
+
+            assertThat(unique).hasSize(400);
+        } finally {
+            executor.shutdown();
+        }
+
+        reopen(Long.MAX_VALUE);
+
+        assertThat(repository.size()).isEqualTo(400);
+    }
+
+    private MemoryProductRepository open(long snapshotThreshold)
+            throws IOException {
+        log = new ProductLog(directory, REGION_SIZE, false);
+        return new MemoryProductRepository(log, snapshotThreshold);
+    }
+
+    private void reopen(long snapshotThreshold) throws IOException {
+        repository.close();
+        repository = open(snapshotThreshold);
+    }
+
+    private long logSize() {
+        return log.size();
+    }
+
+    private void writeAt(long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                directory.resolve(ProductLog.LOG_FILE),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) value}),
+                    position);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ErrorResponse;
+import com.codesoom.assignment.dto.ProductData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JsonTest
+class ProductJsonComponentTest {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ObjectMapper beanMapper = new ObjectMapper();
+
+    @Test
+    void serializeProduct() throws Exception {
+        Product product = Product.builder()
+                .id(1L)
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .imageUrl("rat.png")
+                .version(3L)
+                .build();
+
+        String json = objectMapper.writeValueAsString(product);
+
+        assertThat(json).isEqualTo("{\"id\":1,\"name\":\"쥐돌이\","
+                + "\"maker\":\"냥이월드\",\"price\":5000,"
+                + "\"imageUrl\":\"rat.png\",\"version\":3}");
+        assertThat(json).isEqualTo(beanMapper.writeValueAsString(product));
+    }
+
+    @Test
+    void serializeProductWithNulls() throws Exception {
+        Product product = Product.builder().build();
+
+        assertThat(objectMapper.writeValueAsString(product))
+                .isEqualTo(beanMapper.writeValueAsString(product));
+    }
+
+    @Test
+    void serializeProductData() throws Exception {
+        ProductData productData = ProductData.builder()
+                .id(1L)
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .build();
+
+        String json = objectMapper.writeValueAsString(productData);
+
+        assertThat(json).isEqualTo(beanMapper.writeValueAsString(productData));
+        assertThat(objectMapper.readValue(json, ProductData.class).getName())
+                .isEqualTo("쥐돌이");
+    }
+
+    @Test
+    void serializeProductDataWithNulls() throws Exception {
+        ProductData productData = new ProductData();
+
+        assertThat(objectMapper.writeValueAsString(productData))
+                .isEqualTo(beanMapper.writeValueAsString(productData));
+    }
+
+    @Test
+    void serializeErrorResponse() throws Exception {
+        assertThat(objectMapper.writeValueAsString(
+                new ErrorResponse("Product not found")))
+                .isEqualTo("{\"message\":\"Product not found\"}");
+    }
+
+    @Test
+    void serializeList() throws Exception {
+        Product product = Product.builder().id(1L).price(5000).build();
+
+        assertThat(objectMapper.writeValueAsString(
+                List.of(product, product)))
+                .isEqualTo(beanMapper.writeValueAsString(
+                        List.of(product, product)));
+    }
+}
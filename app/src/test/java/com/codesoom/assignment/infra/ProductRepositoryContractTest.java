@@ -0,0 +1,169 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import com.codesoom.assignment.domain.ProductView;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behavior every {@link ProductRepository} engine must share.
+ */
+abstract class ProductRepositoryContractTest {
+    protected abstract ProductRepository repository();
+
+    /**
+     * Writes pending changes and forgets loaded products, so the next read
+     * sees what was stored.
+     */
+    protected abstract void flush();
+
+    @Test
+    void saveAssignsIdAndVersion() {
+        Product saved = repository().save(product("쥐돌이", 5000));
+        flush();
+
+        Product found = repository().findById(saved.getId()).orElseThrow();
+
+        assertThat(found.getName()).isEqualTo("쥐돌이");
+        assertThat(found.getPrice()).isEqualTo(5000);
+        assertThat(found.getVersion()).isEqualTo(0L);
+    }
+
+    @Test
+    void findAllInIdOrder() {
+        Long first = repository().save(product("쥐돌이", 5000)).getId();
+        Long second = repository().save(product("쥐순이", 3000)).getId();
+        flush();
+
+        assertThat(ids(repository().findAll())).containsExactly(first, second);
+    }
+
+    @Test
+    void findByIdGreaterThan() {
+        Long first = repository().save(product("쥐돌이", 5000)).getId();
+        Long second = repository().save(product("쥐순이", 3000)).getId();
+        Long third = repository().save(product("쥐식이", 1000)).getId();
+        flush();
+
+        assertThat(ids(repository().findByIdGreaterThanOrderByIdAsc(
+                first, PageRequest.of(0, 1)))).containsExactly(second);
+        assertThat(ids(repository().findByIdGreaterThanOrderByIdAsc(
+                0L, PageRequest.of(1, 2)))).containsExactly(third);
+        assertThat(repository().findByIdGreaterThanOrderByIdAsc(
+                third, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void findViews() {
+        Long id = repository().save(product("쥐돌이", 5000)).getId();
+        flush();
+
+        ProductView view = repository().findViewsByIdGreaterThan(
+                0L, Set.of("name", "maker", "price", "imageUrl"), 10).get(0);
+
+        assertThat(view.getId()).isEqualTo(id);
+        assertThat(view.getName()).isEqualTo("쥐돌이");
+        assertThat(view.getMaker()).isEqualTo("냥이월드");
+        assertThat(view.getPrice()).isEqualTo(5000);
+        assertThat(view.getImageUrl()).isEqualTo("rat.png");
+
+        ProductView idOnly = repository().findViewsByIdGreaterThan(
+                0L, Set.of("id"), 10).get(0);
+
+        assertThat(idOnly.getId()).isEqualTo(id);
+        assertThat(idOnly.getName()).isNull();
+        assertThat(idOnly.getMaker()).isNull();
+        assertThat(idOnly.getPrice()).isNull();
+        assertThat(idOnly.getImageUrl()).isNull();
+    }
+
+    @Test
+    void findAllByIdSkipsMissing() {
+        Long id = repository().save(product("쥐돌이", 5000)).getId();
+        flush();
+
+        assertThat(ids(repository().findAllById(List.of(id, id + 1000))))
+                .containsExactly(id);
+    }
+
+    @Test
+    void findByIdWithMissingId() {
+        assertThat(repository().findById(1000L)).isEmpty();
+    }
+
+    @Test
+    void updateIncrementsVersion() {
+        Long id = repository().save(product("쥐돌이", 5000)).getId();
+        flush();
+
+        Product product = repository().findById(id).orElseThrow();
+        product.change("쥐순이", "냥이월드", 6000, null);
+        repository().save(product);
+        flush();
+
+        Product found = repository().findById(id).orElseThrow();
+
+        assertThat(found.getName()).isEqualTo("쥐순이");
+        assertThat(found.getImageUrl()).isNull();
+        assertThat(found.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void saveWithStaleVersionFails() {
+        Long id = repository().save(product("쥐돌이", 5000)).getId();
+        flush();
+
+        Product product = repository().findById(id).orElseThrow();
+        product.change("쥐순이", "냥이월드", 6000, null);
+        repository().save(product);
+        flush();
+
+        Product stale = Product.builder()
+                .id(id)
+                .name("쥐식이")
+                .maker("냥이월드")
+                .price(7000)
+                .version(0L)
+                .build();
+
+        assertThatThrownBy(() -> {
+            repository().save(stale);
+            flush();
+        }).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void delete() {
+        Long id = repository().save(product("쥐돌이", 5000)).getId();
+        flush();
+
+        repository().delete(repository().findById(id).orElseThrow());
+        flush();
+
+        assertThat(repository().findById(id)).isEmpty();
+        assertThat(repository().findAll()).isEmpty();
+    }
+
+    protected static Product product(String name, int price) {
+        return Product.builder()
+                .name(name)
+                .maker("냥이월드")
+                .price(price)
+                .imageUrl("rat.png")
+                .build();
+    }
+
+    protected static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId)
+                .collect(Collectors.toList());
+    }
+}
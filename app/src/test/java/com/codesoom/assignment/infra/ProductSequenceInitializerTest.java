@@ -0,0 +1,59 @@
+package com.codesoom.assignment.infra;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSequenceInitializerTest {
+    private final DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:product-sequence;DB_CLOSE_DELAY=-1");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final ProductSequenceInitializer initializer =
+            new ProductSequenceInitializer(dataSource);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE product (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute(
+                "CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50");
+    }
+
+    @Test
+    void leavesSequenceOfEmptyTable() {
+        initializer.advance();
+
+        assertThat(nextValue()).isEqualTo(1L);
+    }
+
+    @Test
+    void movesNewSequencePastExistingIds() {
+        jdbcTemplate.update("INSERT INTO product VALUES (120)");
+
+        initializer.advance();
+
+        assertThat(nextValue()).isEqualTo(170L);
+    }
+
+    @Test
+    void leavesSequenceAlreadyInUse() {
+        jdbcTemplate.execute("ALTER SEQUENCE product_seq RESTART WITH 151");
+        jdbcTemplate.update("INSERT INTO product VALUES (100)");
+
+        initializer.advance();
+
+        assertThat(nextValue()).isEqualTo(201L);
+    }
+
+    private Long nextValue() {
+        return jdbcTemplate.queryForObject(
+                "SELECT NEXT VALUE FOR product_seq", Long.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ProductViewRepositoryImplTest {
+    @Autowired
+    private JpaProductRepository productRepository;
+
+    private Product first;
+
+    @BeforeEach
+    void setUp() {
+        first = productRepository.save(product("쥐돌이", 5000));
+        productRepository.save(product("쥐순이", 6000));
+    }
+
+    @Test
+    void findViewsWithSelectedFields() {
+        List<ProductView> views = productRepository.findViewsByIdGreaterThan(
+                0L, Set.of("name", "price"), 10);
+
+        assertThat(views).extracting(ProductView::getName)
+                .containsExactly("쥐돌이", "쥐순이");
+        assertThat(views).extracting(ProductView::getPrice)
+                .containsExactly(5000, 6000);
+        assertThat(views).allSatisfy(view -> {
+            assertThat(view.getId()).isNotNull();
+            assertThat(view.getMaker()).isNull();
+            assertThat(view.getImageUrl()).isNull();
+        });
+    }
+
+    @Test
+    void findViewsAfterCursorWithLimit() {
+        List<ProductView> views = productRepository.findViewsByIdGreaterThan(
+                first.getId(), Set.of("maker", "imageUrl"), 1);
+
+        assertThat(views).hasSize(1);
+        assertThat(views.get(0).getMaker()).isEqualTo("냥이월드");
+        assertThat(views.get(0).getImageUrl()).isEqualTo("rat.png");
+        assertThat(views.get(0).getName()).isNull();
+    }
+
+    private static Product product(String name, int price) {
+        return Product.builder()
+                .name(name)
+                .maker("냥이월드")
+                .price(price)
+                .imageUrl("rat.png")
+                .build();
+    }
+}
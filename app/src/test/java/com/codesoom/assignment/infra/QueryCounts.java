@@ -0,0 +1,26 @@
+package com.codesoom.assignment.infra;
+
+/**
+ * Counts the SQL statements an action runs on the current thread, for
+ * tests that pin down how many queries a request or service call takes.
+ */
+public final class QueryCounts {
+    private QueryCounts() {
+    }
+
+    public static int count(QueryGuard queryGuard, Action action)
+            throws Exception {
+        QueryCount count = queryGuard.start();
+        try {
+            action.run();
+        } finally {
+            queryGuard.stop(count);
+        }
+        return count.getStatements();
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,148 @@
+package com.codesoom.assignment.infra;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(OutputCaptureExtension.class)
+class QueryGuardTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private QueryGuard queryGuard;
+
+    @Test
+    void countsStatementsInScope() {
+        JdbcTemplate jdbcTemplate = open(Duration.ofMinutes(1));
+
+        QueryCount count = queryGuard.start();
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+        jdbcTemplate.update("insert into item values (?, ?)", 1L, "쥐돌이");
+        queryGuard.stop(count);
+
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+
+        assertThat(count.getStatements()).isEqualTo(2);
+    }
+
+    @Test
+    void countsInEveryOpenScope() {
+        JdbcTemplate jdbcTemplate = open(Duration.ofMinutes(1));
+
+        QueryCount outer = queryGuard.start();
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+
+        QueryCount inner = queryGuard.start();
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+        queryGuard.stop(inner);
+
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+        queryGuard.stop(outer);
+
+        assertThat(inner.getStatements()).isEqualTo(1);
+        assertThat(outer.getStatements()).isEqualTo(3);
+    }
+
+    @Test
+    void failsStatementPastLimit() {
+        JdbcTemplate jdbcTemplate = open(Duration.ofMinutes(1));
+
+        QueryCount count = queryGuard.start("listing", 1);
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+
+        assertThatThrownBy(() -> jdbcTemplate.queryForObject(
+                "select count(*) from item", Long.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("listing ran 2 SQL statements, more than 1");
+
+        queryGuard.stop(count);
+    }
+
+    @Test
+    void countsBatchOnce() {
+        JdbcTemplate jdbcTemplate = open(Duration.ofMinutes(1));
+
+        QueryCount count = queryGuard.start();
+        jdbcTemplate.batchUpdate("insert into item values (?, ?)", List.of(
+                new Object[]{1L, "쥐돌이"},
+                new Object[]{2L, "쥐순이"},
+                new Object[]{3L, "범냐옹"}));
+        queryGuard.stop(count);
+
+        assertThat(count.getStatements()).isEqualTo(1);
+    }
+
+    @Test
+    void timesStatementsByFingerprint() {
+        JdbcTemplate jdbcTemplate = open(Duration.ofMinutes(1));
+        queryGuard.bindTo(meterRegistry);
+
+        jdbcTemplate.queryForObject(
+                "select count(*) from item where id in (1, 2, 3)", Long.class);
+        jdbcTemplate.queryForObject(
+                "select count(*) from item where id in (4, 5)", Long.class);
+
+        assertThat(meterRegistry.get("product.sql")
+                .tag("statement", "select count(*) from item where id in (?)")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotTimeBeforeBound() {
+        JdbcTemplate jdbcTemplate = open(Duration.ofMinutes(1));
+
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+
+        assertThat(meterRegistry.find("product.sql").timer()).isNull();
+    }
+
+    @Test
+    void logsSlowStatements(CapturedOutput output) {
+        JdbcTemplate jdbcTemplate = open(Duration.ZERO);
+
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+        jdbcTemplate.queryForObject(
+                "select count(*) from item where id = ?", Long.class, 1L);
+
+        assertThat(output).contains(
+                "with 0 parameters in 1 rows: select count(*) from item");
+        assertThat(output).contains(
+                "with 1 parameters in 1 rows: "
+                        + "select count(*) from item where id = ?");
+    }
+
+    @Test
+    void doesNotLogFastStatements(CapturedOutput output) {
+        JdbcTemplate jdbcTemplate = open(Duration.ofMinutes(1));
+
+        jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+
+        assertThat(output).doesNotContain("Slow statement");
+    }
+
+    private JdbcTemplate open(Duration slowThreshold) {
+        queryGuard = new QueryGuard(slowThreshold);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                ProxyDataSourceBuilder.create(new DriverManagerDataSource(
+                        "jdbc:h2:mem:query-guard;DB_CLOSE_DELAY=-1"))
+                        .listener(queryGuard)
+                        .build());
+
+        jdbcTemplate.execute("create table if not exists item "
+                + "(id bigint primary key, name varchar(20))");
+        jdbcTemplate.execute("delete from item");
+
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,149 @@
+package com.codesoom.assignment.infra;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadReplicaRoutingDataSourceTest {
+    private final DataSource primary = database("primary");
+
+    private final DataSource replica = database("replica");
+
+    private ReadReplicaRoutingDataSource routing;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        useReplicas(List.of(replica), "SELECT seconds FROM replica_lag");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        routing.close();
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        assertThat(transactionTemplate.execute(status -> server()))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        transactionTemplate.setReadOnly(true);
+
+        assertThat(transactionTemplate.execute(status -> server()))
+                .isEqualTo("replica");
+    }
+
+    @Test
+    void workOutsideTransactionsGoesToPrimary() {
+        assertThat(server()).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 60");
+        routing.checkReplicas();
+        transactionTemplate.setReadOnly(true);
+
+        assertThat(routing.healthyReplicas()).isZero();
+        assertThat(transactionTemplate.execute(status -> server()))
+                .isEqualTo("primary");
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 0");
+        routing.checkReplicas();
+
+        assertThat(transactionTemplate.execute(status -> server()))
+                .isEqualTo("replica");
+    }
+
+    @Test
+    void replicaWithoutLagQueryIsHealthy() throws IOException {
+        routing.close();
+        useReplicas(List.of(replica), null);
+
+        routing.checkReplicas();
+
+        assertThat(routing.healthyReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() throws IOException {
+        routing.close();
+        useReplicas(List.of(new DriverManagerDataSource(
+                "jdbc:unknown:replica")), null);
+        transactionTemplate.setReadOnly(true);
+
+        assertThat(transactionTemplate.execute(status -> server()))
+                .isEqualTo("primary");
+        assertThat(routing.healthyReplicas()).isZero();
+
+        routing.checkReplicas();
+
+        assertThat(routing.healthyReplicas()).isZero();
+    }
+
+    @Test
+    void readsAreSpreadOverReplicas() throws IOException {
+        routing.close();
+        useReplicas(List.of(replica, database("second")), null);
+        transactionTemplate.setReadOnly(true);
+
+        assertThat(List.of(
+                transactionTemplate.execute(status -> server()),
+                transactionTemplate.execute(status -> server())))
+                .containsExactlyInAnyOrder("replica", "second");
+    }
+
+    @Test
+    void getConnectionWithCredentials() {
+        assertThatThrownBy(() -> routing.getConnection("sa", ""))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private void useReplicas(List<DataSource> replicas, String lagQuery) {
+        routing = new ReadReplicaRoutingDataSource(primary, replicas,
+                lagQuery, Duration.ofSeconds(5), Duration.ofHours(1));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(dataSource));
+    }
+
+    private String server() {
+        return jdbcTemplate.queryForObject("SELECT name FROM server",
+                String.class);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE server (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO server VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        jdbcTemplate.update("INSERT INTO replica_lag VALUES (0)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,88 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.domain.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class RepositoryMetricsPostProcessorTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    private RepositoryMetricsPostProcessor postProcessor;
+
+    private ProductRepository productRepository =
+            mock(ProductRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        postProcessor = new RepositoryMetricsPostProcessor(
+                new StaticListableBeanFactory(
+                        Map.of("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class));
+
+        Product product = Product.builder().id(1L).build();
+
+        given(productRepository.findAll()).willReturn(List.of(product));
+        given(productRepository.findById(1L)).willReturn(Optional.of(product));
+        given(productRepository.findById(1000L))
+                .willThrow(new IllegalStateException());
+    }
+
+    @Test
+    void postProcessOtherBean() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "bean"))
+                .isSameAs(bean);
+    }
+
+    @Test
+    void postProcessRepository() {
+        ProductRepository repository = (ProductRepository) postProcessor
+                .postProcessAfterInitialization(productRepository, "repo");
+
+        repository.findAll();
+        repository.findById(1L);
+        repository.delete(Product.builder().id(1L).build());
+
+        assertThat(meterRegistry.get("product.repository")
+                .tag("method", "findAll").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.repository.rows")
+                .tag("method", "findById").summary().totalAmount())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("product.repository.rows")
+                .tag("method", "delete").summary()).isNull();
+    }
+
+    @Test
+    void postProcessProxiedRepository() {
+        Object proxy = new ProxyFactory(productRepository).getProxy();
+
+        ProductRepository repository = (ProductRepository) postProcessor
+                .postProcessAfterInitialization(proxy, "repo");
+
+        assertThat(repository).isSameAs(proxy);
+
+        assertThatThrownBy(() -> repository.findById(1000L))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("product.repository")
+                .tag("exception", "IllegalStateException").timer().count())
+                .isEqualTo(1);
+    }
+}
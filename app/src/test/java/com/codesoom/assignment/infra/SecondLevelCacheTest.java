@@ -0,0 +1,105 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.config.SecondLevelCacheConfig;
+import com.codesoom.assignment.domain.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository call in its own transaction, as the application
+ * does, since cache entries are only shared once a transaction commits.
+ */
+@DataJpaTest
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JpaProductRepository productRepository;
+
+    private Statistics statistics;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        id = productRepository.save(Product.builder()
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .build()).getId();
+
+        entityManagerFactory.getCache().evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // Cached query results must be newer than the last write to the
+        // table, and cache timestamps have millisecond resolution.
+        Thread.sleep(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.findAll().forEach(productRepository::delete);
+    }
+
+    @Test
+    void findByIdIsCached() {
+        productRepository.findById(id);
+
+        assertThat(entityManagerFactory.getCache().contains(Product.class, id))
+                .isTrue();
+
+        productRepository.findById(id);
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void changeIsNotHiddenByCache() {
+        productRepository.findById(id);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> productRepository.findById(id).orElseThrow()
+                        .change("쥐순이", "냥이월드", 6000, null));
+
+        Product product = productRepository.findById(id).orElseThrow();
+
+        assertThat(product.getName()).isEqualTo("쥐순이");
+        assertThat(product.getPrice()).isEqualTo(6000);
+        assertThat(product.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void listQueryIsCached() {
+        productRepository.findByIdGreaterThanOrderByIdAsc(0L,
+                PageRequest.of(0, 10));
+        productRepository.findByIdGreaterThanOrderByIdAsc(0L,
+                PageRequest.of(0, 10));
+
+        assertThat(statistics.getQueryCachePutCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,224 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final CountDownLatch loading = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runsOnceForConcurrentCalls() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(10);
+
+        Future<String> leader = lead(singleFlight, () -> "쥐돌이");
+        List<Future<String>> waiters = List.of(
+                join(singleFlight), join(singleFlight), join(singleFlight));
+        waitFor(singleFlight::coalesced, 3);
+
+        release.countDown();
+
+        assertThat(leader.get()).isEqualTo("쥐돌이");
+        for (Future<String> waiter : waiters) {
+            assertThat(waiter.get()).isEqualTo("쥐돌이");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.leaders()).isEqualTo(1);
+        assertThat(singleFlight.coalesced()).isEqualTo(3);
+    }
+
+    @Test
+    void runsAgainOnceDone() {
+        SingleFlight<String, String> singleFlight = singleFlight(10);
+
+        singleFlight.execute("key", () -> "쥐돌이 " + loads.incrementAndGet());
+        singleFlight.execute("key", () -> "쥐돌이 " + loads.incrementAndGet());
+
+        assertThat(loads).hasValue(2);
+        assertThat(singleFlight.leaders()).isEqualTo(2);
+    }
+
+    @Test
+    void sharesException() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(10);
+
+        Future<String> leader = lead(singleFlight, () -> {
+            throw new IllegalStateException("database down");
+        });
+        Future<String> waiter = join(singleFlight);
+        waitFor(singleFlight::coalesced, 1);
+
+        release.countDown();
+
+        assertThatThrownBy(leader::get)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(waiter::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("database down");
+    }
+
+    @Test
+    void sharesError() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(10);
+
+        Future<String> leader = lead(singleFlight, () -> {
+            throw new OutOfMemoryError("heap");
+        });
+        Future<String> waiter = join(singleFlight);
+        waitFor(singleFlight::coalesced, 1);
+
+        release.countDown();
+
+        assertThatThrownBy(leader::get)
+                .hasCauseInstanceOf(OutOfMemoryError.class);
+        assertThatThrownBy(waiter::get)
+                .hasCauseInstanceOf(OutOfMemoryError.class);
+    }
+
+    @Test
+    void timesOutWaiting() throws Exception {
+        SingleFlight<String, String> singleFlight =
+                new SingleFlight<>(Duration.ofMillis(10), 10);
+
+        lead(singleFlight, () -> "쥐돌이");
+
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> "unused"))
+                .isInstanceOf(ServiceBusyException.class)
+                .hasMessage("Timed out waiting for one read");
+        assertThat(singleFlight.timeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsPastMaxWaiters() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(1);
+
+        Future<String> leader = lead(singleFlight, () -> "쥐돌이");
+        Future<String> waiter = join(singleFlight);
+        waitFor(singleFlight::coalesced, 1);
+
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> "unused"))
+                .isInstanceOf(ServiceBusyException.class)
+                .hasMessage("Too many waiting for one read");
+        assertThat(singleFlight.rejected()).isEqualTo(1);
+
+        release.countDown();
+
+        assertThat(leader.get()).isEqualTo("쥐돌이");
+        assertThat(waiter.get()).isEqualTo("쥐돌이");
+    }
+
+    @Test
+    void stopsWaitingWhenInterrupted() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(10);
+
+        lead(singleFlight, () -> "쥐돌이");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> singleFlight.execute("key", () -> "unused"))
+                    .isInstanceOf(ServiceBusyException.class)
+                    .hasMessage("Interrupted waiting for one read");
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void forget() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(10);
+
+        lead(singleFlight, () -> "쥐돌이");
+
+        singleFlight.forget("key");
+
+        assertThat(singleFlight.execute("key", () -> "쥐순이"))
+                .isEqualTo("쥐순이");
+        assertThat(singleFlight.leaders()).isEqualTo(2);
+    }
+
+    @Test
+    void forgetAll() throws Exception {
+        SingleFlight<String, String> singleFlight = singleFlight(10);
+
+        lead(singleFlight, () -> "쥐돌이");
+
+        singleFlight.forgetAll();
+
+        assertThat(singleFlight.execute("key", () -> "쥐순이"))
+                .isEqualTo("쥐순이");
+    }
+
+    private SingleFlight<String, String> singleFlight(int maxWaiters) {
+        return new SingleFlight<>(Duration.ofSeconds(5), maxWaiters);
+    }
+
+    /**
+     * Starts a call for {@code key} that holds its flight open until
+     * {@link #release} is counted down.
+     */
+    private Future<String> lead(SingleFlight<String, String> singleFlight,
+                                Supplier<String> result)
+            throws InterruptedException {
+        Future<String> leader = executor.submit(() ->
+                singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    awaitRelease();
+                    return result.get();
+                }));
+        loading.await();
+        return leader;
+    }
+
+    private Future<String> join(SingleFlight<String, String> singleFlight) {
+        return executor.submit(() -> singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            return "unused";
+        }));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitFor(LongSupplier count, long expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (count.getAsLong() < expected) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+}
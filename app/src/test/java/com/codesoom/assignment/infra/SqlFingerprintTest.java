@@ -0,0 +1,32 @@
+package com.codesoom.assignment.infra;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+    @Test
+    void replacesLiterals() {
+        assertThat(SqlFingerprint.of(
+                "SELECT * FROM product WHERE name = 'it''s' AND price > 10.5"))
+                .isEqualTo("select * from product where name = ? and price > ?");
+    }
+
+    @Test
+    void collapsesInLists() {
+        assertThat(SqlFingerprint.of(
+                "select product0_.id from product product0_ "
+                        + "where product0_.id in (?, ?,?)"))
+                .isEqualTo(SqlFingerprint.of(
+                        "select product0_.id from product product0_ "
+                                + "where product0_.id in (?)"))
+                .isEqualTo("select product0_.id from product product0_ "
+                        + "where product0_.id in (?)");
+    }
+
+    @Test
+    void collapsesWhitespace() {
+        assertThat(SqlFingerprint.of("  update product\n\tset price=?  "))
+                .isEqualTo("update product set price=?");
+    }
+}
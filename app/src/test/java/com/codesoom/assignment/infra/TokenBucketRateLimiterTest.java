@@ -0,0 +1,69 @@
+package com.codesoom.assignment.infra;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new TokenBucketRateLimiter(10, 3, now::get);
+    }
+
+    @Test
+    void burstIsAllowed() {
+        for (int i = 0; i < 3; i += 1) {
+            assertThat(rateLimiter.tryAcquire("a")).isZero();
+        }
+
+        assertThat(rateLimiter.tryAcquire("a"))
+                .isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void tokensAreRefilledOverTime() {
+        for (int i = 0; i < 3; i += 1) {
+            rateLimiter.tryAcquire("a");
+        }
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+
+        assertThat(rateLimiter.tryAcquire("a")).isZero();
+        assertThat(rateLimiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void refillIsCappedAtBurst() {
+        rateLimiter.tryAcquire("a");
+
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        for (int i = 0; i < 3; i += 1) {
+            assertThat(rateLimiter.tryAcquire("a")).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i += 1) {
+            rateLimiter.tryAcquire("a");
+        }
+
+        assertThat(rateLimiter.tryAcquire("a")).isPositive();
+        assertThat(rateLimiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void systemClock() {
+        assertThat(new TokenBucketRateLimiter(1, 1).tryAcquire("a")).isZero();
+    }
+}
@@ -0,0 +1,264 @@
+package com.codesoom.assignment.infra;
+
+import com.codesoom.assignment.application.InvalidationBus;
+import com.codesoom.assignment.application.ProductInvalidation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class UdpInvalidationBusTest {
+    private static final long NODE_ID = 42L;
+
+    private static final List<ProductInvalidation> RESYNC = List.of();
+
+    private final List<UdpInvalidationBus> buses = new ArrayList<>();
+
+    private final BlockingQueue<List<ProductInvalidation>> received =
+            new LinkedBlockingQueue<>();
+
+    private final InvalidationBus.Subscriber recorder =
+            new InvalidationBus.Subscriber() {
+                @Override
+                public void invalidate(
+                        List<ProductInvalidation> invalidations) {
+                    received.add(invalidations);
+                }
+
+                @Override
+                public void resync() {
+                    received.add(RESYNC);
+                }
+            };
+
+    private UdpInvalidationBus receiver;
+
+    private DatagramChannel raw;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        receiver = bus(NODE_ID, List.of(), Duration.ofMinutes(1));
+        receiver.subscribe(recorder);
+
+        raw = DatagramChannel.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        raw.close();
+        for (UdpInvalidationBus bus : buses) {
+            bus.close();
+        }
+    }
+
+    @Test
+    void sendsBurstInOneDatagram() throws Exception {
+        UdpInvalidationBus sender = bus(7L, List.of(addressOf(receiver)),
+                Duration.ofMinutes(1));
+
+        sender.publish(new ProductInvalidation(1L, 3L, false));
+        sender.publish(new ProductInvalidation(2L, 1L, true));
+        sender.publish(new ProductInvalidation(3L, 0L, false));
+
+        assertThat(next())
+                .extracting(ProductInvalidation::getId,
+                        ProductInvalidation::getVersion,
+                        ProductInvalidation::isDeleted)
+                .containsExactly(
+                        tuple(1L, 3L, false),
+                        tuple(2L, 1L, true),
+                        tuple(3L, 0L, false));
+    }
+
+    @Test
+    void sendsBacklogWithoutWaitingAgain() throws Exception {
+        UdpInvalidationBus sender = bus(7L, List.of(addressOf(receiver)),
+                Duration.ofSeconds(1), Duration.ofMinutes(1), 1000);
+
+        long startedAt = System.nanoTime();
+        for (long id = 1; id <= UdpInvalidationBus.MAX_BATCH_SIZE * 2 + 1;
+             id += 1) {
+            sender.publish(new ProductInvalidation(id, 1L, false));
+        }
+
+        assertThat(next()).hasSize(UdpInvalidationBus.MAX_BATCH_SIZE);
+        assertThat(next()).hasSize(UdpInvalidationBus.MAX_BATCH_SIZE);
+        assertThat(next()).hasSize(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt))
+                .isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void resyncsPeersOnOverflow() throws Exception {
+        UdpInvalidationBus sender = bus(7L, List.of(addressOf(receiver)),
+                Duration.ofMillis(200), Duration.ofMinutes(1), 2);
+
+        for (long id = 1; id <= 4; id += 1) {
+            sender.publish(new ProductInvalidation(id, 1L, false));
+        }
+
+        assertThat(next()).extracting(ProductInvalidation::getId)
+                .startsWith(1L, 2L);
+        assertThat(next()).isSameAs(RESYNC);
+    }
+
+    @Test
+    void heartbeatsOfIdleNodeNeedNoResync() throws Exception {
+        UdpInvalidationBus sender = bus(7L, List.of(addressOf(receiver)),
+                Duration.ofMillis(20));
+
+        sender.publish(new ProductInvalidation(1L, 3L, false));
+
+        assertThat(next()).hasSize(1);
+        Thread.sleep(200);
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void keepsSendingWhenPeerFails() throws Exception {
+        UdpInvalidationBus sender = bus(7L, List.of(
+                InetSocketAddress.createUnresolved("peer.invalid", 7700),
+                addressOf(receiver)), Duration.ofMinutes(1));
+
+        sender.publish(new ProductInvalidation(1L, 3L, false));
+
+        assertThat(next()).hasSize(1);
+    }
+
+    @Test
+    void resyncsOnGap() throws Exception {
+        send(datagram(7L, 1, 1, 1L));
+        send(datagram(7L, 3, 1, 3L));
+
+        assertThat(next()).extracting(ProductInvalidation::getId)
+                .containsExactly(1L);
+        assertThat(next()).isSameAs(RESYNC);
+        assertThat(next()).extracting(ProductInvalidation::getId)
+                .containsExactly(3L);
+    }
+
+    @Test
+    void resyncsOnHeartbeatAfterLostDatagram() throws Exception {
+        send(datagram(7L, 1, 0, 0L));
+        send(datagram(7L, 2, 1, 1L));
+
+        assertThat(next()).isSameAs(RESYNC);
+        assertThat(next()).extracting(ProductInvalidation::getId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void ignoresOwnNotices() throws Exception {
+        send(datagram(NODE_ID, 1, 1, 1L));
+        send(datagram(7L, 1, 1, 2L));
+
+        assertThat(next()).extracting(ProductInvalidation::getId)
+                .containsExactly(2L);
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void ignoresForeignAndTruncatedDatagrams() throws Exception {
+        send(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        send(ByteBuffer.allocate(UdpInvalidationBus.HEADER_SIZE)
+                .putInt(0xcafebabe).putLong(7L).putLong(1L)
+                .putShort((short) 0).flip());
+        send(datagram(7L, 1, 5, 1L));
+        send(datagram(7L, 1, 1, 2L));
+
+        assertThat(next()).extracting(ProductInvalidation::getId)
+                .containsExactly(2L);
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void keepsDeliveringWhenSubscriberFails() throws Exception {
+        UdpInvalidationBus failing = bus(NODE_ID + 1, List.of(),
+                Duration.ofMinutes(1));
+        failing.subscribe(new InvalidationBus.Subscriber() {
+            @Override
+            public void invalidate(List<ProductInvalidation> invalidations) {
+                throw new IllegalStateException("쥐돌이");
+            }
+
+            @Override
+            public void resync() {
+            }
+        });
+        failing.subscribe(recorder);
+
+        raw.send(datagram(7L, 1, 1, 1L),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                        failing.getPort()));
+
+        assertThat(next()).hasSize(1);
+    }
+
+    private UdpInvalidationBus bus(long nodeId, List<InetSocketAddress> peers,
+                                   Duration heartbeatInterval)
+            throws IOException {
+        return bus(nodeId, peers, Duration.ofMillis(50), heartbeatInterval,
+                1000);
+    }
+
+    private UdpInvalidationBus bus(long nodeId, List<InetSocketAddress> peers,
+                                   Duration flushInterval,
+                                   Duration heartbeatInterval, int maxQueued)
+            throws IOException {
+        UdpInvalidationBus bus = new UdpInvalidationBus(nodeId,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                peers, flushInterval, heartbeatInterval, maxQueued);
+        buses.add(bus);
+        return bus;
+    }
+
+    private static InetSocketAddress addressOf(UdpInvalidationBus bus)
+            throws IOException {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                bus.getPort());
+    }
+
+    private void send(ByteBuffer datagram) throws IOException {
+        raw.send(datagram, addressOf(receiver));
+    }
+
+    private List<ProductInvalidation> next() throws InterruptedException {
+        List<ProductInvalidation> invalidations =
+                received.poll(5, TimeUnit.SECONDS);
+        assertThat(invalidations).isNotNull();
+        return invalidations;
+    }
+
+    /**
+     * A datagram numbered {@code sequence} from {@code nodeId}, claiming
+     * {@code count} entries and holding one for {@code id} unless the
+     * count is zero.
+     */
+    private static ByteBuffer datagram(long nodeId, long sequence, int count,
+                                       long id) {
+        ByteBuffer buffer = ByteBuffer.allocate(UdpInvalidationBus.HEADER_SIZE
+                        + UdpInvalidationBus.ENTRY_SIZE)
+                .putInt(UdpInvalidationBus.MAGIC)
+                .putLong(nodeId)
+                .putLong(sequence)
+                .putShort((short) count);
+        if (count > 0) {
+            buffer.putLong(id).putLong(1L).put((byte) 0);
+        }
+        return buffer.flip();
+    }
+}
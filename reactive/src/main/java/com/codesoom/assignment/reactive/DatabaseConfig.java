@@ -0,0 +1,22 @@
+package com.codesoom.assignment.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.connectionfactory.init.ConnectionFactoryInitializer;
+import org.springframework.data.r2dbc.connectionfactory.init.ResourceDatabasePopulator;
+
+@Configuration
+public class DatabaseConfig {
+    @Bean
+    public ConnectionFactoryInitializer connectionFactoryInitializer(
+            ConnectionFactory connectionFactory) {
+        ConnectionFactoryInitializer initializer =
+                new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql")));
+        return initializer;
+    }
+}
@@ -0,0 +1,154 @@
+package com.codesoom.assignment.reactive;
+
+import com.codesoom.assignment.ProductNotFoundException;
+import com.codesoom.assignment.controllers.NotFoundErrorAdvice;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ErrorResponse;
+import com.codesoom.assignment.dto.ProductData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.net.URI;
+
+@Component
+public class ProductHandler {
+    static final int DEFAULT_LIMIT = 100;
+
+    static final int MAX_LIMIT = 1000;
+
+    /**
+     * The page size of a list request with neither {@code after} nor
+     * {@code limit} when {@code products.list.unpaged} is set, which gets
+     * the whole catalog as before paging.
+     */
+    static final int UNPAGED = Integer.MAX_VALUE;
+
+    private final ReactiveProductService productService;
+
+    private final Validator validator;
+
+    private final NotFoundErrorAdvice notFoundErrorAdvice =
+            new NotFoundErrorAdvice();
+
+    private final boolean unpaged;
+
+    public ProductHandler(ReactiveProductService productService,
+                          Validator validator,
+                          @Value("${products.list.unpaged:false}")
+                                  boolean unpaged) {
+        this.productService = productService;
+        this.validator = validator;
+        this.unpaged = unpaged;
+    }
+
+    public Mono<ServerResponse> list(ServerRequest request) {
+        Long after = request.queryParam("after")
+                .map(value -> numberOf("after", value))
+                .orElse(null);
+        int limit = request.queryParam("limit")
+                .map(value -> numberOf("limit", value).intValue())
+                .map(value -> Math.min(Math.max(value, 1), MAX_LIMIT))
+                .orElse(unpaged && after == null ? UNPAGED : DEFAULT_LIMIT);
+
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productService.getProducts(after, limit), Product.class);
+    }
+
+    /**
+     * Streams the whole catalog one JSON document per product. Rows are
+     * requested from the database only as fast as the client reads them.
+     */
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_STREAM_JSON)
+                .body(productService.streamProducts(), Product.class);
+    }
+
+    public Mono<ServerResponse> detail(ServerRequest request) {
+        return productService.getProduct(idOf(request))
+                .flatMap(this::ok)
+                .onErrorResume(ProductNotFoundException.class,
+                        this::notFound);
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(ProductData.class)
+                .flatMap(productData -> isValid(productData)
+                        ? productService.createProduct(productData)
+                        .flatMap(product -> ServerResponse
+                                .created(URI.create(
+                                        "/products/" + product.getId()))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(product))
+                        : badRequest())
+                .switchIfEmpty(badRequest());
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        Long id = idOf(request);
+
+        return request.bodyToMono(ProductData.class)
+                .flatMap(productData -> isValid(productData)
+                        ? productService.updateProduct(id, productData)
+                        .flatMap(this::ok)
+                        : badRequest())
+                .switchIfEmpty(badRequest())
+                .onErrorResume(ProductNotFoundException.class,
+                        this::notFound);
+    }
+
+    public Mono<ServerResponse> destroy(ServerRequest request) {
+        return productService.deleteProduct(idOf(request))
+                .flatMap(product -> ServerResponse.noContent().build())
+                .onErrorResume(ProductNotFoundException.class,
+                        this::notFound);
+    }
+
+    private Long idOf(ServerRequest request) {
+        return numberOf("id", request.pathVariable("id"));
+    }
+
+    /**
+     * Parses a path or query parameter, turning a malformed one into a
+     * {@code 400} rather than the {@code 500} an uncaught
+     * {@link NumberFormatException} would become.
+     */
+    private static Long numberOf(String name, String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    name + " must be a number");
+        }
+    }
+
+    private boolean isValid(ProductData productData) {
+        return validator.validate(productData).isEmpty();
+    }
+
+    private Mono<ServerResponse> ok(Product product) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(product);
+    }
+
+    private Mono<ServerResponse> badRequest() {
+        return Mono.defer(() -> ServerResponse.badRequest().build());
+    }
+
+    private Mono<ServerResponse> notFound(ProductNotFoundException e) {
+        ErrorResponse errorResponse =
+                notFoundErrorAdvice.handleProductTaskNotFound();
+        return ServerResponse.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(errorResponse);
+    }
+}
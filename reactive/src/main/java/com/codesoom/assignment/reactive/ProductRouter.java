@@ -0,0 +1,29 @@
+package com.codesoom.assignment.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.PATCH;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Functional equivalent of {@code ProductController}.
+ */
+@Configuration
+public class ProductRouter {
+    @Bean
+    public RouterFunction<ServerResponse> productRoutes(
+            ProductHandler productHandler) {
+        return route(GET("/products"), productHandler::list)
+                .andRoute(GET("/products/stream"), productHandler::stream)
+                .andRoute(GET("/products/{id}"), productHandler::detail)
+                .andRoute(POST("/products"), productHandler::create)
+                .andRoute(PATCH("/products/{id}"), productHandler::update)
+                .andRoute(DELETE("/products/{id}"), productHandler::destroy);
+    }
+}
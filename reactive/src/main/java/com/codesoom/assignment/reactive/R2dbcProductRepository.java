@@ -0,0 +1,120 @@
+package com.codesoom.assignment.reactive;
+
+import com.codesoom.assignment.domain.Product;
+import io.r2dbc.spi.Row;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Maps {@link Product} by hand because its mapping annotations are the JPA
+ * ones, which Spring Data R2DBC does not read.
+ */
+@Repository
+public class R2dbcProductRepository implements ReactiveProductRepository {
+    private static final String COLUMNS =
+            "id, name, maker, price, image_url, version";
+
+    private final DatabaseClient databaseClient;
+
+    public R2dbcProductRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Product> findByIdGreaterThanOrderByIdAsc(Long id, int limit) {
+        return databaseClient.execute("SELECT " + COLUMNS + " FROM product"
+                + " WHERE id > :id ORDER BY id LIMIT :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(this::toProduct)
+                .all();
+    }
+
+    @Override
+    public Flux<Product> findAllOrderByIdAsc() {
+        return databaseClient.execute("SELECT " + COLUMNS + " FROM product"
+                + " ORDER BY id")
+                .map(this::toProduct)
+                .all();
+    }
+
+    @Override
+    public Mono<Product> findById(Long id) {
+        return databaseClient.execute("SELECT " + COLUMNS + " FROM product"
+                + " WHERE id = :id")
+                .bind("id", id)
+                .map(this::toProduct)
+                .one();
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        if (product.getId() == null) {
+            return nextId().flatMap(id -> insert(id, product));
+        }
+        return update(product);
+    }
+
+    @Override
+    public Mono<Void> delete(Product product) {
+        return databaseClient.execute("DELETE FROM product WHERE id = :id")
+                .bind("id", product.getId())
+                .then();
+    }
+
+    private Mono<Long> nextId() {
+        return databaseClient.execute("SELECT NEXT VALUE FOR product_seq")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private Mono<Product> insert(Long id, Product product) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.execute(
+                "INSERT INTO product (" + COLUMNS + ") VALUES"
+                        + " (:id, :name, :maker, :price, :imageUrl, 0)")
+                .bind("id", id);
+        return bindAttributes(spec, product)
+                .then()
+                .then(findById(id));
+    }
+
+    private Mono<Product> update(Product product) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.execute(
+                "UPDATE product SET name = :name, maker = :maker,"
+                        + " price = :price, image_url = :imageUrl,"
+                        + " version = version + 1 WHERE id = :id")
+                .bind("id", product.getId());
+        return bindAttributes(spec, product)
+                .then()
+                .then(findById(product.getId()));
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindAttributes(
+            DatabaseClient.GenericExecuteSpec spec, Product product) {
+        spec = bindNullable(spec, "name", product.getName(), String.class);
+        spec = bindNullable(spec, "maker", product.getMaker(), String.class);
+        spec = bindNullable(spec, "price", product.getPrice(), Integer.class);
+        return bindNullable(spec, "imageUrl", product.getImageUrl(),
+                String.class);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(
+            DatabaseClient.GenericExecuteSpec spec, String name,
+            Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type)
+                : spec.bind(name, value);
+    }
+
+    private Product toProduct(Row row) {
+        return Product.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .maker(row.get("maker", String.class))
+                .price(row.get("price", Integer.class))
+                .imageUrl(row.get("image_url", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.codesoom.assignment.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveApp {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveApp.class, args);
+    }
+}
@@ -0,0 +1,17 @@
+package com.codesoom.assignment.reactive;
+
+import com.codesoom.assignment.domain.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveProductRepository {
+    Flux<Product> findByIdGreaterThanOrderByIdAsc(Long id, int limit);
+
+    Flux<Product> findAllOrderByIdAsc();
+
+    Mono<Product> findById(Long id);
+
+    Mono<Product> save(Product product);
+
+    Mono<Void> delete(Product product);
+}
@@ -0,0 +1,63 @@
+package com.codesoom.assignment.reactive;
+
+import com.codesoom.assignment.ProductNotFoundException;
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductData;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveProductService {
+    private final ReactiveProductRepository productRepository;
+
+    public ReactiveProductService(
+            ReactiveProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public Flux<Product> getProducts(Long after, int limit) {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, limit);
+    }
+
+    public Flux<Product> streamProducts() {
+        return productRepository.findAllOrderByIdAsc();
+    }
+
+    public Mono<Product> getProduct(Long id) {
+        return findProduct(id);
+    }
+
+    public Mono<Product> createProduct(ProductData productData) {
+        return productRepository.save(Product.builder()
+                .name(productData.getName())
+                .maker(productData.getMaker())
+                .price(productData.getPrice())
+                .imageUrl(productData.getImageUrl())
+                .build());
+    }
+
+    public Mono<Product> updateProduct(Long id, ProductData productData) {
+        return findProduct(id).flatMap(product -> {
+            product.change(
+                    productData.getName(),
+                    productData.getMaker(),
+                    productData.getPrice(),
+                    productData.getImageUrl()
+            );
+            return productRepository.save(product);
+        });
+    }
+
+    public Mono<Product> deleteProduct(Long id) {
+        return findProduct(id).flatMap(product ->
+                productRepository.delete(product).thenReturn(product));
+    }
+
+    private Mono<Product> findProduct(Long id) {
+        return productRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() ->
+                        Mono.error(new ProductNotFoundException(id))));
+    }
+}
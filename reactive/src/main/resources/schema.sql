@@ -0,0 +1,10 @@
+CREATE SEQUENCE IF NOT EXISTS product_seq;
+
+CREATE TABLE IF NOT EXISTS product (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255),
+    maker VARCHAR(255),
+    price INTEGER,
+    image_url VARCHAR(255),
+    version BIGINT
+);
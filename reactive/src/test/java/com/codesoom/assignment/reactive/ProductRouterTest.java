@@ -0,0 +1,165 @@
+package com.codesoom.assignment.reactive;
+
+import com.codesoom.assignment.domain.Product;
+import com.codesoom.assignment.dto.ProductData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ProductRouterTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = create(ProductData.builder()
+                .name("쥐돌이")
+                .maker("냥이월드")
+                .price(5000)
+                .build());
+    }
+
+    @Test
+    void list() {
+        webTestClient.get().uri("/products?after={after}&limit=1",
+                product.getId() - 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .value(products -> assertThat(products)
+                        .extracting(Product::getId)
+                        .containsExactly(product.getId()));
+    }
+
+    @Test
+    void listWithoutParams() {
+        webTestClient.get().uri("/products")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .value(products -> assertThat(products)
+                        .extracting(Product::getId)
+                        .contains(product.getId()));
+    }
+
+    @Test
+    void listWithMalformedParams() {
+        webTestClient.get().uri("/products?after=abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/products?limit=abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void stream() {
+        webTestClient.get().uri("/products/stream")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .value(products -> assertThat(products)
+                        .extracting(Product::getId)
+                        .contains(product.getId()));
+    }
+
+    @Test
+    void detailWithExistedProduct() {
+        webTestClient.get().uri("/products/{id}", product.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("쥐돌이");
+    }
+
+    @Test
+    void detailWithNotExistedProduct() {
+        webTestClient.get().uri("/products/{id}", 1000L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Product not found");
+    }
+
+    @Test
+    void detailWithMalformedId() {
+        webTestClient.get().uri("/products/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void createWithInvalidAttributes() {
+        webTestClient.post().uri("/products")
+                .bodyValue(ProductData.builder().name("").maker("").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void updateWithExistedProduct() {
+        webTestClient.patch().uri("/products/{id}", product.getId())
+                .bodyValue(ProductData.builder()
+                        .name("쥐순이")
+                        .maker("냥이월드")
+                        .price(5000)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("쥐순이")
+                .jsonPath("$.version").isEqualTo(1);
+    }
+
+    @Test
+    void updateWithNotExistedProduct() {
+        webTestClient.patch().uri("/products/{id}", 1000L)
+                .bodyValue(ProductData.builder()
+                        .name("쥐순이")
+                        .maker("냥이월드")
+                        .price(5000)
+                        .build())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void destroy() {
+        webTestClient.delete().uri("/products/{id}", product.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri("/products/{id}", product.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void destroyWithMalformedId() {
+        webTestClient.delete().uri("/products/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private Product create(ProductData productData) {
+        return webTestClient.post().uri("/products")
+                .bodyValue(productData)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}